@@ -0,0 +1,177 @@
+package com.danta.lunpicrurebackend.benchmark;
+
+import cn.hutool.core.util.ReflectUtil;
+import com.danta.lunpicrurebackend.annotation.AuthCheck;
+import com.danta.lunpicrurebackend.aop.AuthInterceptor;
+import com.danta.lunpicrurebackend.constant.UserConstant;
+import com.danta.lunpicrurebackend.exception.BusinessException;
+import com.danta.lunpicrurebackend.exception.ErrorCode;
+import com.danta.lunpicrurebackend.model.dto.user.UserPrincipal;
+import com.danta.lunpicrurebackend.model.entity.User;
+import com.danta.lunpicrurebackend.model.enums.UserRoleEnum;
+import com.danta.lunpicrurebackend.service.UserService;
+import com.danta.lunpicrurebackend.service.impl.UserServiceImpl;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 权限校验单次请求开销：改造前的 @Around 切面 vs 启动时编译的策略表拦截器
+ * <p>
+ * 两边使用相同的登录用户解析（直接返回固定用户），只比较权限判断本身以及切面代理的开销。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthInterceptorBenchmark {
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    private AdminEndpoint target;
+
+    private AdminEndpoint legacyProxy;
+
+    private HandlerMethod handlerMethod;
+
+    private AuthInterceptor authInterceptor;
+
+    @Setup
+    public void setup() throws Exception {
+        User loginUser = new User();
+        loginUser.setId(1L);
+        loginUser.setUserRole(UserConstant.ADMIN_ROLE);
+        UserService userService = new FixedUserService(loginUser);
+
+        request = new MockHttpServletRequest();
+        response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        target = new AdminEndpoint();
+
+        // 改造前：切面在每次调用时解析注解和角色
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new LegacyAuthAspect(userService));
+        legacyProxy = proxyFactory.getProxy();
+
+        // 改造后：启动时编译策略表，请求时查表
+        authInterceptor = new AuthInterceptor();
+        ReflectUtil.setFieldValue(authInterceptor, "userService", userService);
+        handlerMethod = new HandlerMethod(target, AdminEndpoint.class.getMethod("list"));
+        authInterceptor.compilePolicies(Collections.singletonList(handlerMethod));
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public Object legacyAspect() {
+        return legacyProxy.list();
+    }
+
+    @Benchmark
+    public Object compiledPolicyInterceptor() throws Exception {
+        authInterceptor.preHandle(request, response, handlerMethod);
+        return target.list();
+    }
+
+    /**
+     * 被校验的管理员接口
+     */
+    public static class AdminEndpoint {
+
+        @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+        public String list() {
+            return "ok";
+        }
+    }
+
+    /**
+     * 返回固定登录用户，排除会话和数据库的影响
+     */
+    static class FixedUserService extends UserServiceImpl {
+
+        private final User loginUser;
+
+        private final UserPrincipal loginPrincipal;
+
+        FixedUserService(User loginUser) {
+            this.loginUser = loginUser;
+            this.loginPrincipal = UserPrincipal.of(loginUser);
+        }
+
+        @Override
+        public User getLoginUser(HttpServletRequest request) {
+            return loginUser;
+        }
+
+        @Override
+        public UserPrincipal getLoginPrincipal(HttpServletRequest request) {
+            return loginPrincipal;
+        }
+    }
+
+    /**
+     * 改造前的权限校验切面（原样保留作为基线）
+     */
+    @Aspect
+    public static class LegacyAuthAspect {
+
+        private final UserService userService;
+
+        LegacyAuthAspect(UserService userService) {
+            this.userService = userService;
+        }
+
+        @Around("@annotation(authCheck)")
+        public Object doIntercept(ProceedingJoinPoint joinPoint, AuthCheck authCheck) throws Throwable {
+            String mustRole = authCheck.mustRole();
+            RequestAttributes requestAttributes = RequestContextHolder.currentRequestAttributes();
+            HttpServletRequest request = ((ServletRequestAttributes) requestAttributes).getRequest();
+            User loginUser = userService.getLoginUser(request);
+            UserRoleEnum mustRoleEnum = linearGetEnumByValue(mustRole);
+            if (mustRoleEnum == null) {
+                return joinPoint.proceed();
+            }
+            UserRoleEnum userRoleEnum = linearGetEnumByValue(loginUser.getUserRole());
+            if (userRoleEnum == null) {
+                throw new BusinessException(ErrorCode.NO_AUTH_ERROR);
+            }
+            if (UserRoleEnum.ADMIN.equals(mustRoleEnum) && !UserRoleEnum.ADMIN.equals(userRoleEnum)) {
+                throw new BusinessException(ErrorCode.NO_AUTH_ERROR);
+            }
+            return joinPoint.proceed();
+        }
+
+        private static UserRoleEnum linearGetEnumByValue(String value) {
+            if (value == null || value.isEmpty()) {
+                return null;
+            }
+            for (UserRoleEnum userRoleEnum : UserRoleEnum.values()) {
+                if (userRoleEnum.getValue().equals(value)) {
+                    return userRoleEnum;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.danta.lunpicrurebackend.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * 基准测试入口，参数与 JMH 命令行一致（例如 java -jar target/benchmarks.jar UserRole -f 1）
+ * <p>
+ * 未指定 -rff 时结果以 JSON 写入 results/jmh-版本-时间.json，便于不同版本之间对比回归。
+ */
+public class BenchmarkRunner {
+
+    private static final String RESULT_DIR = "results";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList()) {
+            // 帮助、列表等非运行命令交给 JMH 原生入口处理
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLineOptions);
+        if (!commandLineOptions.getResult().hasValue()) {
+            new File(RESULT_DIR).mkdirs();
+            String version = BenchmarkRunner.class.getPackage().getImplementationVersion();
+            String time = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+            builder.result(RESULT_DIR + File.separator + "jmh-" + (version == null ? "dev" : version) + "-" + time + ".json")
+                    .resultFormat(ResultFormatType.JSON);
+        }
+        new Runner(builder.build()).run();
+    }
+}
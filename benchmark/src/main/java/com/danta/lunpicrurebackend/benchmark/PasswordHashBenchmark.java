@@ -0,0 +1,65 @@
+package com.danta.lunpicrurebackend.benchmark;
+
+import cn.hutool.crypto.digest.BCrypt;
+import com.danta.lunpicrurebackend.exception.BusinessException;
+import com.danta.lunpicrurebackend.manager.PasswordHashManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 并发登录时的密码校验吞吐：在请求线程上直接计算 vs 提交到有界哈希线程池
+ * <p>
+ * 线程池模式下排队已满的请求会快速失败（系统繁忙），这部分次数单独计入 rejected。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(32)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashBenchmark {
+
+    private static final String PASSWORD = "12345678";
+
+    @Param({"10"})
+    private int cost;
+
+    private PasswordHashManager passwordHashManager;
+
+    private String storedHash;
+
+    @Setup
+    public void setup() {
+        passwordHashManager = new PasswordHashManager(cost, 0, 0, 64, 3000, 0, 16);
+        storedHash = BCrypt.hashpw(PASSWORD, BCrypt.gensalt(cost));
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHashManager.destroy();
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class LoginCounters {
+
+        public long rejected;
+    }
+
+    @Benchmark
+    public boolean callerThread() {
+        return BCrypt.checkpw(PASSWORD, storedHash);
+    }
+
+    @Benchmark
+    public boolean boundedPool(LoginCounters counters) {
+        try {
+            return passwordHashManager.matches(PASSWORD, storedHash);
+        } catch (BusinessException e) {
+            counters.rejected++;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.danta.lunpicrurebackend.benchmark;
+
+import com.danta.lunpicrurebackend.common.BaseResponse;
+import com.danta.lunpicrurebackend.common.PageResult;
+import com.danta.lunpicrurebackend.common.ResultUtils;
+import com.danta.lunpicrurebackend.config.JsonConfig;
+import com.danta.lunpicrurebackend.model.vo.LoginUserVo;
+import com.danta.lunpicrurebackend.model.vo.UserVO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ResultUtils.success 包装后按 JsonConfig 的 ObjectMapper（Long 转 String）序列化的耗时，配合 -prof gc 查看分配量
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseSerializationBenchmark {
+
+    @Param({"20", "1000"})
+    private int pageSize;
+
+    /**
+     * false：改造前的配置（只有 Long 转 String）；true：预置序列化器 + Afterburner
+     */
+    @Param({"false", "true"})
+    private boolean optimized;
+
+    private ObjectMapper objectMapper;
+
+    private PageResult<UserVO> page;
+
+    private LoginUserVo loginUserVo;
+
+    @Setup
+    public void setup() {
+        objectMapper = new JsonConfig().jacksonObjectMapper(new Jackson2ObjectMapperBuilder()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS), optimized);
+        Date now = new Date();
+        List<UserVO> records = new ArrayList<>(pageSize);
+        for (long i = 1; i <= pageSize; i++) {
+            UserVO userVO = new UserVO();
+            userVO.setId(1800000000000000000L + i);
+            userVO.setUserAccount("account" + i);
+            userVO.setUserName("用户" + i);
+            userVO.setUserAvatar("https://example.com/avatar/" + i + ".png");
+            userVO.setUserProfile("profile " + i);
+            userVO.setUserRole("user");
+            userVO.setCreateTime(now);
+            records.add(userVO);
+        }
+        page = new PageResult<>(1, pageSize, 100000, true);
+        page.setRecords(records);
+        loginUserVo = new LoginUserVo();
+        loginUserVo.setId(1800000000000000000L);
+        loginUserVo.setUserAccount("account");
+        loginUserVo.setUserName("用户");
+        loginUserVo.setUserRole("admin");
+        loginUserVo.setCreateTime(now);
+        loginUserVo.setUpdateTime(now);
+    }
+
+    @Benchmark
+    public byte[] userPage() throws JsonProcessingException {
+        BaseResponse<PageResult<UserVO>> response = ResultUtils.success(page);
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    /**
+     * 与 MappingJackson2HttpMessageConverter 一样直接写入输出流，不先生成完整的 byte[]
+     */
+    @Benchmark
+    public void userPageToStream(Blackhole blackhole) throws IOException {
+        BaseResponse<PageResult<UserVO>> response = ResultUtils.success(page);
+        objectMapper.writeValue(new BlackholeOutputStream(blackhole), response);
+    }
+
+    @Benchmark
+    public byte[] loginUser() throws JsonProcessingException {
+        BaseResponse<LoginUserVo> response = ResultUtils.success(loginUserVo);
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    /**
+     * 丢弃写入内容的输出流，代替 servlet 输出流
+     */
+    private static class BlackholeOutputStream extends OutputStream {
+
+        private final Blackhole blackhole;
+
+        BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(len);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.danta.lunpicrurebackend.benchmark;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.danta.lunpicrurebackend.model.dto.user.UserQueryRequest;
+import com.danta.lunpicrurebackend.model.entity.User;
+import com.danta.lunpicrurebackend.service.impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getUserQueryWrapper 构造查询条件并生成 SQL 片段的耗时
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserQueryWrapperBenchmark {
+
+    /**
+     * empty：只有分页参数；full：全部过滤条件加排序
+     */
+    @Param({"empty", "full"})
+    private String filter;
+
+    private UserServiceImpl userService;
+
+    private UserQueryRequest userQueryRequest;
+
+    @Setup
+    public void setup() {
+        userService = new UserServiceImpl();
+        userQueryRequest = new UserQueryRequest();
+        if ("full".equals(filter)) {
+            userQueryRequest.setId(1800000000000000001L);
+            userQueryRequest.setUserName("dan");
+            userQueryRequest.setUserAccount("danta");
+            userQueryRequest.setUserProfile("picture");
+            userQueryRequest.setUserRole("admin");
+            userQueryRequest.setSortField("createTime");
+            userQueryRequest.setSortOrder("ascend");
+        }
+    }
+
+    @Benchmark
+    public QueryWrapper<User> buildWrapper() {
+        return userService.getUserQueryWrapper(userQueryRequest);
+    }
+
+    @Benchmark
+    public String buildSqlSegment() {
+        return userService.getUserQueryWrapper(userQueryRequest).getCustomSqlSegment();
+    }
+}
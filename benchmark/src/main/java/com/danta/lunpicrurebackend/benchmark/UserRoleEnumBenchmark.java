@@ -0,0 +1,37 @@
+package com.danta.lunpicrurebackend.benchmark;
+
+import com.danta.lunpicrurebackend.model.enums.UserRoleEnum;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserRoleEnum.getEnumByValue：静态 Map 查找 vs 改造前遍历 values() 比较
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserRoleEnumBenchmark {
+
+    @Param({"user", "admin", "unknown"})
+    private String value;
+
+    @Benchmark
+    public UserRoleEnum mapLookup() {
+        return UserRoleEnum.getEnumByValue(value);
+    }
+
+    @Benchmark
+    public UserRoleEnum legacyLoop() {
+        // 改造前的实现：每次调用 values() 都会复制一次数组
+        for (UserRoleEnum userRoleEnum : UserRoleEnum.values()) {
+            if (userRoleEnum.getValue().equals(value)) {
+                return userRoleEnum;
+            }
+        }
+        return null;
+    }
+}
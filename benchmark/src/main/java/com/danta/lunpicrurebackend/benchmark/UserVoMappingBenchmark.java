@@ -0,0 +1,86 @@
+package com.danta.lunpicrurebackend.benchmark;
+
+import cn.hutool.core.bean.BeanUtil;
+import com.danta.lunpicrurebackend.convert.UserConvert;
+import com.danta.lunpicrurebackend.convert.UserConvertImpl;
+import com.danta.lunpicrurebackend.model.entity.User;
+import com.danta.lunpicrurebackend.model.vo.UserVO;
+import com.danta.lunpicrurebackend.service.impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * /user/list/page/vo 一页用户转换为 VO 的耗时：Hutool 反射拷贝 vs MapStruct 生成代码 vs UserServiceImpl.getUserVoList
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserVoMappingBenchmark {
+
+    @Param({"1000"})
+    private int pageSize;
+
+    private List<User> page;
+
+    private UserConvert userConvert;
+
+    private UserServiceImpl userService;
+
+    @Setup
+    public void setup() {
+        page = new ArrayList<>(pageSize);
+        Date now = new Date();
+        for (long i = 1; i <= pageSize; i++) {
+            User user = new User();
+            user.setId(1800000000000000000L + i);
+            user.setUserAccount("account" + i);
+            user.setUserPassword("$2a$10$abcdefghijklmnopqrstuuabcdefghijklmnopqrstuvwxyz01234");
+            user.setUserName("用户" + i);
+            user.setUserAvatar("https://example.com/avatar/" + i + ".png");
+            user.setUserProfile("profile " + i);
+            user.setUserRole(i % 10 == 0 ? "admin" : "user");
+            user.setCreateTime(now);
+            user.setUpdateTime(now);
+            user.setEditTime(now);
+            user.setIsDelete(0);
+            page.add(user);
+        }
+        userConvert = new UserConvertImpl();
+        userService = new UserServiceImpl();
+        ReflectionTestUtils.setField(userService, "userConvert", userConvert);
+    }
+
+    /**
+     * 改造前的 getUserVoList
+     */
+    @Benchmark
+    public List<UserVO> beanUtilCopy() {
+        return page.stream().map(user -> {
+            UserVO userVO = new UserVO();
+            BeanUtil.copyProperties(user, userVO);
+            return userVO;
+        }).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<UserVO> generatedMapper() {
+        return userConvert.toUserVoList(page);
+    }
+
+    /**
+     * 当前 UserServiceImpl.getUserVoList
+     */
+    @Benchmark
+    public List<UserVO> serviceGetUserVoList() {
+        return userService.getUserVoList(page);
+    }
+}
@@ -0,0 +1,9 @@
+#!/bin/sh
+# 启动脚本：先执行 mvn -P cds package 生成 target/lib 和 target/app-cds.jsa
+# 归档与 JDK 或依赖不匹配时 JVM 会忽略它正常启动（-Xshare:auto），只是没有加速效果
+cd "$(dirname "$0")/../target" || exit 1
+CDS_OPTS=""
+if [ -f app-cds.jsa ]; then
+  CDS_OPTS="-XX:SharedArchiveFile=app-cds.jsa -Xlog:cds=off"
+fi
+exec java $CDS_OPTS $JAVA_OPTS -jar lun-picture-backend-0.0.1-SNAPSHOT.jar --spring.profiles.active=prod "$@"
@@ -22,3 +22,60 @@ create table if not exists user
     UNIQUE KEY uk_userAccount (userAccount),
     INDEX idx_userName (userName)
     ) comment '用户' collate = utf8mb4_unicode_ci;
+
+-- 图片表
+-- 文件按内容的 SHA-256 存储，内容相同的图片共用同一个文件
+create table if not exists picture
+(
+    id           bigint                             not null comment 'id（雪花或号段生成，见 id_segment）' primary key,
+    url          varchar(512)                       not null comment '图片 url',
+    name         varchar(128)                       not null comment '图片名称',
+    introduction varchar(512)                       null comment '简介',
+    category     varchar(64)                        null comment '分类',
+    tags         varchar(512)                       null comment '标签（JSON 数组）',
+    picSize      bigint                             null comment '图片体积（字节）',
+    picWidth     int                                null comment '图片宽度',
+    picHeight    int                                null comment '图片高度',
+    picScale     double                             null comment '图片宽高比例',
+    picFormat    varchar(32)                        null comment '图片格式',
+    derivatives  varchar(1024)                      null comment '缩略图等衍生图片（JSON：尺寸名 -> url）',
+    contentHash  char(64)                           not null comment '文件内容 SHA-256',
+    userId       bigint                             not null comment '创建用户 id',
+    createTime   datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    editTime     datetime default CURRENT_TIMESTAMP not null comment '编辑时间',
+    updateTime   datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
+    isDelete     tinyint  default 0                 not null comment '是否删除',
+    INDEX idx_name (name),
+    INDEX idx_category (category),
+    INDEX idx_userId (userId),
+    INDEX idx_contentHash (contentHash)
+) comment '图片' collate = utf8mb4_unicode_ci;
+
+-- 主键号段表（lun-picture.id-generator.type=segment）
+-- 每个表一行，应用每次把 maxId 增加一个步长，租用 (旧 maxId, 新 maxId] 这一段 id；
+-- 行不存在时应用自动插入，起点为该表当前的最大 id
+create table if not exists id_segment
+(
+    bizTag     varchar(128)                       not null comment '业务标识（表名）' primary key,
+    maxId      bigint                             not null comment '已分配的最大 id',
+    updateTime datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间'
+) comment '主键号段' collate = utf8mb4_unicode_ci;
+
+-- 已删除用户归档表（结构同 user，由归档任务写入，不再参与业务查询）
+create table if not exists user_archive
+(
+    id           bigint                                 not null comment 'id' primary key,
+    userAccount  varchar(256)                           not null comment '账号',
+    userPassword varchar(512)                           not null comment '密码',
+    userName     varchar(256)                           null comment '用户昵称',
+    userAvatar   varchar(1024)                          null comment '用户头像',
+    userProfile  varchar(512)                           null comment '用户简介',
+    userRole     varchar(256) default 'user'            not null comment '用户角色：user/admin',
+    editTime     datetime     default CURRENT_TIMESTAMP not null comment '编辑时间',
+    createTime   datetime     default CURRENT_TIMESTAMP not null comment '创建时间',
+    updateTime   datetime     default CURRENT_TIMESTAMP not null comment '更新时间（即删除时间）',
+    isDelete     tinyint      default 1                 not null comment '是否删除',
+    archiveTime  datetime     default CURRENT_TIMESTAMP not null comment '归档时间',
+    INDEX idx_userAccount (userAccount),
+    INDEX idx_archiveTime (archiveTime)
+    ) comment '已删除用户归档' collate = utf8mb4_unicode_ci;
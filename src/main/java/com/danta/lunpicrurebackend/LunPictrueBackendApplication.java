@@ -1,17 +1,30 @@
 package com.danta.lunpicrurebackend;
 
-import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 
 @SpringBootApplication
-@MapperScan("com.danta.lunpicrurebackend.mapper")
 @EnableAspectJAutoProxy(exposeProxy = true)
 public class LunPictrueBackendApplication {
 
+    /**
+     * 启动步骤缓冲区大小，足够记录所有 Bean 的实例化
+     */
+    private static final int STARTUP_STEP_CAPACITY = 8192;
+
     public static void main(String[] args) {
-        SpringApplication.run(LunPictrueBackendApplication.class, args);
+        SpringApplication application = new SpringApplication(LunPictrueBackendApplication.class);
+        // 记录启动步骤，启动完成后由 StartupReportListener 输出按 Bean 的耗时报告
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+        ConfigurableApplicationContext context = application.run(args);
+        // 生成类数据共享（CDS）归档的训练运行：启动完成即退出，退出时 JVM 写出归档
+        if (Boolean.getBoolean("lun-picture.cds.training")) {
+            context.close();
+            System.exit(0);
+        }
     }
 
 }
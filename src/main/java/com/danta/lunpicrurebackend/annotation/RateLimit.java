@@ -0,0 +1,23 @@
+package com.danta.lunpicrurebackend.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 接口限流，规则在 lun-picture.rate-limit.rules 下按名称配置
+ * <p>
+ * 按客户端 IP 的限流由拦截器在进入接口前完成；按账号的限流需要在接口中读取请求体后调用
+ * {@link com.danta.lunpicrurebackend.manager.RateLimitManager#checkAccount(String, String)}。
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimit {
+
+    /**
+     * 规则名
+     */
+    String value();
+
+}
@@ -0,0 +1,17 @@
+package com.danta.lunpicrurebackend.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 只读方法：方法内的查询路由到从库（当前用户刚写过数据时仍走主库），写操作始终走主库
+ * <p>
+ * 通过 Spring 代理生效，同一个类内部的自调用不会切换数据源。
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnly {
+
+}
@@ -3,63 +3,102 @@ package com.danta.lunpicrurebackend.aop;
 import com.danta.lunpicrurebackend.annotation.AuthCheck;
 import com.danta.lunpicrurebackend.exception.BusinessException;
 import com.danta.lunpicrurebackend.exception.ErrorCode;
-import com.danta.lunpicrurebackend.model.entity.User;
+import com.danta.lunpicrurebackend.model.dto.user.UserPrincipal;
 import com.danta.lunpicrurebackend.model.enums.UserRoleEnum;
 import com.danta.lunpicrurebackend.service.UserService;
-import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.Around;
-import org.aspectj.lang.annotation.Aspect;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.stereotype.Component;
-import org.springframework.web.context.request.RequestAttributes;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
-
-@Aspect
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 权限校验拦截器
+ * <p>
+ * 启动时把所有接口上的 @AuthCheck 编译成 方法 -> 权限掩码 的策略表，请求时只需一次哈希查找和一次位运算。
+ */
+@Slf4j
 @Component
-public class AuthInterceptor {
+public class AuthInterceptor implements HandlerInterceptor, ApplicationListener<ContextRefreshedEvent> {
 
     @Resource
     private UserService userService;
 
-    @Around("@annotation(authCheck)") //环绕通知，作用在被 @AuthCheck 注解标记的方法上
-    private Object doIntercept(ProceedingJoinPoint joinPoint, AuthCheck authCheck) throws Throwable {
-        // 从注解中获取必须角色
-        String mustRole = authCheck.mustRole();
-
-        // 获取当前登录的用户信息
-        RequestAttributes requestAttributes = RequestContextHolder.currentRequestAttributes();
-        HttpServletRequest request = ((ServletRequestAttributes) requestAttributes).getRequest();
-        User loginUser = userService.getLoginUser(request);
-
-
+    /**
+     * 策略表：接口方法 -> 要求的权限掩码（0 表示只要求登录）
+     */
+    private volatile Map<Method, Integer> policyTable = Collections.emptyMap();
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        List<HandlerMethod> handlerMethods = new ArrayList<>();
+        for (RequestMappingHandlerMapping handlerMapping :
+                event.getApplicationContext().getBeansOfType(RequestMappingHandlerMapping.class).values()) {
+            handlerMethods.addAll(handlerMapping.getHandlerMethods().values());
+        }
+        compilePolicies(handlerMethods);
+    }
 
-        // 根据注解中指定的角色（mustRole）获取对应的角色枚举
-        UserRoleEnum mustRoleEnum = UserRoleEnum.getEnumByValue(mustRole);
+    /**
+     * 将接口方法上的 @AuthCheck 编译进策略表
+     *
+     * @param handlerMethods 接口方法
+     */
+    public synchronized void compilePolicies(Collection<HandlerMethod> handlerMethods) {
+        Map<Method, Integer> table = new HashMap<>(policyTable);
+        for (HandlerMethod handlerMethod : handlerMethods) {
+            Method method = handlerMethod.getMethod();
+            AuthCheck authCheck = AnnotatedElementUtils.findMergedAnnotation(method, AuthCheck.class);
+            if (authCheck == null) {
+                continue;
+            }
+            // 根据注解中指定的角色获取权限掩码，没有指定角色（或角色不存在）只要求登录
+            UserRoleEnum mustRoleEnum = UserRoleEnum.getEnumByValue(authCheck.mustRole());
+            table.put(method, mustRoleEnum == null ? 0 : mustRoleEnum.getMask());
+        }
+        policyTable = table;
+        log.info("auth policies compiled, size = {}", table.size());
+    }
 
-        // 如果没有指定角色，直接执行方法
-        if (mustRoleEnum == null) {
-            return joinPoint.proceed();
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        Integer requiredMask = policyTable.get(((HandlerMethod) handler).getMethod());
+        // 没有 @AuthCheck 的接口直接放行
+        if (requiredMask == null) {
+            return true;
         }
 
-        // 获取当前登录用户的角色
-        UserRoleEnum userRoleEnum = UserRoleEnum.getEnumByValue(loginUser.getUserRole());
+        // 获取当前登录身份（会缓存到请求中；令牌认证模式下只验签，不查会话和数据库）
+        UserPrincipal loginPrincipal = userService.getLoginPrincipal(request);
 
-        // 如果用户角色无效，抛出权限错误
+        // 获取当前登录用户的角色，角色无效抛出权限错误
+        UserRoleEnum userRoleEnum = UserRoleEnum.getEnumByValue(loginPrincipal.getUserRole());
         if (userRoleEnum == null) {
             throw new BusinessException(ErrorCode.NO_AUTH_ERROR);
         }
 
-        // 如果用户角色不是管理员且不符合要求，抛出权限错误
-        if (UserRoleEnum.ADMIN.equals(mustRoleEnum) && !UserRoleEnum.ADMIN.equals(userRoleEnum)) {
+        // 用户角色不具备要求的全部权限位，抛出权限错误
+        if (!userRoleEnum.hasMask(requiredMask)) {
             throw new BusinessException(ErrorCode.NO_AUTH_ERROR);
         }
-
-        // 如果一切正常，继续执行方法
-        return joinPoint.proceed();
+        return true;
     }
 
-
 }
@@ -0,0 +1,78 @@
+package com.danta.lunpicrurebackend.aop;
+
+import com.danta.lunpicrurebackend.manager.MetricsManager;
+import com.danta.lunpicrurebackend.manager.QueryInspectorManager;
+import com.danta.lunpicrurebackend.utils.LatencyHistogram;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 接口耗时统计拦截器
+ * <p>
+ * 按接口方法记录从进入拦截器到请求完成（包括流式写出响应）的耗时，指标名为 http.类名.方法名；
+ * 同时在请求期间开启 SQL 检查（慢查询、N+1）。
+ * 应注册在其他拦截器之前，被权限校验拒绝的请求也会计入。
+ */
+@Component
+public class MetricsInterceptor implements HandlerInterceptor {
+
+    private static final String START_NANOS_ATTRIBUTE = MetricsInterceptor.class.getName() + ".startNanos";
+
+    @Resource
+    private MetricsManager metricsManager;
+
+    @Resource
+    private QueryInspectorManager queryInspectorManager;
+
+    private final Map<Method, EndpointMetrics> endpointCache = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            queryInspectorManager.start(endpointOf((HandlerMethod) handler).name);
+            request.setAttribute(START_NANOS_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object startNanos = request.getAttribute(START_NANOS_ATTRIBUTE);
+        if (!(startNanos instanceof Long) || !(handler instanceof HandlerMethod)) {
+            return;
+        }
+        endpointOf((HandlerMethod) handler).histogram.record(System.nanoTime() - (Long) startNanos);
+        queryInspectorManager.finish();
+    }
+
+    private EndpointMetrics endpointOf(HandlerMethod handlerMethod) {
+        EndpointMetrics endpointMetrics = endpointCache.get(handlerMethod.getMethod());
+        if (endpointMetrics == null) {
+            endpointMetrics = endpointCache.computeIfAbsent(handlerMethod.getMethod(), method -> {
+                String name = handlerMethod.getBeanType().getSimpleName() + "." + method.getName();
+                return new EndpointMetrics(name, metricsManager.histogram("http." + name));
+            });
+        }
+        return endpointMetrics;
+    }
+
+    private static class EndpointMetrics {
+
+        private final String name;
+
+        private final LatencyHistogram histogram;
+
+        EndpointMetrics(String name, LatencyHistogram histogram) {
+            this.name = name;
+            this.histogram = histogram;
+        }
+    }
+}
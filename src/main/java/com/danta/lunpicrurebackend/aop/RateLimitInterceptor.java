@@ -0,0 +1,52 @@
+package com.danta.lunpicrurebackend.aop;
+
+import com.danta.lunpicrurebackend.annotation.RateLimit;
+import com.danta.lunpicrurebackend.manager.RateLimitManager;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 限流拦截器：按 @RateLimit 的规则对客户端 IP 限流，在读取请求体和执行接口之前拒绝
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    /**
+     * 没有限流规则的接口
+     */
+    private static final String NO_RULE = "";
+
+    @Resource
+    private RateLimitManager rateLimitManager;
+
+    /**
+     * 接口方法 -> 规则名
+     */
+    private final Map<Method, String> ruleCache = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        String rule = ruleCache.get(handlerMethod.getMethod());
+        if (rule == null) {
+            RateLimit rateLimit = handlerMethod.getMethodAnnotation(RateLimit.class);
+            rule = rateLimit == null ? NO_RULE : rateLimit.value();
+            ruleCache.put(handlerMethod.getMethod(), rule);
+        }
+        if (!NO_RULE.equals(rule)) {
+            rateLimitManager.checkIp(rule, request.getRemoteAddr());
+        }
+        return true;
+    }
+}
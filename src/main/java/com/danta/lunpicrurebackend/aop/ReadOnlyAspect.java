@@ -0,0 +1,30 @@
+package com.danta.lunpicrurebackend.aop;
+
+import com.danta.lunpicrurebackend.manager.DataSourceRoutingManager;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * @ReadOnly 方法内的查询路由到从库
+ */
+@Aspect
+@Component
+public class ReadOnlyAspect {
+
+    @Resource
+    private DataSourceRoutingManager dataSourceRoutingManager;
+
+    @Around("@annotation(com.danta.lunpicrurebackend.annotation.ReadOnly)")
+    public Object routeToReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean previous = dataSourceRoutingManager.enterReadOnly();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            dataSourceRoutingManager.exitReadOnly(previous);
+        }
+    }
+}
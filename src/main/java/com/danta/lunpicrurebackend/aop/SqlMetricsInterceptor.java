@@ -0,0 +1,109 @@
+package com.danta.lunpicrurebackend.aop;
+
+import com.danta.lunpicrurebackend.manager.MetricsManager;
+import com.danta.lunpicrurebackend.manager.QueryInspectorManager;
+import com.danta.lunpicrurebackend.utils.LatencyHistogram;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQL 耗时统计
+ * <p>
+ * 按语句 id 记录每次执行的耗时，指标名为 sql.Mapper名.方法名（流式查询包括逐行处理结果的时间）；
+ * 批量执行器的 update 只是攒批，真正的执行耗时记在 sql.flushStatements 上。
+ * 每条语句同时交给 {@link QueryInspectorManager} 做慢查询和 N+1 检查。
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "flushStatements", args = {})
+})
+public class SqlMetricsInterceptor implements Interceptor {
+
+    private final MetricsManager metricsManager;
+
+    private final QueryInspectorManager queryInspectorManager;
+
+    private final LatencyHistogram flushHistogram;
+
+    private final Map<String, StatementMetrics> statementCache = new ConcurrentHashMap<>();
+
+    public SqlMetricsInterceptor(MetricsManager metricsManager, QueryInspectorManager queryInspectorManager) {
+        this.metricsManager = metricsManager;
+        this.queryInspectorManager = queryInspectorManager;
+        this.flushHistogram = metricsManager.histogram("sql.flushStatements");
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        if (args.length == 0) {
+            long start = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                flushHistogram.record(System.nanoTime() - start);
+            }
+        }
+        StatementMetrics statementMetrics = statementOf((MappedStatement) args[0]);
+        queryInspectorManager.beforeStatement(statementMetrics.name);
+        long start = System.nanoTime();
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            statementMetrics.histogram.record(elapsedNanos);
+            queryInspectorManager.afterStatement(statementMetrics.name, elapsedNanos,
+                    Integer.valueOf(BatchExecutor.BATCH_UPDATE_RETURN_VALUE).equals(result));
+        }
+    }
+
+    private StatementMetrics statementOf(MappedStatement mappedStatement) {
+        StatementMetrics statementMetrics = statementCache.get(mappedStatement.getId());
+        if (statementMetrics == null) {
+            statementMetrics = statementCache.computeIfAbsent(mappedStatement.getId(), id -> {
+                String name = shortName(id);
+                return new StatementMetrics(name, metricsManager.histogram("sql." + name));
+            });
+        }
+        return statementMetrics;
+    }
+
+    /**
+     * 去掉包名：com.xxx.mapper.UserMapper.selectById -> UserMapper.selectById
+     */
+    private static String shortName(String statementId) {
+        int methodDot = statementId.lastIndexOf('.');
+        int classDot = methodDot > 0 ? statementId.lastIndexOf('.', methodDot - 1) : -1;
+        return statementId.substring(classDot + 1);
+    }
+
+    private static class StatementMetrics {
+
+        private final String name;
+
+        private final LatencyHistogram histogram;
+
+        StatementMetrics(String name, LatencyHistogram histogram) {
+            this.name = name;
+            this.histogram = histogram;
+        }
+    }
+}
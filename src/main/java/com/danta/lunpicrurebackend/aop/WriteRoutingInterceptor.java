@@ -0,0 +1,35 @@
+package com.danta.lunpicrurebackend.aop;
+
+import com.danta.lunpicrurebackend.manager.DataSourceRoutingManager;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+
+/**
+ * 写操作路由：insert、update、delete 始终在主库执行（即使处于 @ReadOnly 方法内），并记录当前用户刚写过数据
+ * <p>
+ * 连接在执行第一条语句时才获取，在这里切换到主库即可生效；已开启事务的连接不受影响。
+ */
+@Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+public class WriteRoutingInterceptor implements Interceptor {
+
+    private final DataSourceRoutingManager dataSourceRoutingManager;
+
+    public WriteRoutingInterceptor(DataSourceRoutingManager dataSourceRoutingManager) {
+        this.dataSourceRoutingManager = dataSourceRoutingManager;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        dataSourceRoutingManager.markWrite();
+        boolean previous = dataSourceRoutingManager.enterPrimary();
+        try {
+            return invocation.proceed();
+        } finally {
+            dataSourceRoutingManager.exitPrimary(previous);
+        }
+    }
+}
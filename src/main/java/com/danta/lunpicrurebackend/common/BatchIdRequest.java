@@ -0,0 +1,20 @@
+package com.danta.lunpicrurebackend.common;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量 id 请求
+ */
+@Data
+public class BatchIdRequest implements Serializable {
+
+    /**
+     * id 列表
+     */
+    private List<Long> ids;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,46 @@
+package com.danta.lunpicrurebackend.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 批量操作中单项的处理结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult implements Serializable {
+
+    /**
+     * 在请求列表中的下标
+     */
+    private int index;
+
+    /**
+     * 数据 id（新增成功时为新 id）
+     */
+    private Long id;
+
+    /**
+     * 是否成功
+     */
+    private boolean success;
+
+    /**
+     * 失败原因
+     */
+    private String message;
+
+    public static BatchItemResult success(int index, Long id) {
+        return new BatchItemResult(index, id, true, null);
+    }
+
+    public static BatchItemResult fail(int index, Long id, String message) {
+        return new BatchItemResult(index, id, false, message);
+    }
+
+    private static final long serialVersionUID = 1L;
+}
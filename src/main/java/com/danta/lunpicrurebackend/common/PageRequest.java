@@ -24,4 +24,14 @@ public class PageRequest {
      * 排序顺序（默认降序）
      */
     private String sortOrder = "descend";
+
+    /**
+     * 游标（不为 null 时使用游标分页，忽略 current；首页传空字符串，后续传上一页返回的 nextCursor）
+     */
+    private String cursor;
+
+    /**
+     * 是否查询总数（翻页时可关闭以省去 COUNT 查询）
+     */
+    private boolean searchCount = true;
 }
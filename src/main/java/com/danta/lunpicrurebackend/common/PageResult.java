@@ -0,0 +1,34 @@
+package com.danta.lunpicrurebackend.common;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 分页结果
+ * <p>
+ * 在 Page 的基础上增加游标分页的下一页游标，偏移分页和游标分页共用同一个返回结构。
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class PageResult<T> extends Page<T> {
+
+    /**
+     * 下一页游标（游标分页时返回，为 null 表示没有下一页）
+     */
+    private String nextCursor;
+
+    /**
+     * 总数是否为精确值（统计超时时返回估算值）
+     */
+    private boolean exactTotal = true;
+
+    public PageResult() {
+    }
+
+    public PageResult(long current, long size, long total, boolean searchCount) {
+        super(current, size, total, searchCount);
+    }
+
+    private static final long serialVersionUID = 1L;
+}
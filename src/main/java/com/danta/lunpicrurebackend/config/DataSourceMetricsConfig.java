@@ -0,0 +1,88 @@
+package com.danta.lunpicrurebackend.config;
+
+import com.danta.lunpicrurebackend.manager.MetricsManager;
+import com.danta.lunpicrurebackend.utils.LatencyHistogram;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 连接池指标
+ * <p>
+ * 给 Hikari 连接池挂上指标采集：获取连接的等待时间（pool.连接池名.acquire）、连接占用时间（pool.连接池名.usage）、
+ * 获取超时次数，以及活跃、空闲连接数和等待线程数。连接池在第一次获取连接时才启动，初始化后设置即可生效。
+ */
+@Configuration
+public class DataSourceMetricsConfig {
+
+    @Bean
+    public static BeanPostProcessor hikariMetricsPostProcessor(ObjectProvider<MetricsManager> metricsManagerProvider) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource) {
+                    trackPool((HikariDataSource) bean, metricsManagerProvider.getObject());
+                } else if (bean instanceof AbstractRoutingDataSource) {
+                    // 读写分离时每个库各有一个连接池
+                    for (DataSource dataSource : ((AbstractRoutingDataSource) bean).getResolvedDataSources().values()) {
+                        if (dataSource instanceof HikariDataSource) {
+                            trackPool((HikariDataSource) dataSource, metricsManagerProvider.getObject());
+                        }
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static void trackPool(HikariDataSource dataSource, MetricsManager metricsManager) {
+        dataSource.setMetricsTrackerFactory(new PoolMetricsTrackerFactory(metricsManager));
+    }
+
+    static class PoolMetricsTrackerFactory implements MetricsTrackerFactory {
+
+        private final MetricsManager metricsManager;
+
+        PoolMetricsTrackerFactory(MetricsManager metricsManager) {
+            this.metricsManager = metricsManager;
+        }
+
+        @Override
+        public IMetricsTracker create(String poolName, PoolStats poolStats) {
+            String prefix = "pool." + poolName + ".";
+            metricsManager.gauge(prefix + "active", poolStats::getActiveConnections);
+            metricsManager.gauge(prefix + "idle", poolStats::getIdleConnections);
+            metricsManager.gauge(prefix + "pending", poolStats::getPendingThreads);
+            LatencyHistogram acquireHistogram = metricsManager.histogram(prefix + "acquire");
+            LatencyHistogram usageHistogram = metricsManager.histogram(prefix + "usage");
+            LongAdder timeoutCounter = metricsManager.counter(prefix + "timeout");
+            return new IMetricsTracker() {
+                @Override
+                public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                    acquireHistogram.record(elapsedAcquiredNanos);
+                }
+
+                @Override
+                public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                    usageHistogram.record(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+                }
+
+                @Override
+                public void recordConnectionTimeout() {
+                    timeoutCounter.increment();
+                }
+            };
+        }
+    }
+}
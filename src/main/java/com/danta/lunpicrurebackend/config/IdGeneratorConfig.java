@@ -0,0 +1,36 @@
+package com.danta.lunpicrurebackend.config;
+
+import com.danta.lunpicrurebackend.manager.DataSourceRoutingManager;
+import com.danta.lunpicrurebackend.manager.id.JdbcIdSegmentAllocator;
+import com.danta.lunpicrurebackend.manager.id.SegmentIdGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 主键生成配置
+ * <p>
+ * lun-picture.id-generator.type 取值：
+ * segment - 号段生成器，id 从 id_segment 表按段租用，在内存中发放，整体递增；
+ * snowflake - 不注册生成器，使用 MyBatis-Plus 默认的雪花算法（默认）。
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "lun-picture.id-generator.type", havingValue = "segment")
+    public SegmentIdGenerator segmentIdGenerator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                                 DataSourceRoutingManager dataSourceRoutingManager,
+                                                 IdGeneratorProperties idGeneratorProperties) {
+        // 独立事务：号段更新立即提交，不随调用方的事务回滚（否则其他实例会拿到重复的号段）
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        JdbcIdSegmentAllocator allocator = new JdbcIdSegmentAllocator(jdbcTemplate, transactionTemplate,
+                dataSourceRoutingManager, idGeneratorProperties::stepOf);
+        return new SegmentIdGenerator(allocator, idGeneratorProperties.getPrefetchRatio());
+    }
+}
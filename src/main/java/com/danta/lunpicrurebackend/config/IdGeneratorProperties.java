@@ -0,0 +1,41 @@
+package com.danta.lunpicrurebackend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 主键生成配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "lun-picture.id-generator")
+public class IdGeneratorProperties {
+
+    /**
+     * segment：号段（id_segment 表）；snowflake：MyBatis-Plus 默认的雪花算法
+     */
+    private String type = "snowflake";
+
+    /**
+     * 每次租用的 id 数量
+     */
+    private int defaultStep = 1000;
+
+    /**
+     * 当前号段剩余比例低于该值时预取下一段
+     */
+    private double prefetchRatio = 0.5;
+
+    /**
+     * 表名 -> 步长，未配置的使用 defaultStep
+     */
+    private Map<String, Integer> steps = new LinkedHashMap<>();
+
+    public int stepOf(String bizTag) {
+        return steps.getOrDefault(bizTag, defaultStep);
+    }
+}
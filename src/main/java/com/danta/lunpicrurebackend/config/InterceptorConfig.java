@@ -0,0 +1,36 @@
+package com.danta.lunpicrurebackend.config;
+
+import com.danta.lunpicrurebackend.aop.AuthInterceptor;
+import com.danta.lunpicrurebackend.aop.MetricsInterceptor;
+import com.danta.lunpicrurebackend.aop.RateLimitInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.Resource;
+
+/**
+ * 拦截器配置
+ */
+@Configuration
+public class InterceptorConfig implements WebMvcConfigurer {
+
+    @Resource
+    private MetricsInterceptor metricsInterceptor;
+
+    @Resource
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    @Resource
+    private AuthInterceptor authInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // 接口耗时统计（最先执行，被拒绝的请求也计入）
+        registry.addInterceptor(metricsInterceptor).addPathPatterns("/**");
+        // 限流（在权限校验查询登录用户之前拒绝）
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/**");
+        // 权限校验
+        registry.addInterceptor(authInterceptor).addPathPatterns("/**");
+    }
+}
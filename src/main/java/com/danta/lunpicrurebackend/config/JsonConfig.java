@@ -1,8 +1,13 @@
 package com.danta.lunpicrurebackend.config;
 
+import com.danta.lunpicrurebackend.config.json.BaseResponseSerializer;
+import com.danta.lunpicrurebackend.config.json.PageSerializer;
+import com.danta.lunpicrurebackend.config.json.UserVOSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.jackson.JsonComponent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
@@ -15,14 +20,26 @@ public class JsonConfig {
 
     /**
      * 添加 Long 转 json 精度丢失的配置
+     * <p>
+     * optimized 为 true 时（默认）额外启用：BaseResponse、Page、UserVO 的预置序列化器（直接调用 getter 写出），
+     * 以及 Afterburner（其余类型用生成的字节码代替反射访问属性）。输出结果与默认序列化一致。
      */
     @Bean
-    public ObjectMapper jacksonObjectMapper(Jackson2ObjectMapperBuilder builder) {
+    public ObjectMapper jacksonObjectMapper(Jackson2ObjectMapperBuilder builder,
+                                            @Value("${lun-picture.json.optimized:true}") boolean optimized) {
         ObjectMapper objectMapper = builder.createXmlMapper(false).build();
         SimpleModule module = new SimpleModule();
         module.addSerializer(Long.class, ToStringSerializer.instance);
         module.addSerializer(Long.TYPE, ToStringSerializer.instance);
+        if (optimized) {
+            module.addSerializer(new BaseResponseSerializer());
+            module.addSerializer(new PageSerializer());
+            module.addSerializer(new UserVOSerializer());
+        }
         objectMapper.registerModule(module);
+        if (optimized) {
+            objectMapper.registerModule(new AfterburnerModule());
+        }
         return objectMapper;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.danta.lunpicrurebackend.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.sql.DataSource;
+
+/**
+ * 延迟初始化的例外
+ * <p>
+ * spring.main.lazy-initialization=true（prod 配置）时，除以下 Bean 外都在第一次使用时才创建：
+ * 带 {@link Scheduled} 方法的 Bean（否则定时任务不会注册）、数据源（启动时建立连接池，
+ * 第一个查询不用等建连）、拦截器（每个请求都会经过）。
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerBeansExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> DataSource.class.isAssignableFrom(beanType)
+                || HandlerInterceptor.class.isAssignableFrom(beanType)
+                || hasScheduledMethod(beanType);
+    }
+
+    private static boolean hasScheduledMethod(Class<?> beanType) {
+        return !MethodIntrospector.selectMethods(beanType, (MethodIntrospector.MetadataLookup<Scheduled>) method ->
+                AnnotatedElementUtils.findMergedAnnotation(method, Scheduled.class)).isEmpty();
+    }
+}
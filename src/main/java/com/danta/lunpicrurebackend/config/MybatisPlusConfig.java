@@ -3,6 +3,11 @@ package com.danta.lunpicrurebackend.config;
 import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.danta.lunpicrurebackend.aop.SqlMetricsInterceptor;
+import com.danta.lunpicrurebackend.aop.WriteRoutingInterceptor;
+import com.danta.lunpicrurebackend.manager.DataSourceRoutingManager;
+import com.danta.lunpicrurebackend.manager.MetricsManager;
+import com.danta.lunpicrurebackend.manager.QueryInspectorManager;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -21,4 +26,21 @@ public class MybatisPlusConfig {
         interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.MYSQL)); // 如果配置多个插件, 切记分页最后添加
         return interceptor;
     }
+
+    /**
+     * SQL 耗时统计、慢查询和 N+1 检查
+     */
+    @Bean
+    public SqlMetricsInterceptor sqlMetricsInterceptor(MetricsManager metricsManager,
+                                                       QueryInspectorManager queryInspectorManager) {
+        return new SqlMetricsInterceptor(metricsManager, queryInspectorManager);
+    }
+
+    /**
+     * 读写分离：写操作始终走主库
+     */
+    @Bean
+    public WriteRoutingInterceptor writeRoutingInterceptor(DataSourceRoutingManager dataSourceRoutingManager) {
+        return new WriteRoutingInterceptor(dataSourceRoutingManager);
+    }
 }
\ No newline at end of file
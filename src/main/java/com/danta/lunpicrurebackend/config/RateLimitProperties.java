@@ -0,0 +1,60 @@
+package com.danta.lunpicrurebackend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 限流规则配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "lun-picture.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 清理已补满的桶的间隔（毫秒）
+     */
+    private long cleanupIntervalMillis = 60000;
+
+    /**
+     * 规则名 -> 规则
+     */
+    private Map<String, Rule> rules = new LinkedHashMap<>();
+
+    @Data
+    public static class Rule {
+
+        /**
+         * 按客户端 IP 限流，为空表示不限
+         */
+        private Limit ip;
+
+        /**
+         * 按账号限流，为空表示不限
+         */
+        private Limit account;
+    }
+
+    @Data
+    public static class Limit {
+
+        /**
+         * 每个周期允许的请求数
+         */
+        private int permits;
+
+        private Duration period = Duration.ofMinutes(1);
+
+        /**
+         * 允许的突发请求数，0 表示等于 permits
+         */
+        private int burst;
+    }
+}
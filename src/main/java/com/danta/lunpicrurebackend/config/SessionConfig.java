@@ -0,0 +1,71 @@
+package com.danta.lunpicrurebackend.config;
+
+import com.danta.lunpicrurebackend.manager.session.CleanableSessionRepository;
+import com.danta.lunpicrurebackend.manager.session.MappedFileSessionRepository;
+import com.danta.lunpicrurebackend.manager.session.StripedMapSessionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * 会话存储配置
+ * <p>
+ * lun-picture.session.store 取值：
+ * memory - 进程内分段存储（默认）；
+ * mmap - 内存映射文件存储，同一台机器上的多个实例映射同一个文件即可共享会话，负载均衡无需会话粘滞。
+ */
+@Slf4j
+@Configuration
+@EnableScheduling
+@EnableSpringHttpSession
+public class SessionConfig {
+
+    @Value("${server.servlet.session.timeout:30m}")
+    private Duration sessionTimeout;
+
+    @Bean
+    @ConditionalOnProperty(name = "lun-picture.session.store", havingValue = "memory", matchIfMissing = true)
+    public StripedMapSessionRepository stripedMapSessionRepository(
+            @Value("${lun-picture.session.stripes:64}") int stripes) {
+        return new StripedMapSessionRepository(stripes, sessionTimeout);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "lun-picture.session.store", havingValue = "mmap")
+    public MappedFileSessionRepository mappedFileSessionRepository(
+            @Value("${lun-picture.session.file:./data/session.dat}") String file,
+            @Value("${lun-picture.session.segments:64}") int segments,
+            @Value("${lun-picture.session.slots-per-segment:1024}") int slotsPerSegment,
+            @Value("${lun-picture.session.slot-size:1024}") int slotSize) throws IOException {
+        log.info("session store: mmap, file = {}", file);
+        return new MappedFileSessionRepository(Paths.get(file), segments, slotsPerSegment, slotSize, sessionTimeout);
+    }
+
+    /**
+     * 定时清理过期会话
+     */
+    @Configuration
+    static class SessionCleanupConfig {
+
+        @Resource
+        private CleanableSessionRepository sessionRepository;
+
+        @Scheduled(fixedDelayString = "${lun-picture.session.cleanup-interval-millis:60000}")
+        public void cleanUpExpiredSessions() {
+            int removed = sessionRepository.cleanUpExpiredSessions();
+            if (removed > 0) {
+                log.info("removed {} expired sessions", removed);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.danta.lunpicrurebackend.config;
+
+import com.danta.lunpicrurebackend.manager.MetricsManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 启动耗时报告
+ * <p>
+ * 启动完成后按 Bean 输出实例化耗时最长的若干个（自身耗时，不含依赖的 Bean），需要以
+ * {@link BufferingApplicationStartup} 启动（见 LunPictrueBackendApplication）。
+ * 启动完成时的 JVM 运行时间记为指标 startup.ready-millis。
+ */
+@Slf4j
+@Component
+public class StartupReportListener implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final String BEAN_INSTANTIATE_STEP = "spring.beans.instantiate";
+
+    @Resource
+    private MetricsManager metricsManager;
+
+    @Value("${lun-picture.startup.report-top:20}")
+    private int reportTop;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        long readyMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        metricsManager.gauge("startup.ready-millis", () -> readyMillis);
+        ApplicationStartup applicationStartup = event.getApplicationContext().getApplicationStartup();
+        if (!(applicationStartup instanceof BufferingApplicationStartup) || reportTop <= 0) {
+            log.info("application ready, jvm uptime = {} ms", readyMillis);
+            return;
+        }
+        // 只报告一次，取出后释放缓冲区
+        List<StartupTimeline.TimelineEvent> events =
+                ((BufferingApplicationStartup) applicationStartup).drainBufferedTimeline().getEvents();
+        Map<Long, Long> childNanos = new HashMap<>();
+        for (StartupTimeline.TimelineEvent timelineEvent : events) {
+            Long parentId = timelineEvent.getStartupStep().getParentId();
+            if (parentId != null) {
+                childNanos.merge(parentId, timelineEvent.getDuration().toNanos(), Long::sum);
+            }
+        }
+        List<BeanTiming> beanTimings = new ArrayList<>();
+        for (StartupTimeline.TimelineEvent timelineEvent : events) {
+            StartupStep step = timelineEvent.getStartupStep();
+            if (!BEAN_INSTANTIATE_STEP.equals(step.getName())) {
+                continue;
+            }
+            long totalNanos = timelineEvent.getDuration().toNanos();
+            long selfNanos = totalNanos - childNanos.getOrDefault(step.getId(), 0L);
+            beanTimings.add(new BeanTiming(beanNameOf(step), selfNanos, totalNanos));
+        }
+        beanTimings.sort((a, b) -> Long.compare(b.selfNanos, a.selfNanos));
+        StringBuilder report = new StringBuilder();
+        for (BeanTiming beanTiming : beanTimings.subList(0, Math.min(reportTop, beanTimings.size()))) {
+            report.append(String.format("%n  %6d ms  (total %6d ms)  %s", beanTiming.selfNanos / 1_000_000,
+                    beanTiming.totalNanos / 1_000_000, beanTiming.beanName));
+        }
+        log.info("application ready, jvm uptime = {} ms, beans instantiated = {}, slowest beans (self time):{}",
+                readyMillis, beanTimings.size(), report);
+    }
+
+    private static String beanNameOf(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+
+    private static class BeanTiming {
+
+        private final String beanName;
+
+        private final long selfNanos;
+
+        private final long totalNanos;
+
+        BeanTiming(String beanName, long selfNanos, long totalNanos) {
+            this.beanName = beanName;
+            this.selfNanos = selfNanos;
+            this.totalNanos = totalNanos;
+        }
+    }
+}
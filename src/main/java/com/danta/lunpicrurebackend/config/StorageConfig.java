@@ -0,0 +1,30 @@
+package com.danta.lunpicrurebackend.config;
+
+import com.danta.lunpicrurebackend.manager.storage.LocalPictureStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * 图片存储配置
+ * <p>
+ * lun-picture.storage.type 取值：
+ * local - 本地文件系统（默认），多实例部署时 root 需要指向共享存储。
+ */
+@Slf4j
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "lun-picture.storage.type", havingValue = "local", matchIfMissing = true)
+    public LocalPictureStorage localPictureStorage(
+            @Value("${lun-picture.storage.local.root:./data/pictures}") String root) throws IOException {
+        log.info("picture storage: local, root = {}", root);
+        return new LocalPictureStorage(Paths.get(root));
+    }
+}
@@ -0,0 +1,59 @@
+package com.danta.lunpicrurebackend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 缩略图生成配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "lun-picture.thumbnail")
+public class ThumbnailProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 尺寸名 -> 最长边（像素），原图不超过该尺寸时直接使用原图
+     */
+    private Map<String, Integer> sizes = new LinkedHashMap<>();
+
+    /**
+     * JPEG 编码质量（0-1），带透明通道的图片编码为 PNG
+     */
+    private float quality = 0.85f;
+
+    /**
+     * 每个阶段的线程数，0 表示 CPU 核数
+     */
+    private int threads;
+
+    /**
+     * 等待解码的任务数上限，超过后新上传的图片不生成缩略图（只计数）
+     */
+    private int queueCapacity = 256;
+
+    /**
+     * 阶段之间排队的图片数上限，下游满时上游等待
+     */
+    private int bufferCapacity = 4;
+
+    /**
+     * 同时驻留内存的解码像素总数上限（每像素 4 字节），解码前预占，缩放完成后释放
+     */
+    private int decodedPixelBudget = 32 * 1024 * 1024;
+
+    /**
+     * 允许解码的最大像素数（宽 × 高）
+     */
+    private long maxPixels = 100_000_000L;
+
+    /**
+     * 缩放时每块的目标像素数，超过时分块并行
+     */
+    private int tilePixels = 65536;
+}
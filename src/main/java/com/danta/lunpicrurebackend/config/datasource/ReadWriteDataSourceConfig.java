@@ -0,0 +1,74 @@
+package com.danta.lunpicrurebackend.config.datasource;
+
+import com.danta.lunpicrurebackend.manager.DataSourceRoutingManager;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 读写分离数据源配置
+ * <p>
+ * 主库使用 spring.datasource，从库在 lun-picture.datasource.replicas 下配置；
+ * 每个库一个 Hikari 连接池，连接池参数统一沿用 spring.datasource.hikari。
+ */
+@Slf4j
+@Configuration
+public class ReadWriteDataSourceConfig {
+
+    @Bean
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties dataSourceProperties,
+                                                 ReadWriteDataSourceProperties readWriteDataSourceProperties,
+                                                 DataSourceRoutingManager dataSourceRoutingManager,
+                                                 Environment environment) {
+        Binder binder = Binder.get(environment);
+        String driverClassName = dataSourceProperties.determineDriverClassName();
+        String username = dataSourceProperties.determineUsername();
+        String password = dataSourceProperties.determinePassword();
+        HikariDataSource primary = createPool(binder, DataSourceRoutingManager.PRIMARY, driverClassName,
+                dataSourceProperties.determineUrl(), username, password);
+
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(DataSourceRoutingManager.PRIMARY, primary);
+        List<String> replicaKeys = new ArrayList<>();
+        List<ReadWriteDataSourceProperties.Replica> replicas = readWriteDataSourceProperties.getReplicas();
+        for (int i = 0; i < replicas.size(); i++) {
+            ReadWriteDataSourceProperties.Replica replica = replicas.get(i);
+            String key = "replica-" + (i + 1);
+            HikariDataSource replicaPool = createPool(binder, key, driverClassName, replica.getUrl(),
+                    replica.getUsername() != null ? replica.getUsername() : username,
+                    replica.getPassword() != null ? replica.getPassword() : password);
+            replicaPool.setReadOnly(true);
+            targetDataSources.put(key, replicaPool);
+            replicaKeys.add(key);
+        }
+        dataSourceRoutingManager.setReplicaKeys(replicaKeys);
+        log.info("datasource routing: primary + {} replicas", replicaKeys.size());
+
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(dataSourceRoutingManager);
+        routingDataSource.setTargetDataSources(targetDataSources);
+        routingDataSource.setDefaultTargetDataSource(primary);
+        return routingDataSource;
+    }
+
+    private static HikariDataSource createPool(Binder binder, String poolName, String driverClassName, String url,
+                                               String username, String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(poolName);
+        dataSource.setDriverClassName(driverClassName);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        return dataSource;
+    }
+}
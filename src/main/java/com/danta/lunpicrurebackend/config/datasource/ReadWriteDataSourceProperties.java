@@ -0,0 +1,38 @@
+package com.danta.lunpicrurebackend.config.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 从库配置（主库沿用 spring.datasource）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "lun-picture.datasource")
+public class ReadWriteDataSourceProperties {
+
+    /**
+     * 从库列表，为空时所有查询都走主库
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        /**
+         * 为空时使用主库的用户名
+         */
+        private String username;
+
+        /**
+         * 为空时使用主库的密码
+         */
+        private String password;
+    }
+}
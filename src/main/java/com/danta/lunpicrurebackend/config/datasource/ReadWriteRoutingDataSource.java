@@ -0,0 +1,37 @@
+package com.danta.lunpicrurebackend.config.datasource;
+
+import com.danta.lunpicrurebackend.manager.DataSourceRoutingManager;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 读写分离数据源：获取连接时按 {@link DataSourceRoutingManager} 的决定选择主库或从库
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private final DataSourceRoutingManager dataSourceRoutingManager;
+
+    public ReadWriteRoutingDataSource(DataSourceRoutingManager dataSourceRoutingManager) {
+        this.dataSourceRoutingManager = dataSourceRoutingManager;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return dataSourceRoutingManager.currentLookupKey();
+    }
+
+    /**
+     * 关闭主库和所有从库的连接池
+     */
+    @Override
+    public void close() throws IOException {
+        for (DataSource dataSource : getResolvedDataSources().values()) {
+            if (dataSource instanceof Closeable) {
+                ((Closeable) dataSource).close();
+            }
+        }
+    }
+}
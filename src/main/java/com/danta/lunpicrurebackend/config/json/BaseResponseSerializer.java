@@ -0,0 +1,28 @@
+package com.danta.lunpicrurebackend.config.json;
+
+import com.danta.lunpicrurebackend.common.BaseResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * BaseResponse 序列化：按 code、data、message 的顺序直接写出，data 交给对应类型的序列化器
+ */
+public class BaseResponseSerializer extends StdSerializer<BaseResponse<?>> {
+
+    @SuppressWarnings("unchecked")
+    public BaseResponseSerializer() {
+        super((Class<BaseResponse<?>>) (Class<?>) BaseResponse.class);
+    }
+
+    @Override
+    public void serialize(BaseResponse<?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("code", value.getCode());
+        provider.defaultSerializeField("data", value.getData(), gen);
+        gen.writeStringField("message", value.getMessage());
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,100 @@
+package com.danta.lunpicrurebackend.config.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+
+import java.io.IOException;
+import java.text.DateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * 日期写出
+ * <p>
+ * 使用 Jackson 默认的 ISO-8601 格式（StdDateFormat）时，直接在字符数组中拼出
+ * yyyy-MM-dd'T'HH:mm:ss.SSS+hh:mm，避免 StdDateFormat 每次格式化创建 Calendar、StringBuffer；
+ * 其他配置（时间戳、自定义格式、超出范围的年份）交给 Jackson 默认逻辑，输出保持一致。
+ */
+final class JsonDateWriter {
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    /**
+     * 公元 0000-03-01 到 1970-01-01 的天数
+     */
+    private static final long DAYS_0000_TO_1970 = 719468L;
+
+    private JsonDateWriter() {
+    }
+
+    static void writeDate(Date date, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (date == null) {
+            gen.writeNull();
+            return;
+        }
+        DateFormat dateFormat = provider.getConfig().getDateFormat();
+        if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                || dateFormat == null || dateFormat.getClass() != StdDateFormat.class) {
+            provider.defaultSerializeDateValue(date, gen);
+            return;
+        }
+        long millis = date.getTime();
+        TimeZone timeZone = provider.getTimeZone();
+        int offsetMillis = timeZone.getOffset(millis);
+        long localMillis = millis + offsetMillis;
+        long epochDay = Math.floorDiv(localMillis, MILLIS_PER_DAY);
+        int millisOfDay = (int) Math.floorMod(localMillis, MILLIS_PER_DAY);
+
+        // 公历日期换算（按 400 年周期）
+        long z = epochDay + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+        int month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        // 儒略历切换之前、四位数之外的年份交给 StdDateFormat
+        if (year < 1900 || year > 9999) {
+            provider.defaultSerializeDateValue(date, gen);
+            return;
+        }
+
+        boolean colon = ((StdDateFormat) dateFormat).isColonIncludedInTimeZone();
+        char[] buffer = new char[colon ? 29 : 28];
+        writeDigits(buffer, 0, (int) year, 4);
+        buffer[4] = '-';
+        writeDigits(buffer, 5, month, 2);
+        buffer[7] = '-';
+        writeDigits(buffer, 8, day, 2);
+        buffer[10] = 'T';
+        writeDigits(buffer, 11, millisOfDay / 3600000, 2);
+        buffer[13] = ':';
+        writeDigits(buffer, 14, millisOfDay / 60000 % 60, 2);
+        buffer[16] = ':';
+        writeDigits(buffer, 17, millisOfDay / 1000 % 60, 2);
+        buffer[19] = '.';
+        writeDigits(buffer, 20, millisOfDay % 1000, 3);
+        int offsetMinutes = offsetMillis / 60000;
+        buffer[23] = offsetMinutes < 0 ? '-' : '+';
+        offsetMinutes = Math.abs(offsetMinutes);
+        writeDigits(buffer, 24, offsetMinutes / 60, 2);
+        if (colon) {
+            buffer[26] = ':';
+            writeDigits(buffer, 27, offsetMinutes % 60, 2);
+        } else {
+            writeDigits(buffer, 26, offsetMinutes % 60, 2);
+        }
+        gen.writeString(buffer, 0, buffer.length);
+    }
+
+    private static void writeDigits(char[] buffer, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
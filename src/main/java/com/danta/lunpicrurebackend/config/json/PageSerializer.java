@@ -0,0 +1,36 @@
+package com.danta.lunpicrurebackend.config.json;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.danta.lunpicrurebackend.common.PageResult;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * 分页结果序列化（Page 及 PageResult），字段与默认序列化一致，long 写成字符串
+ */
+public class PageSerializer extends StdSerializer<Page<?>> {
+
+    @SuppressWarnings("unchecked")
+    public PageSerializer() {
+        super((Class<Page<?>>) (Class<?>) Page.class);
+    }
+
+    @Override
+    public void serialize(Page<?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        provider.defaultSerializeField("records", value.getRecords(), gen);
+        gen.writeStringField("total", Long.toString(value.getTotal()));
+        gen.writeStringField("size", Long.toString(value.getSize()));
+        gen.writeStringField("current", Long.toString(value.getCurrent()));
+        if (value instanceof PageResult) {
+            PageResult<?> pageResult = (PageResult<?>) value;
+            gen.writeStringField("nextCursor", pageResult.getNextCursor());
+            gen.writeBooleanField("exactTotal", pageResult.isExactTotal());
+        }
+        gen.writeStringField("pages", Long.toString(value.getPages()));
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,32 @@
+package com.danta.lunpicrurebackend.config.json;
+
+import com.danta.lunpicrurebackend.model.vo.UserVO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * UserVO 序列化：直接调用 getter 写出，不走反射属性访问；id 写成字符串，日期按全局配置输出
+ */
+public class UserVOSerializer extends StdSerializer<UserVO> {
+
+    public UserVOSerializer() {
+        super(UserVO.class);
+    }
+
+    @Override
+    public void serialize(UserVO value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("id", value.getId() == null ? null : value.getId().toString());
+        gen.writeStringField("userAccount", value.getUserAccount());
+        gen.writeStringField("userName", value.getUserName());
+        gen.writeStringField("userAvatar", value.getUserAvatar());
+        gen.writeStringField("userProfile", value.getUserProfile());
+        gen.writeStringField("userRole", value.getUserRole());
+        gen.writeFieldName("createTime");
+        JsonDateWriter.writeDate(value.getCreateTime(), gen, provider);
+        gen.writeEndObject();
+    }
+}
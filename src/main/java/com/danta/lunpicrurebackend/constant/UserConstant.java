@@ -6,6 +6,36 @@ public interface UserConstant {
      */
     String USER_LOGIN_STATE = "user_login";
 
+    /**
+     * 当前请求已解析的登录用户键（请求级别，避免同一请求重复解析）
+     */
+    String REQUEST_LOGIN_USER = "request_login_user";
+
+    /**
+     * 当前请求已解析的登录身份键（请求级别）
+     */
+    String REQUEST_LOGIN_PRINCIPAL = "request_login_principal";
+
+    /**
+     * 令牌认证模式下携带令牌的请求头
+     */
+    String TOKEN_HEADER = "Authorization";
+
+    /**
+     * 令牌前缀
+     */
+    String TOKEN_PREFIX = "Bearer ";
+
+    /**
+     * 批量接口单次最多处理的数量
+     */
+    int BATCH_MAX_SIZE = 200;
+
+    /**
+     * 管理员新增用户的默认密码
+     */
+    String DEFAULT_PASSWORD = "12345678";
+
     //  region 权限
 
     /**
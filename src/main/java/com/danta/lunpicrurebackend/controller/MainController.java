@@ -1,17 +1,50 @@
 package com.danta.lunpicrurebackend.controller;
 
+import com.danta.lunpicrurebackend.annotation.AuthCheck;
 import com.danta.lunpicrurebackend.common.BaseResponse;
 import com.danta.lunpicrurebackend.common.ResultUtils;
+import com.danta.lunpicrurebackend.constant.UserConstant;
+import com.danta.lunpicrurebackend.manager.MetricsManager;
+import com.danta.lunpicrurebackend.manager.QueryInspectorManager;
+import com.danta.lunpicrurebackend.model.vo.MetricsVO;
+import com.danta.lunpicrurebackend.model.vo.QueryFindingVO;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.annotation.Resource;
+import java.util.List;
+
 @RestController
 @RequestMapping("/")
 public class MainController {
 
+    @Resource
+    private MetricsManager metricsManager;
+
+    @Resource
+    private QueryInspectorManager queryInspectorManager;
+
     @GetMapping("/health")
     public BaseResponse<String> health(){
         return ResultUtils.success("ok");
     }
+
+    /**
+     * 运行指标：接口、SQL 耗时分布（p50/p99/p999，微秒）和连接池状态
+     */
+    @GetMapping("/metrics")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<MetricsVO> metrics(){
+        return ResultUtils.success(metricsManager.snapshot());
+    }
+
+    /**
+     * SQL 检查发现的问题（慢查询、疑似 N+1），新的在前
+     */
+    @GetMapping("/metrics/query-findings")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<List<QueryFindingVO>> listQueryFindings(){
+        return ResultUtils.success(queryInspectorManager.listFindings());
+    }
 }
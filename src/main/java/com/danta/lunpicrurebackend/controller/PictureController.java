@@ -0,0 +1,149 @@
+package com.danta.lunpicrurebackend.controller;
+
+import com.danta.lunpicrurebackend.annotation.AuthCheck;
+import com.danta.lunpicrurebackend.common.BaseResponse;
+import com.danta.lunpicrurebackend.common.DeleteRequest;
+import com.danta.lunpicrurebackend.common.PageResult;
+import com.danta.lunpicrurebackend.common.ResultUtils;
+import com.danta.lunpicrurebackend.exception.BusinessException;
+import com.danta.lunpicrurebackend.exception.ErrorCode;
+import com.danta.lunpicrurebackend.exception.ThrowUtils;
+import com.danta.lunpicrurebackend.manager.storage.PictureStorage;
+import com.danta.lunpicrurebackend.model.dto.picture.PictureQueryRequest;
+import com.danta.lunpicrurebackend.model.dto.picture.PictureUploadRequest;
+import com.danta.lunpicrurebackend.model.vo.PictureVO;
+import com.danta.lunpicrurebackend.service.PictureService;
+import com.danta.lunpicrurebackend.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.Globals;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+@Slf4j
+@RestController
+@RequestMapping("/picture")
+public class PictureController {
+
+    @Resource
+    private PictureService pictureService;
+
+    @Resource
+    private UserService userService;
+
+    @Resource
+    private PictureStorage pictureStorage;
+
+    /**
+     * 上传图片（multipart，文件部分由容器写入磁盘临时文件，不占用堆内存）
+     */
+    @PostMapping("/upload")
+    @AuthCheck
+    public BaseResponse<PictureVO> uploadPicture(@RequestPart("file") MultipartFile file,
+                                                 PictureUploadRequest pictureUploadRequest,
+                                                 HttpServletRequest request) throws IOException {
+        ThrowUtils.throwIf(file == null || file.isEmpty(), ErrorCode.PARAMS_ERROR, "文件不能为空");
+        try (InputStream inputStream = file.getInputStream()) {
+            return ResultUtils.success(pictureService.uploadPicture(inputStream, file.getOriginalFilename(),
+                    pictureUploadRequest, userService.getLoginPrincipal(request)));
+        }
+    }
+
+    /**
+     * 上传图片（请求体即图片内容，直接从连接流式写入存储，不经过 multipart 解析和临时文件）
+     */
+    @PostMapping("/upload/stream")
+    @AuthCheck
+    public BaseResponse<PictureVO> uploadPictureStream(PictureUploadRequest pictureUploadRequest,
+                                                       HttpServletRequest request) throws IOException {
+        return ResultUtils.success(pictureService.uploadPicture(request.getInputStream(), null,
+                pictureUploadRequest, userService.getLoginPrincipal(request)));
+    }
+
+    @PostMapping("/delete")
+    @AuthCheck
+    public BaseResponse<Boolean> deletePicture(@RequestBody DeleteRequest deleteRequest, HttpServletRequest request) {
+        ThrowUtils.throwIf(deleteRequest == null || deleteRequest.getId() == null, ErrorCode.PARAMS_ERROR);
+        return ResultUtils.success(pictureService.deletePicture(deleteRequest.getId(),
+                userService.getLoginPrincipal(request)));
+    }
+
+    @GetMapping("/get/vo")
+    public BaseResponse<PictureVO> getPictureVoById(long id) {
+        return ResultUtils.success(pictureService.getPictureVo(id));
+    }
+
+    @PostMapping("/list/page/vo")
+    public BaseResponse<PageResult<PictureVO>> listPictureVoByPage(@RequestBody PictureQueryRequest pictureQueryRequest) {
+        return ResultUtils.success(pictureService.listPictureVoByPage(pictureQueryRequest));
+    }
+
+    /**
+     * 读取图片文件
+     * <p>
+     * 文件 key 由内容哈希决定，内容不会变化，可以长期缓存。本地存储且容器支持时交给 Tomcat sendfile 发送
+     * （内核直接从页缓存写入 socket，不经过用户态），否则用通道传输。
+     */
+    @GetMapping("/file/{prefix}/{fileName:.+}")
+    public void getPictureFile(@PathVariable String prefix, @PathVariable String fileName,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String key = prefix + "/" + fileName;
+        String eTag = "\"" + fileName + "\"";
+        response.setHeader("Cache-Control", "public, max-age=31536000, immutable");
+        if (eTag.equals(request.getHeader("If-None-Match"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        Path path = pictureStorage.localPath(key);
+        if (path != null) {
+            long size = Files.size(path);
+            writeHeaders(response, fileName, eTag, size);
+            if (Boolean.TRUE.equals(request.getAttribute(Globals.SENDFILE_SUPPORTED_ATTR))) {
+                request.setAttribute(Globals.SENDFILE_FILENAME_ATTR, path.toString());
+                request.setAttribute(Globals.SENDFILE_FILE_START_ATTR, 0L);
+                request.setAttribute(Globals.SENDFILE_FILE_END_ATTR, size);
+                return;
+            }
+            try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+                long position = 0;
+                while (position < size) {
+                    position += fileChannel.transferTo(position, size - position, target);
+                }
+            }
+            return;
+        }
+        try (ReadableByteChannel channel = pictureStorage.open(key)) {
+            if (channel == null) {
+                throw new BusinessException(ErrorCode.NOT_FOUND_ERROR);
+            }
+            writeHeaders(response, fileName, eTag, -1);
+            try (InputStream inputStream = Channels.newInputStream(channel)) {
+                StreamUtils.copy(inputStream, response.getOutputStream());
+            }
+        }
+    }
+
+    private static void writeHeaders(HttpServletResponse response, String fileName, String eTag, long size) {
+        response.setContentType(MediaTypeFactory.getMediaType(fileName)
+                .map(Object::toString).orElse("application/octet-stream"));
+        response.setHeader("ETag", eTag);
+        if (size >= 0) {
+            response.setContentLengthLong(size);
+        }
+    }
+}
@@ -1,29 +1,53 @@
 package com.danta.lunpicrurebackend.controller;
 
-import cn.hutool.core.bean.BeanUtil;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import cn.hutool.core.util.StrUtil;
 import com.danta.lunpicrurebackend.annotation.AuthCheck;
+import com.danta.lunpicrurebackend.annotation.RateLimit;
 import com.danta.lunpicrurebackend.common.BaseResponse;
+import com.danta.lunpicrurebackend.common.BatchIdRequest;
+import com.danta.lunpicrurebackend.common.BatchItemResult;
 import com.danta.lunpicrurebackend.common.DeleteRequest;
+import com.danta.lunpicrurebackend.common.PageResult;
 import com.danta.lunpicrurebackend.common.ResultUtils;
 import com.danta.lunpicrurebackend.constant.UserConstant;
+import com.danta.lunpicrurebackend.convert.UserConvert;
+import com.danta.lunpicrurebackend.event.UserChangeEvent;
 import com.danta.lunpicrurebackend.exception.ErrorCode;
 import com.danta.lunpicrurebackend.exception.ThrowUtils;
+import com.danta.lunpicrurebackend.manager.AccountBloomFilterManager;
+import com.danta.lunpicrurebackend.manager.RateLimitManager;
+import com.danta.lunpicrurebackend.manager.UserArchiveManager;
+import com.danta.lunpicrurebackend.manager.UserCacheManager;
+import com.danta.lunpicrurebackend.manager.UserPrefixIndexManager;
 import com.danta.lunpicrurebackend.model.dto.UserLoginRequest;
 import com.danta.lunpicrurebackend.model.dto.UserRegisterRequest;
 import com.danta.lunpicrurebackend.model.dto.user.UserAddRequest;
+import com.danta.lunpicrurebackend.model.dto.user.UserBatchAddRequest;
 import com.danta.lunpicrurebackend.model.dto.user.UserQueryRequest;
 import com.danta.lunpicrurebackend.model.dto.user.UserUpdateRequest;
 import com.danta.lunpicrurebackend.model.entity.User;
+import com.danta.lunpicrurebackend.model.enums.ExportFormatEnum;
+import com.danta.lunpicrurebackend.model.vo.ArchiveProgressVO;
 import com.danta.lunpicrurebackend.model.vo.LoginUserVo;
+import com.danta.lunpicrurebackend.model.vo.UserImportResultVO;
+import com.danta.lunpicrurebackend.model.vo.UserSuggestionVO;
 import com.danta.lunpicrurebackend.model.vo.UserVO;
 import com.danta.lunpicrurebackend.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
+@Slf4j
 @RestController
 @RequestMapping("/user")
 public class UserController {
@@ -31,10 +55,33 @@ public class UserController {
     @Resource
     private UserService userService;
 
+    @Resource
+    private UserConvert userConvert;
+
+    @Resource
+    private UserCacheManager userCacheManager;
+
+    @Resource
+    private UserPrefixIndexManager userPrefixIndexManager;
+
+    @Resource
+    private AccountBloomFilterManager accountBloomFilterManager;
+
+    @Resource
+    private RateLimitManager rateLimitManager;
+
+    @Resource
+    private UserArchiveManager userArchiveManager;
+
+    @Resource
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @PostMapping("/register")
+    @RateLimit("register")
     public BaseResponse<Long> userRegister(@RequestBody UserRegisterRequest userRegisterRequest) {
         ThrowUtils.throwIf(userRegisterRequest == null, ErrorCode.PARAMS_ERROR);
         String userAccount = userRegisterRequest.getUserAccount();
+        rateLimitManager.checkAccount("register", userAccount);
         String userPassword = userRegisterRequest.getUserPassword();
         String checkPassword = userRegisterRequest.getCheckPassword();
         long result = userService.userRegister(userAccount, userPassword, checkPassword);
@@ -43,9 +90,11 @@ public class UserController {
 
 
     @PostMapping("/login")
+    @RateLimit("login")
     public BaseResponse<LoginUserVo> userLogin(@RequestBody UserLoginRequest userLoginRequest, HttpServletRequest request) {
         ThrowUtils.throwIf(userLoginRequest == null, ErrorCode.PARAMS_ERROR);
         String userAccount = userLoginRequest.getUserAccount();
+        rateLimitManager.checkAccount("login", userAccount);
         String userPassword = userLoginRequest.getUserPassword();
         LoginUserVo loginUserVo = userService.userLogin(userAccount, userPassword, request);
         return ResultUtils.success(loginUserVo);
@@ -57,6 +106,14 @@ public class UserController {
         return ResultUtils.success(userService.getLoginUserVo(loginUser));
     }
 
+    /**
+     * 刷新登录令牌（令牌认证模式）
+     */
+    @PostMapping("/token/refresh")
+    public BaseResponse<LoginUserVo> refreshToken(HttpServletRequest request) {
+        return ResultUtils.success(userService.refreshToken(request));
+    }
+
     @PostMapping("/logout")
     public BaseResponse<Boolean> userLogout(HttpServletRequest request) {
         ThrowUtils.throwIf(request == null, ErrorCode.PARAMS_ERROR);
@@ -69,20 +126,30 @@ public class UserController {
     @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
     public BaseResponse<Long> addUser(@RequestBody UserAddRequest userAddRequest) {
         ThrowUtils.throwIf(userAddRequest == null, ErrorCode.PARAMS_ERROR);
-        User user = new User();
-        BeanUtil.copyProperties(userAddRequest, user);
+        User user = userConvert.toUser(userAddRequest);
 
         //默认密码
-        final String DEFAULT_PASSWORD = "12345678";
-        String encryptPassword = userService.getEncryptPassword(DEFAULT_PASSWORD);
+        String encryptPassword = userService.getEncryptPassword(UserConstant.DEFAULT_PASSWORD);
         user.setUserPassword(encryptPassword);
 
 
         boolean result = userService.save(user);
         ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
+        accountBloomFilterManager.add(user.getUserAccount());
+        applicationEventPublisher.publishEvent(new UserChangeEvent(this, UserChangeEvent.ChangeType.ADD, user.getId()));
         return ResultUtils.success(user.getId());
     }
 
+    /**
+     * 批量新增用户（默认密码），返回每一项的处理结果
+     */
+    @PostMapping("/add/batch")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<List<BatchItemResult>> batchAddUser(@RequestBody UserBatchAddRequest userBatchAddRequest) {
+        ThrowUtils.throwIf(userBatchAddRequest == null, ErrorCode.PARAMS_ERROR);
+        return ResultUtils.success(userService.batchAddUser(userBatchAddRequest.getUserList()));
+    }
+
     @PostMapping("/get")
     @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
     public BaseResponse<User> getUserById(long id) {
@@ -99,40 +166,133 @@ public class UserController {
         return ResultUtils.success(userService.getUserVo(data));
     }
 
+    /**
+     * 按 id 批量获取脱敏后的用户，按传入顺序返回，不存在的 id 忽略
+     */
+    @PostMapping("/get/vo/batch")
+    public BaseResponse<List<UserVO>> listUserVoByIds(@RequestBody BatchIdRequest batchIdRequest) {
+        ThrowUtils.throwIf(batchIdRequest == null, ErrorCode.PARAMS_ERROR);
+        return ResultUtils.success(userService.listUserVoByIds(batchIdRequest.getIds()));
+    }
+
     @PostMapping("/delete")
     @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
     public BaseResponse<Boolean> deleteUserById(@RequestBody DeleteRequest deleteRequest) {
         ThrowUtils.throwIf(deleteRequest == null || deleteRequest.getId() <= 0, ErrorCode.PARAMS_ERROR);
         boolean result = userService.removeById(deleteRequest.getId());
+        applicationEventPublisher.publishEvent(new UserChangeEvent(this, UserChangeEvent.ChangeType.DELETE, deleteRequest.getId()));
         return ResultUtils.success(result);
     }
 
+    /**
+     * 批量删除用户，返回每一项的处理结果
+     */
+    @PostMapping("/delete/batch")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<List<BatchItemResult>> batchDeleteUser(@RequestBody BatchIdRequest batchIdRequest) {
+        ThrowUtils.throwIf(batchIdRequest == null, ErrorCode.PARAMS_ERROR);
+        return ResultUtils.success(userService.batchDeleteUser(batchIdRequest.getIds()));
+    }
+
     @PostMapping("/update")
     @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
     public BaseResponse<Boolean> updateUser(@RequestBody UserUpdateRequest userUpdateRequest) {
         if(userUpdateRequest == null || userUpdateRequest.getId() == null){
             return new BaseResponse<>(ErrorCode.PARAMS_ERROR);
         }
-        User user = new User();
-        BeanUtil.copyProperties(userUpdateRequest, user);
+        User user = userConvert.toUser(userUpdateRequest);
         boolean b = userService.updateById(user);
         ThrowUtils.throwIf(!b , ErrorCode.OPERATION_ERROR);
+        applicationEventPublisher.publishEvent(new UserChangeEvent(this, UserChangeEvent.ChangeType.UPDATE, user.getId()));
         return ResultUtils.success(b);
     }
 
     @PostMapping("/list/page/vo")
     @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
-    public BaseResponse<Page<UserVO>> listUserVoByPage(@RequestBody UserQueryRequest userQueryRequest) {
+    public BaseResponse<PageResult<UserVO>> listUserVoByPage(@RequestBody UserQueryRequest userQueryRequest) {
         ThrowUtils.throwIf(userQueryRequest == null, ErrorCode.PARAMS_ERROR);
-        long current = userQueryRequest.getCurrent();
-        long pageSize = userQueryRequest.getPageSize();
-        Page<User> userPage = userService.page(new Page<>(current, pageSize),
-                userService.getUserQueryWrapper(userQueryRequest));
-        Page<UserVO> userVOPage = new Page<>(current,pageSize,userPage.getTotal());
-        List<UserVO> userVoList = userService.getUserVoList(userPage.getRecords());
-        userVOPage.setRecords(userVoList);
+        // 传入游标时使用游标分页
+        PageResult<User> userPage = userQueryRequest.getCursor() != null
+                ? userService.listUserByCursor(userQueryRequest)
+                : userService.listUserByPage(userQueryRequest);
+        PageResult<UserVO> userVOPage = new PageResult<>(userPage.getCurrent(), userPage.getSize(),
+                userPage.getTotal(), userPage.searchCount());
+        userVOPage.setRecords(userService.getUserVoList(userPage.getRecords()));
+        userVOPage.setNextCursor(userPage.getNextCursor());
+        userVOPage.setExactTotal(userPage.isExactTotal());
 
         return ResultUtils.success(userVOPage);
     }
 
+    /**
+     * 流式导出用户（ndjson 或 csv），按 id 顺序逐行写出，内存占用与行数无关
+     */
+    @GetMapping("/export")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public void exportUser(UserQueryRequest userQueryRequest, @RequestParam(defaultValue = "ndjson") String format,
+                           HttpServletResponse response) throws IOException {
+        ExportFormatEnum exportFormatEnum = ExportFormatEnum.getEnumByValue(format);
+        ThrowUtils.throwIf(exportFormatEnum == null, ErrorCode.PARAMS_ERROR, "不支持的导出格式");
+        response.setContentType(exportFormatEnum.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Content-Disposition", "attachment; filename=users." + exportFormatEnum.getValue());
+        long rows = userService.exportUsers(userQueryRequest, exportFormatEnum, response.getOutputStream());
+        log.info("export users finished, format = {}, rows = {}", exportFormatEnum.getValue(), rows);
+    }
+
+    /**
+     * 流式导入用户（csv），逐批校验、并行哈希、批量插入，返回每个失败行的原因
+     */
+    @PostMapping("/import")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<UserImportResultVO> importUser(@RequestPart("file") MultipartFile file) throws IOException {
+        ThrowUtils.throwIf(file == null || file.isEmpty(), ErrorCode.PARAMS_ERROR, "文件不能为空");
+        long start = System.currentTimeMillis();
+        UserImportResultVO result;
+        try (InputStream inputStream = file.getInputStream()) {
+            result = userService.importUsers(inputStream);
+        }
+        log.info("import users finished, total = {}, success = {}, failed = {}, cost = {} ms", result.getTotal(),
+                result.getSuccessCount(), result.getFailCount(), System.currentTimeMillis() - start);
+        return ResultUtils.success(result);
+    }
+
+    /**
+     * 用户搜索联想（按账号、昵称前缀匹配）
+     */
+    @GetMapping("/suggest")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<List<UserSuggestionVO>> suggestUser(String prefix, @RequestParam(defaultValue = "10") int limit) {
+        ThrowUtils.throwIf(StrUtil.isBlank(prefix) || limit <= 0 || limit > 50, ErrorCode.PARAMS_ERROR);
+        return ResultUtils.success(userPrefixIndexManager.suggest(prefix, limit));
+    }
+
+    @GetMapping("/cache/stats")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<Map<String, Object>> getUserCacheStats() {
+        return ResultUtils.success(userCacheManager.getStats());
+    }
+
+    @GetMapping("/account-filter/stats")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<Map<String, Object>> getAccountFilterStats() {
+        return ResultUtils.success(accountBloomFilterManager.getStats());
+    }
+
+    /**
+     * 立即执行一次已删除用户归档（后台执行，不受定时归档开关限制，通过 /archive/progress 查看进度）
+     */
+    @PostMapping("/archive/run")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<Boolean> runUserArchive() {
+        userArchiveManager.startArchive();
+        return ResultUtils.success(true);
+    }
+
+    @GetMapping("/archive/progress")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<ArchiveProgressVO> getUserArchiveProgress() {
+        return ResultUtils.success(userArchiveManager.getProgress());
+    }
+
 }
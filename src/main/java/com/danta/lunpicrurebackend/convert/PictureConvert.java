@@ -0,0 +1,37 @@
+package com.danta.lunpicrurebackend.convert;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONConfig;
+import cn.hutool.json.JSONUtil;
+import com.danta.lunpicrurebackend.model.entity.Picture;
+import com.danta.lunpicrurebackend.model.vo.PictureVO;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 图片对象转换（标签、衍生图片在数据库中保存为 JSON）
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface PictureConvert {
+
+    PictureVO toPictureVo(Picture picture);
+
+    default List<String> toTagList(String tags) {
+        return StrUtil.isBlank(tags) ? new ArrayList<>() : JSONUtil.toList(tags, String.class);
+    }
+
+    default Map<String, String> toDerivativeMap(String derivatives) {
+        if (StrUtil.isBlank(derivatives)) {
+            return null;
+        }
+        Map<String, String> derivativeMap = new LinkedHashMap<>();
+        JSONUtil.parseObj(derivatives, JSONConfig.create().setIgnoreNullValue(false))
+                .forEach((name, url) -> derivativeMap.put(name, String.valueOf(url)));
+        return derivativeMap;
+    }
+}
@@ -0,0 +1,31 @@
+package com.danta.lunpicrurebackend.convert;
+
+import com.danta.lunpicrurebackend.model.dto.user.UserAddRequest;
+import com.danta.lunpicrurebackend.model.dto.user.UserUpdateRequest;
+import com.danta.lunpicrurebackend.model.entity.User;
+import com.danta.lunpicrurebackend.model.vo.LoginUserVo;
+import com.danta.lunpicrurebackend.model.vo.UserVO;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+/**
+ * 用户对象转换
+ * <p>
+ * 由 MapStruct 在编译期生成实现，直接调用 getter/setter，没有反射；
+ * 只拷贝同名属性，目标中多出的属性（如密码、令牌）保持为空。
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface UserConvert {
+
+    UserVO toUserVo(User user);
+
+    List<UserVO> toUserVoList(List<User> userList);
+
+    LoginUserVo toLoginUserVo(User user);
+
+    User toUser(UserAddRequest userAddRequest);
+
+    User toUser(UserUpdateRequest userUpdateRequest);
+}
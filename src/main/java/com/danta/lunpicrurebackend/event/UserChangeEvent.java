@@ -0,0 +1,42 @@
+package com.danta.lunpicrurebackend.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 用户数据变更事件（新增、修改、删除用户后发布，用于刷新缓存、统计等派生数据）
+ */
+@Getter
+public class UserChangeEvent extends ApplicationEvent {
+
+    /**
+     * 变更类型
+     */
+    private final ChangeType changeType;
+
+    /**
+     * 变更的用户 id
+     */
+    private final List<Long> userIds;
+
+    public UserChangeEvent(Object source, ChangeType changeType, List<Long> userIds) {
+        super(source);
+        this.changeType = changeType;
+        this.userIds = userIds;
+    }
+
+    public UserChangeEvent(Object source, ChangeType changeType, Long userId) {
+        this(source, changeType, Collections.singletonList(userId));
+    }
+
+    public enum ChangeType {
+        ADD,
+        UPDATE,
+        DELETE
+    }
+
+    private static final long serialVersionUID = 1L;
+}
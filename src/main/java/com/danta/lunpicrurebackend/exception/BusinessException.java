@@ -2,22 +2,32 @@ package com.danta.lunpicrurebackend.exception;
 
 import lombok.Data;
 
+/**
+ * 业务异常
+ * <p>
+ * 预期内的错误码（见 {@link ErrorCode#isExpected()}）不采集堆栈、不记录抑制异常，抛出代价接近普通对象分配。
+ */
 @Data
 public class BusinessException extends RuntimeException {
 
     private final int code;
 
     public BusinessException(int code,String message){
-        super(message);
+        this(code, message, !ErrorCode.isExpected(code));
+    }
+
+    /**
+     * 非预期错误保留抑制异常（例如 try-with-resources 中 close() 的失败）和堆栈
+     */
+    private BusinessException(int code, String message, boolean unexpected){
+        super(message, null, unexpected, unexpected);
         this.code = code;
     }
 
     public BusinessException(ErrorCode errorCode){
-        super(errorCode.getMessage());
-        this.code = errorCode.getCode();
+        this(errorCode.getCode(), errorCode.getMessage());
     }
     public BusinessException(ErrorCode errorCode,String message){
-        super(message);
-        this.code = errorCode.getCode();
+        this(errorCode.getCode(), message);
     }
 }
@@ -2,17 +2,30 @@ package com.danta.lunpicrurebackend.exception;
 
 import lombok.Getter;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Getter
 public enum ErrorCode {
 
-    SUCCESS(0, "ok"),
-    PARAMS_ERROR(40000, "请求参数错误"),
-    NOT_LOGIN_ERROR(40100, "未登录"),
-    NO_AUTH_ERROR(40101, "无权限"),
-    NOT_FOUND_ERROR(40400, "请求数据不存在"),
-    FORBIDDEN_ERROR(40300, "禁止访问"),
-    SYSTEM_ERROR(50000, "系统内部异常"),
-    OPERATION_ERROR(50001, "操作失败");
+    SUCCESS(0, "ok", true),
+    PARAMS_ERROR(40000, "请求参数错误", true),
+    NOT_LOGIN_ERROR(40100, "未登录", true),
+    NO_AUTH_ERROR(40101, "无权限", true),
+    NOT_FOUND_ERROR(40400, "请求数据不存在", true),
+    FORBIDDEN_ERROR(40300, "禁止访问", true),
+    TOO_MANY_REQUEST_ERROR(42900, "请求过于频繁，请稍后重试", true),
+    SYSTEM_ERROR(50000, "系统内部异常", false),
+    OPERATION_ERROR(50001, "操作失败", false),
+    SYSTEM_BUSY_ERROR(50300, "系统繁忙，请稍后重试", true);
+
+    private static final Map<Integer, ErrorCode> CODE_MAP = new HashMap<>();
+
+    static {
+        for (ErrorCode errorCode : values()) {
+            CODE_MAP.put(errorCode.code, errorCode);
+        }
+    }
 
     /**
      * 状态码
@@ -24,9 +37,23 @@ public enum ErrorCode {
      */
     private final String message;
 
-    ErrorCode(int code, String message) {
+    /**
+     * 是否为预期内的失败（参数错误、未登录、限流等）：不记录异常堆栈，日志限流输出
+     */
+    private final boolean expected;
+
+    ErrorCode(int code, String message, boolean expected) {
         this.code = code;
         this.message = message;
+        this.expected = expected;
+    }
+
+    /**
+     * 状态码是否为预期内的失败，未知状态码按非预期处理
+     */
+    public static boolean isExpected(int code) {
+        ErrorCode errorCode = CODE_MAP.get(code);
+        return errorCode != null && errorCode.expected;
     }
 
 }
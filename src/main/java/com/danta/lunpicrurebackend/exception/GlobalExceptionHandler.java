@@ -2,27 +2,70 @@ package com.danta.lunpicrurebackend.exception;
 
 import com.danta.lunpicrurebackend.common.BaseResponse;
 import com.danta.lunpicrurebackend.common.ResultUtils;
+import com.danta.lunpicrurebackend.manager.MetricsManager;
+import com.danta.lunpicrurebackend.utils.LogRateLimiter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import javax.annotation.Resource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * 全局异常处理器
+ * <p>
+ * 按错误码计数（指标 error.错误码）；预期内的业务异常（密码错误、账号已存在等）不带堆栈、按错误码限流输出，
+ * 避免撞库等异常流量下日志 I/O 占满 CPU；其他异常完整记录堆栈。
  */
 @RestControllerAdvice
 @Slf4j
 public class GlobalExceptionHandler {
 
+    @Resource
+    private MetricsManager metricsManager;
+
+    /**
+     * 每个错误码每秒最多输出的日志条数
+     */
+    @Value("${lun-picture.exception-log.permits-per-second:10}")
+    private int logPermitsPerSecond;
+
+    private final Map<Integer, LongAdder> errorCounters = new ConcurrentHashMap<>();
+
+    private final Map<Integer, LogRateLimiter> logRateLimiters = new ConcurrentHashMap<>();
+
     @ExceptionHandler(BusinessException.class)
     public BaseResponse<?> businessExceptionHandler(BusinessException e){
-        log.error("BusinessException", e);
+        countError(e.getCode());
+        if(!ErrorCode.isExpected(e.getCode())){
+            log.error("BusinessException", e);
+        } else {
+            LogRateLimiter logRateLimiter = logRateLimiters.computeIfAbsent(e.getCode(),
+                    code -> new LogRateLimiter(logPermitsPerSecond, 1000));
+            if(logRateLimiter.tryAcquire()){
+                log.info("BusinessException: code = {}, message = {}, suppressed = {}", e.getCode(), e.getMessage(),
+                        logRateLimiter.drainSuppressed());
+            }
+        }
         return ResultUtils.error(e.getCode(),e.getMessage());
     }
 
     @ExceptionHandler(RuntimeException.class)
-    public BaseResponse<?> businessExceptionHandler(RuntimeException e){
-        log.error("BusinessException", e);
+    public BaseResponse<?> runtimeExceptionHandler(RuntimeException e){
+        countError(ErrorCode.SYSTEM_ERROR.getCode());
+        log.error("RuntimeException", e);
         return ResultUtils.error(ErrorCode.SYSTEM_ERROR,"系统错误");
     }
 
+    private void countError(int code) {
+        LongAdder counter = errorCounters.get(code);
+        if(counter == null){
+            counter = errorCounters.computeIfAbsent(code, key -> metricsManager.counter("error." + key));
+        }
+        counter.increment();
+    }
+
 }
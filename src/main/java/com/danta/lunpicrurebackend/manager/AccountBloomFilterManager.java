@@ -0,0 +1,130 @@
+package com.danta.lunpicrurebackend.manager;
+
+import com.danta.lunpicrurebackend.mapper.UserMapper;
+import com.danta.lunpicrurebackend.model.entity.User;
+import com.danta.lunpicrurebackend.utils.ScalableBloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 已存在账号的布隆过滤器
+ * <p>
+ * 注册时如果过滤器判定账号一定不存在，就跳过查重 COUNT 直接插入（唯一索引兜底）。
+ * 启动后在后台从数据库加载全部账号（包括逻辑删除的，它们仍然占用 uk_userAccount），加载完成前不生效。
+ */
+@Slf4j
+@Component
+public class AccountBloomFilterManager {
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Value("${lun-picture.account-filter.load-batch-size:5000}")
+    private int loadBatchSize;
+
+    private final ScalableBloomFilter bloomFilter;
+
+    private volatile boolean ready = false;
+
+    /**
+     * 判定一定不存在（跳过查重）的次数
+     */
+    private final LongAdder definitelyAbsentCount = new LongAdder();
+
+    /**
+     * 判定可能存在、但查重后实际不存在的次数（误判）
+     */
+    private final LongAdder falsePositiveCount = new LongAdder();
+
+    public AccountBloomFilterManager(@Value("${lun-picture.account-filter.expected-insertions:100000}") long expectedInsertions,
+                                     @Value("${lun-picture.account-filter.fpp:0.01}") double fpp) {
+        this.bloomFilter = new ScalableBloomFilter(expectedInsertions, fpp);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Thread loader = new Thread(this::load, "account-bloom-filter-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * 按 id 分批加载全部账号
+     */
+    public void load() {
+        long start = System.currentTimeMillis();
+        try {
+            long lastId = Long.MIN_VALUE;
+            while (true) {
+                List<User> userList = userMapper.listAccountAfterId(lastId, loadBatchSize);
+                if (userList.isEmpty()) {
+                    break;
+                }
+                userList.forEach(user -> bloomFilter.add(user.getUserAccount()));
+                lastId = userList.get(userList.size() - 1).getId();
+            }
+            ready = true;
+            log.info("account bloom filter loaded, accounts = {}, memory = {} bytes, cost = {} ms",
+                    bloomFilter.size(), bloomFilter.memoryBytes(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("account bloom filter load failed, register will always check the database", e);
+        }
+    }
+
+    /**
+     * 账号是否一定不存在（过滤器未就绪时返回 false，调用方需要查库）
+     */
+    public boolean isDefinitelyAbsent(String userAccount) {
+        if (!ready || bloomFilter.mightContain(userAccount)) {
+            return false;
+        }
+        definitelyAbsentCount.increment();
+        return true;
+    }
+
+    /**
+     * 记录一次误判：过滤器判定可能存在，查库后不存在
+     */
+    public void recordFalsePositive() {
+        if (ready) {
+            falsePositiveCount.increment();
+        }
+    }
+
+    /**
+     * 新账号写入数据库后加入过滤器
+     */
+    public void add(String userAccount) {
+        bloomFilter.add(userAccount);
+    }
+
+    /**
+     * 过滤器统计：元素数、内存、预期误判率、实际观测误判率
+     */
+    public Map<String, Object> getStats() {
+        long falsePositive = falsePositiveCount.sum();
+        long definitelyAbsent = definitelyAbsentCount.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ready", ready);
+        result.put("size", bloomFilter.size());
+        result.put("stageCount", bloomFilter.stageCount());
+        result.put("memoryBytes", bloomFilter.memoryBytes());
+        result.put("targetFpp", bloomFilter.getFpp());
+        result.put("expectedFpp", bloomFilter.expectedFpp());
+        result.put("skippedQueryCount", definitelyAbsent);
+        result.put("falsePositiveCount", falsePositive);
+        // 不存在的账号中被误判为可能存在的比例
+        result.put("observedFpp", falsePositive + definitelyAbsent == 0 ? 0D
+                : (double) falsePositive / (falsePositive + definitelyAbsent));
+        return result;
+    }
+}
@@ -0,0 +1,199 @@
+package com.danta.lunpicrurebackend.manager;
+
+import com.danta.lunpicrurebackend.constant.UserConstant;
+import com.danta.lunpicrurebackend.event.UserChangeEvent;
+import com.danta.lunpicrurebackend.model.dto.user.UserPrincipal;
+import com.danta.lunpicrurebackend.model.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 读写分离路由
+ * <p>
+ * 默认走主库；@ReadOnly 方法内的查询轮询分配到从库。为了读到自己刚写入的数据，执行过写操作的用户（按用户 id 和会话 id）
+ * 以及被修改的用户在 sticky-millis 内的只读查询仍走主库，取值应大于从库的复制延迟。
+ */
+@Component
+public class DataSourceRoutingManager {
+
+    public static final String PRIMARY = "primary";
+
+    private static final String REQUEST_WROTE = DataSourceRoutingManager.class.getName() + ".wrote";
+
+    private final ThreadLocal<Boolean> readOnly = new ThreadLocal<>();
+
+    private final ThreadLocal<Boolean> forcePrimary = new ThreadLocal<>();
+
+    /**
+     * 最近写过数据的用户 / 会话
+     */
+    private final Cache<String, Boolean> recentWriters;
+
+    private final AtomicInteger replicaIndex = new AtomicInteger();
+
+    private volatile List<String> replicaKeys = Collections.emptyList();
+
+    public DataSourceRoutingManager(@Value("${lun-picture.datasource.sticky-millis:1000}") long stickyMillis) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * 当前应使用的数据源
+     */
+    public String currentLookupKey() {
+        List<String> keys = replicaKeys;
+        if (keys.isEmpty() || readOnly.get() == null || forcePrimary.get() != null || isRecentWriter()) {
+            return PRIMARY;
+        }
+        return keys.get((replicaIndex.getAndIncrement() & Integer.MAX_VALUE) % keys.size());
+    }
+
+    /**
+     * 进入只读范围
+     *
+     * @return 进入前是否已经在只读范围内，退出时传回
+     */
+    public boolean enterReadOnly() {
+        boolean previous = readOnly.get() != null;
+        readOnly.set(Boolean.TRUE);
+        return previous;
+    }
+
+    public void exitReadOnly(boolean previous) {
+        if (!previous) {
+            readOnly.remove();
+        }
+    }
+
+    /**
+     * 进入强制主库范围（即使处于只读范围内）
+     *
+     * @return 进入前是否已经在强制主库范围内，退出时传回
+     */
+    public boolean enterPrimary() {
+        boolean previous = forcePrimary.get() != null;
+        forcePrimary.set(Boolean.TRUE);
+        return previous;
+    }
+
+    public void exitPrimary(boolean previous) {
+        if (!previous) {
+            forcePrimary.remove();
+        }
+    }
+
+    /**
+     * 在主库上执行
+     */
+    public <T> T onPrimary(Supplier<T> action) {
+        boolean previous = enterPrimary();
+        try {
+            return action.get();
+        } finally {
+            exitPrimary(previous);
+        }
+    }
+
+    /**
+     * 当前查询是否会路由到从库
+     */
+    public boolean isRoutingToReplica() {
+        return !PRIMARY.equals(currentLookupKey());
+    }
+
+    /**
+     * 记录当前请求执行了写操作，此后该用户的只读查询在 sticky-millis 内走主库
+     */
+    public void markWrite() {
+        HttpServletRequest request = currentRequest();
+        if (request == null) {
+            return;
+        }
+        request.setAttribute(REQUEST_WROTE, Boolean.TRUE);
+        for (String writerKey : writerKeys(request)) {
+            recentWriters.put(writerKey, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * 被修改、删除的用户随后读取自己的信息（例如登录态）时也走主库
+     */
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        if (event.getChangeType() == UserChangeEvent.ChangeType.ADD) {
+            return;
+        }
+        for (Long userId : event.getUserIds()) {
+            recentWriters.put(userKey(userId), Boolean.TRUE);
+        }
+    }
+
+    public void setReplicaKeys(List<String> replicaKeys) {
+        this.replicaKeys = Collections.unmodifiableList(new ArrayList<>(replicaKeys));
+    }
+
+    public List<String> getReplicaKeys() {
+        return replicaKeys;
+    }
+
+    private boolean isRecentWriter() {
+        HttpServletRequest request = currentRequest();
+        if (request == null) {
+            return false;
+        }
+        if (request.getAttribute(REQUEST_WROTE) != null) {
+            return true;
+        }
+        for (String writerKey : writerKeys(request)) {
+            if (recentWriters.getIfPresent(writerKey) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 标识当前用户的 key：已解析的登录用户 id、请求携带的会话 id
+     */
+    private static List<String> writerKeys(HttpServletRequest request) {
+        List<String> keys = new ArrayList<>(2);
+        Object loginUser = request.getAttribute(UserConstant.REQUEST_LOGIN_USER);
+        Object principal = request.getAttribute(UserConstant.REQUEST_LOGIN_PRINCIPAL);
+        if (loginUser instanceof User) {
+            keys.add(userKey(((User) loginUser).getId()));
+        } else if (principal instanceof UserPrincipal) {
+            keys.add(userKey(((UserPrincipal) principal).getId()));
+        }
+        String sessionId = request.getRequestedSessionId();
+        if (sessionId != null) {
+            keys.add("s:" + sessionId);
+        }
+        return keys;
+    }
+
+    private static String userKey(Long userId) {
+        return "u:" + userId;
+    }
+
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        return requestAttributes instanceof ServletRequestAttributes
+                ? ((ServletRequestAttributes) requestAttributes).getRequest() : null;
+    }
+}
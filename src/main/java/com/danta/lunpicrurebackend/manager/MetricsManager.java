@@ -0,0 +1,77 @@
+package com.danta.lunpicrurebackend.manager;
+
+import com.danta.lunpicrurebackend.model.vo.LatencyMetricVO;
+import com.danta.lunpicrurebackend.model.vo.MetricsVO;
+import com.danta.lunpicrurebackend.utils.LatencyHistogram;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 运行指标
+ * <p>
+ * 延迟直方图（纳秒）、计数器和瞬时值三类指标，按名称注册；记录都是无锁的，
+ * 调用方应缓存 {@link #histogram(String)} 返回的直方图，避免每次记录都查一次表。
+ * 统计自进程启动起累计。
+ */
+@Component
+public class MetricsManager {
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * 获取（不存在时创建）延迟直方图
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * 获取（不存在时创建）计数器
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * 注册瞬时值，读取指标时才调用
+     */
+    public void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /**
+     * 读取所有指标，延迟单位为微秒
+     */
+    public MetricsVO snapshot() {
+        MetricsVO metricsVO = new MetricsVO();
+        new TreeMap<>(histograms).forEach((name, histogram) -> {
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            LatencyMetricVO latencyMetricVO = new LatencyMetricVO();
+            latencyMetricVO.setName(name);
+            latencyMetricVO.setCount(snapshot.getCount());
+            latencyMetricVO.setMeanMicros(toMicros((long) snapshot.getMean()));
+            latencyMetricVO.setP50Micros(toMicros(snapshot.valueAt(0.5)));
+            latencyMetricVO.setP99Micros(toMicros(snapshot.valueAt(0.99)));
+            latencyMetricVO.setP999Micros(toMicros(snapshot.valueAt(0.999)));
+            latencyMetricVO.setMaxMicros(toMicros(snapshot.getMax()));
+            metricsVO.getLatencies().add(latencyMetricVO);
+        });
+        new TreeMap<>(counters).forEach((name, counter) -> metricsVO.getCounters().put(name, counter.sum()));
+        new TreeMap<>(gauges).forEach((name, gauge) -> metricsVO.getGauges().put(name, gauge.getAsLong()));
+        return metricsVO;
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
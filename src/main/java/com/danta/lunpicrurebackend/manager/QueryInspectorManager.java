@@ -0,0 +1,267 @@
+package com.danta.lunpicrurebackend.manager;
+
+import com.danta.lunpicrurebackend.model.vo.QueryFindingVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * SQL 检查：慢查询和 N+1
+ * <p>
+ * 请求开始时在当前线程上开启记录，SQL 拦截器把每条语句的耗时记到当前请求上，请求结束时分析：
+ * 单条超过 slow-millis 的记为 SLOW，同一语句执行超过 repeat-threshold 次的记为 REPEATED。
+ * 发现的问题保存在定长环形缓冲区中（无锁），只保留最近的 max-findings 条。
+ * <p>
+ * fail-on-repeat 为 true 时（测试环境），同一语句即将第 repeat-threshold + 1 次执行时直接抛出异常，让接口测试失败；
+ * 单元测试也可以用 {@link #inspect(String, Supplier)} 捕获一段代码执行的语句，再用 {@link QueryProfile} 的断言方法校验。
+ */
+@Slf4j
+@Component
+public class QueryInspectorManager {
+
+    public static final String TYPE_SLOW = "SLOW";
+
+    public static final String TYPE_REPEATED = "REPEATED";
+
+    private final ThreadLocal<QueryProfile> currentProfile = new ThreadLocal<>();
+
+    private final AtomicReferenceArray<QueryFindingVO> findings;
+
+    private final AtomicLong findingSequence = new AtomicLong();
+
+    /**
+     * 每个接口最近一次请求的记录
+     */
+    private final Map<String, QueryProfile> lastProfiles = new ConcurrentHashMap<>();
+
+    private final long slowNanos;
+
+    private final int repeatThreshold;
+
+    private final boolean failOnRepeat;
+
+    public QueryInspectorManager(@Value("${lun-picture.query-inspector.slow-millis:200}") long slowMillis,
+                                 @Value("${lun-picture.query-inspector.repeat-threshold:10}") int repeatThreshold,
+                                 @Value("${lun-picture.query-inspector.max-findings:200}") int maxFindings,
+                                 @Value("${lun-picture.query-inspector.fail-on-repeat:false}") boolean failOnRepeat) {
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(slowMillis);
+        this.repeatThreshold = repeatThreshold;
+        this.findings = new AtomicReferenceArray<>(maxFindings);
+        this.failOnRepeat = failOnRepeat;
+    }
+
+    /**
+     * 在当前线程上开始记录
+     *
+     * @param endpoint 接口名
+     */
+    public void start(String endpoint) {
+        currentProfile.set(new QueryProfile(endpoint));
+    }
+
+    /**
+     * 结束当前线程上的记录并分析
+     *
+     * @return 本次记录，未开始时返回 null
+     */
+    public QueryProfile finish() {
+        QueryProfile profile = currentProfile.get();
+        if (profile == null) {
+            return null;
+        }
+        currentProfile.remove();
+        profile.statements.forEach((statement, stats) -> {
+            if (stats.count > repeatThreshold) {
+                addFinding(TYPE_REPEATED, profile.endpoint, statement, stats.count, stats.totalNanos);
+            }
+        });
+        lastProfiles.put(profile.endpoint, profile);
+        return profile;
+    }
+
+    /**
+     * 捕获一段代码执行的语句（用于测试）
+     *
+     * @param name   记录名
+     * @param action 要执行的代码
+     * @return 执行期间的语句记录
+     */
+    public QueryProfile inspect(String name, Supplier<?> action) {
+        QueryProfile outerProfile = currentProfile.get();
+        start(name);
+        QueryProfile profile;
+        try {
+            action.get();
+        } finally {
+            profile = finish();
+            if (outerProfile != null) {
+                currentProfile.set(outerProfile);
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * 语句执行前调用：开启 fail-on-repeat 时，同一语句在当前请求内已执行 repeat-threshold 次则抛出异常
+     */
+    public void beforeStatement(String statement) {
+        if (!failOnRepeat) {
+            return;
+        }
+        QueryProfile profile = currentProfile.get();
+        if (profile != null && profile.countOf(statement) >= repeatThreshold) {
+            throw new IllegalStateException("statement " + statement + " executed more than " + repeatThreshold
+                    + " times in " + profile.endpoint + ", possible N+1 query");
+        }
+    }
+
+    /**
+     * 语句执行后调用
+     *
+     * @param statement    语句名
+     * @param elapsedNanos 耗时
+     * @param batched      是否只是加入批处理（批量执行器的 update），不计入重复次数
+     */
+    public void afterStatement(String statement, long elapsedNanos, boolean batched) {
+        QueryProfile profile = currentProfile.get();
+        if (profile != null && !batched) {
+            profile.record(statement, elapsedNanos);
+        }
+        if (elapsedNanos >= slowNanos) {
+            String endpoint = profile == null ? null : profile.endpoint;
+            addFinding(TYPE_SLOW, endpoint, statement, 1, elapsedNanos);
+            log.warn("slow query: {} took {} ms in {}", statement, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), endpoint);
+        }
+    }
+
+    /**
+     * 最近发现的问题，新的在前
+     */
+    public List<QueryFindingVO> listFindings() {
+        long sequence = findingSequence.get();
+        int capacity = findings.length();
+        List<QueryFindingVO> result = new ArrayList<>();
+        for (long i = sequence - 1; i >= 0 && i >= sequence - capacity; i--) {
+            QueryFindingVO finding = findings.get((int) (i % capacity));
+            if (finding != null) {
+                result.add(finding);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 接口最近一次请求的语句记录
+     */
+    public QueryProfile getLastProfile(String endpoint) {
+        return lastProfiles.get(endpoint);
+    }
+
+    private void addFinding(String type, String endpoint, String statement, int count, long elapsedNanos) {
+        if (findings.length() == 0) {
+            return;
+        }
+        QueryFindingVO finding = new QueryFindingVO();
+        finding.setType(type);
+        finding.setEndpoint(endpoint);
+        finding.setStatement(statement);
+        finding.setCount(count);
+        finding.setElapsedMicros(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        finding.setCreateTime(new Date());
+        findings.set((int) (findingSequence.getAndIncrement() % findings.length()), finding);
+    }
+
+    /**
+     * 一次请求（或一段代码）执行的语句，只在所属线程上写入
+     */
+    public static class QueryProfile {
+
+        private final String endpoint;
+
+        private final Map<String, StatementStats> statements = new LinkedHashMap<>();
+
+        private int statementCount;
+
+        QueryProfile(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        void record(String statement, long elapsedNanos) {
+            StatementStats stats = statements.computeIfAbsent(statement, key -> new StatementStats());
+            stats.count++;
+            stats.totalNanos += elapsedNanos;
+            statementCount++;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        /**
+         * 执行的语句总数
+         */
+        public int getStatementCount() {
+            return statementCount;
+        }
+
+        /**
+         * 某条语句的执行次数
+         */
+        public int countOf(String statement) {
+            StatementStats stats = statements.get(statement);
+            return stats == null ? 0 : stats.count;
+        }
+
+        /**
+         * 语句 -> 执行次数
+         */
+        public Map<String, Integer> getStatementCounts() {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            statements.forEach((statement, stats) -> counts.put(statement, stats.count));
+            return counts;
+        }
+
+        /**
+         * 断言语句总数不超过 max，否则抛出 AssertionError（测试用）
+         */
+        public QueryProfile assertStatementCountAtMost(int max) {
+            if (statementCount > max) {
+                throw new AssertionError(endpoint + " executed " + statementCount + " statements, expected at most "
+                        + max + ": " + getStatementCounts());
+            }
+            return this;
+        }
+
+        /**
+         * 断言每条语句的执行次数都不超过 max，否则抛出 AssertionError（测试用）
+         */
+        public QueryProfile assertNoStatementRepeatedMoreThan(int max) {
+            statements.forEach((statement, stats) -> {
+                if (stats.count > max) {
+                    throw new AssertionError(endpoint + " executed " + statement + " " + stats.count
+                            + " times, expected at most " + max);
+                }
+            });
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return endpoint + " " + getStatementCounts();
+        }
+    }
+
+    private static class StatementStats {
+
+        private int count;
+
+        private long totalNanos;
+    }
+}
@@ -0,0 +1,169 @@
+package com.danta.lunpicrurebackend.manager;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.jwt.JWT;
+import cn.hutool.jwt.RegisteredPayload;
+import cn.hutool.jwt.signers.JWTSigner;
+import cn.hutool.jwt.signers.JWTSignerUtil;
+import com.danta.lunpicrurebackend.model.dto.user.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录令牌（HMAC-SHA256 签名）
+ * <p>
+ * 令牌中携带用户 id、角色、版本和过期时间，校验只需验签，不查会话和数据库；
+ * 注销的令牌按 jti 放入本地黑名单，黑名单条目在令牌过期时自动移除。
+ * 角色变更在令牌刷新或过期后生效，因此令牌有效期不宜过长。
+ */
+@Slf4j
+@Component
+public class TokenManager {
+
+    public static final String AUTH_MODE_TOKEN = "token";
+
+    private static final String CLAIM_USER_ID = "uid";
+
+    private static final String CLAIM_ROLE = "role";
+
+    private static final String CLAIM_VERSION = "ver";
+
+    private final boolean enabled;
+
+    private final JWTSigner signer;
+
+    private final long expireSeconds;
+
+    /**
+     * 已注销令牌 jti -> 令牌过期时间（毫秒）
+     */
+    private final Cache<String, Long> denylist;
+
+    public TokenManager(@Value("${lun-picture.auth.mode:session}") String authMode,
+                        @Value("${lun-picture.auth.token-secret:}") String secret,
+                        @Value("${lun-picture.auth.token-expire-seconds:900}") long expireSeconds) {
+        this.enabled = AUTH_MODE_TOKEN.equals(authMode);
+        if (StrUtil.isBlank(secret)) {
+            secret = RandomUtil.randomString(32);
+            if (enabled) {
+                log.warn("lun-picture.auth.token-secret is not set, tokens are only valid on this instance");
+            }
+        }
+        this.signer = JWTSignerUtil.hs256(secret.getBytes(StandardCharsets.UTF_8));
+        this.expireSeconds = expireSeconds;
+        this.denylist = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Long>() {
+                    @Override
+                    public long expireAfterCreate(String key, Long expireAt, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expireAt - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Long expireAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Long expireAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 是否启用令牌认证（lun-picture.auth.mode=token）
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 签发令牌
+     *
+     * @param principal 登录身份
+     * @return 令牌
+     */
+    public String issue(UserPrincipal principal) {
+        long now = System.currentTimeMillis();
+        return JWT.create()
+                .setPayload(CLAIM_USER_ID, principal.getId())
+                .setPayload(CLAIM_ROLE, principal.getUserRole())
+                .setPayload(CLAIM_VERSION, principal.getVersion())
+                .setJWTId(IdUtil.fastSimpleUUID())
+                .setIssuedAt(new Date(now))
+                .setExpiresAt(new Date(now + TimeUnit.SECONDS.toMillis(expireSeconds)))
+                .sign(signer);
+    }
+
+    /**
+     * 校验令牌并解析登录身份
+     *
+     * @param token 令牌
+     * @return 登录身份，签名错误、已过期或已注销返回 null
+     */
+    public UserPrincipal parse(String token) {
+        JSONObject claims = verify(token);
+        if (claims == null) {
+            return null;
+        }
+        return new UserPrincipal(claims.getLong(CLAIM_USER_ID), claims.getStr(CLAIM_ROLE),
+                claims.getLong(CLAIM_VERSION, 0L));
+    }
+
+    /**
+     * 注销令牌
+     *
+     * @param token 令牌
+     * @return 令牌有效并已注销返回 true
+     */
+    public boolean revoke(String token) {
+        JSONObject claims = verify(token);
+        if (claims == null) {
+            return false;
+        }
+        long expireAt = TimeUnit.SECONDS.toMillis(claims.getLong(RegisteredPayload.EXPIRES_AT));
+        denylist.put(claims.getStr(RegisteredPayload.JWT_ID), expireAt);
+        return true;
+    }
+
+    public long getExpireSeconds() {
+        return expireSeconds;
+    }
+
+    private JSONObject verify(String token) {
+        if (StrUtil.isBlank(token)) {
+            return null;
+        }
+        try {
+            JWT jwt = JWT.of(token);
+            if (!jwt.verify(signer)) {
+                return null;
+            }
+            JSONObject claims = jwt.getPayloads();
+            Long expiresAt = claims.getLong(RegisteredPayload.EXPIRES_AT);
+            if (expiresAt == null || TimeUnit.SECONDS.toMillis(expiresAt) <= System.currentTimeMillis()) {
+                return null;
+            }
+            String jwtId = claims.getStr(RegisteredPayload.JWT_ID);
+            if (jwtId == null || denylist.getIfPresent(jwtId) != null) {
+                return null;
+            }
+            return claims;
+        } catch (RuntimeException e) {
+            // 格式错误的令牌
+            return null;
+        }
+    }
+}
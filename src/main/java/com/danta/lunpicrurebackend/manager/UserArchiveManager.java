@@ -0,0 +1,244 @@
+package com.danta.lunpicrurebackend.manager;
+
+import com.danta.lunpicrurebackend.exception.BusinessException;
+import com.danta.lunpicrurebackend.exception.ErrorCode;
+import com.danta.lunpicrurebackend.model.vo.ArchiveProgressVO;
+import com.danta.lunpicrurebackend.utils.LatencyHistogram;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 已删除用户归档
+ * <p>
+ * 定时把逻辑删除超过保留期的用户从 user 表移到 user_archive 表：按 id 递增分批，先不加锁地找出候选 id，
+ * 再在一个事务内按主键锁定、复制、删除，批次之间暂停，避免长事务、锁冲突和主从延迟；归档后账号可以重新注册。
+ * 累计归档行数达到阈值后执行 optimize table 整理表和索引（MySQL 在线重建）。
+ * 进度和速度输出到日志，并可通过 {@link #getProgress()} 查看。
+ */
+@Slf4j
+@Component
+public class UserArchiveManager {
+
+    private static final String COLUMNS = "id, userAccount, userPassword, userName, userAvatar, userProfile, "
+            + "userRole, editTime, createTime, updateTime, isDelete";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final DataSourceRoutingManager dataSourceRoutingManager;
+
+    private final LongAdder archivedCounter;
+
+    private final LatencyHistogram batchHistogram;
+
+    private final boolean enabled;
+
+    private final int retentionDays;
+
+    private final int batchSize;
+
+    private final long pauseMillis;
+
+    private final long maxRowsPerRun;
+
+    private final long optimizeAfterRows;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * 上次整理之后累计归档的行数
+     */
+    private long archivedSinceOptimize;
+
+    private volatile ArchiveProgressVO progress = new ArchiveProgressVO();
+
+    public UserArchiveManager(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              DataSourceRoutingManager dataSourceRoutingManager, MetricsManager metricsManager,
+                              @Value("${lun-picture.user-archive.enabled:true}") boolean enabled,
+                              @Value("${lun-picture.user-archive.retention-days:30}") int retentionDays,
+                              @Value("${lun-picture.user-archive.batch-size:500}") int batchSize,
+                              @Value("${lun-picture.user-archive.pause-millis:200}") long pauseMillis,
+                              @Value("${lun-picture.user-archive.max-rows-per-run:1000000}") long maxRowsPerRun,
+                              @Value("${lun-picture.user-archive.optimize-after-rows:100000}") long optimizeAfterRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dataSourceRoutingManager = dataSourceRoutingManager;
+        this.archivedCounter = metricsManager.counter("archive.user.rows");
+        this.batchHistogram = metricsManager.histogram("archive.user.batch");
+        this.enabled = enabled;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.maxRowsPerRun = maxRowsPerRun;
+        this.optimizeAfterRows = optimizeAfterRows;
+    }
+
+    @Scheduled(cron = "${lun-picture.user-archive.cron:0 30 3 * * ?}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archive();
+        } catch (BusinessException e) {
+            log.info("user archive skipped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 执行一次归档（同一实例同一时刻只执行一个；多实例同时执行时行锁保证每行只归档一次）
+     *
+     * @return 本次进度
+     */
+    public ArchiveProgressVO archive() {
+        claim();
+        return runArchive();
+    }
+
+    /**
+     * 在后台线程执行一次归档（管理员手动触发，不受 enabled 开关限制）
+     */
+    public void startArchive() {
+        claim();
+        Thread thread = new Thread(this::runArchive, "user-archive");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public ArchiveProgressVO getProgress() {
+        return progress;
+    }
+
+    private void claim() {
+        if (!running.compareAndSet(false, true)) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "归档任务正在执行");
+        }
+    }
+
+    /**
+     * 执行归档，调用前已通过 {@link #claim()} 占用执行权，结束后释放
+     */
+    private ArchiveProgressVO runArchive() {
+        ArchiveProgressVO current = new ArchiveProgressVO();
+        current.setRunning(true);
+        current.setStartTime(new Date());
+        progress = current;
+        long startNanos = System.nanoTime();
+        try {
+            dataSourceRoutingManager.onPrimary(() -> {
+                runBatches(current, startNanos);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.error("user archive failed after {} rows", current.getArchivedRows(), e);
+            current.setError(e.getMessage());
+        } finally {
+            current.setRunning(false);
+            current.setFinishTime(new Date());
+            running.set(false);
+        }
+        log.info("user archive finished, rows = {}, batches = {}, rows/s = {}, optimized = {}",
+                current.getArchivedRows(), current.getBatches(), String.format("%.1f", current.getRowsPerSecond()),
+                current.isOptimized());
+        return current;
+    }
+
+    private void runBatches(ArchiveProgressVO current, long startNanos) {
+        Timestamp deletedBefore = new Timestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays));
+        long lastId = Long.MIN_VALUE;
+        while (current.getArchivedRows() < maxRowsPerRun) {
+            long batchStart = System.nanoTime();
+            List<Long> candidates = findCandidates(lastId, deletedBefore);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            List<Long> ids = transactionTemplate.execute(status -> archiveBatch(candidates, deletedBefore));
+            batchHistogram.record(System.nanoTime() - batchStart);
+            lastId = candidates.get(candidates.size() - 1);
+            int archived = ids == null ? 0 : ids.size();
+            archivedCounter.add(archived);
+            current.setArchivedRows(current.getArchivedRows() + archived);
+            current.setBatches(current.getBatches() + 1);
+            current.setRowsPerSecond(current.getArchivedRows() * 1e9 / Math.max(1, System.nanoTime() - startNanos));
+            log.info("user archive progress, rows = {}, batches = {}, lastId = {}, rows/s = {}",
+                    current.getArchivedRows(), current.getBatches(), lastId,
+                    String.format("%.1f", current.getRowsPerSecond()));
+            if (candidates.size() < batchSize) {
+                break;
+            }
+            pause();
+        }
+        synchronized (this) {
+            archivedSinceOptimize += current.getArchivedRows();
+            if (optimizeAfterRows > 0 && archivedSinceOptimize >= optimizeAfterRows) {
+                long optimizeStart = System.nanoTime();
+                // InnoDB 上等价于在线重建表和索引，回收删除行留下的空间
+                jdbcTemplate.execute("optimize table `user`");
+                archivedSinceOptimize = 0;
+                current.setOptimized(true);
+                log.info("user table optimized in {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - optimizeStart));
+            }
+        }
+    }
+
+    /**
+     * 按 id 顺序查找一批符合条件的行（普通一致性读，不加锁）
+     * <p>
+     * 条件列没有索引，扫描的是主键；加锁读会给扫描到的每一行（包括正常用户）加 next-key 锁，
+     * 最后一批还会锁住表尾间隙，阻塞注册。
+     */
+    private List<Long> findCandidates(long fromId, Timestamp deletedBefore) {
+        return jdbcTemplate.queryForList("select id from `user` where id > ? and isDelete = 1 "
+                + "and updateTime < ? order by id limit ?", Long.class, fromId, deletedBefore, batchSize);
+    }
+
+    /**
+     * 归档一批：按主键锁定仍符合条件的候选行（期间可能被恢复），复制到归档表后删除
+     *
+     * @return 本批归档的 id（升序）
+     */
+    private List<Long> archiveBatch(List<Long> candidates, Timestamp deletedBefore) {
+        String candidatePlaceholders = String.join(",", Collections.nCopies(candidates.size(), "?"));
+        Object[] candidateArgs = new Object[candidates.size() + 1];
+        candidates.toArray(candidateArgs);
+        candidateArgs[candidates.size()] = deletedBefore;
+        List<Long> ids = jdbcTemplate.queryForList("select id from `user` where id in (" + candidatePlaceholders
+                + ") and isDelete = 1 and updateTime < ? order by id for update", Long.class, candidateArgs);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        Object[] args = ids.toArray();
+        jdbcTemplate.update("insert into user_archive (" + COLUMNS + ", archiveTime) select " + COLUMNS
+                + ", now() from `user` where id in (" + placeholders + ")", args);
+        jdbcTemplate.update("delete from `user` where id in (" + placeholders + ") and isDelete = 1", args);
+        return ids;
+    }
+
+    private void pause() {
+        if (pauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("user archive interrupted", e);
+        }
+    }
+}
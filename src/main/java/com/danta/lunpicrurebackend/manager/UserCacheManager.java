@@ -0,0 +1,82 @@
+package com.danta.lunpicrurebackend.manager;
+
+import com.danta.lunpicrurebackend.event.UserChangeEvent;
+import com.danta.lunpicrurebackend.model.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 登录用户本地缓存
+ * <p>
+ * 缓存 id -> User，避免每次请求都查询数据库刷新登录用户。
+ * 写入后 expireSeconds 秒过期，因此即使没有显式失效，角色变更或删除也会在该时间内生效。
+ */
+@Component
+public class UserCacheManager {
+
+    private final Cache<Long, User> userCache;
+
+    public UserCacheManager(@Value("${lun-picture.user-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${lun-picture.user-cache.expire-seconds:60}") long expireSeconds) {
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 获取用户，未命中时通过 loader 加载（同一 id 并发加载只会执行一次）
+     *
+     * @param userId 用户 id
+     * @param loader 加载函数，返回 null 时不缓存
+     * @return 用户，不存在返回 null
+     */
+    public User getUser(Long userId, Function<Long, User> loader) {
+        return userCache.get(userId, loader);
+    }
+
+    /**
+     * 使指定用户的缓存失效（用户新增、修改、删除后调用）
+     *
+     * @param userId 用户 id
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        // 如果该 id 正在加载，会等待加载完成后再移除，不会留下旧值
+        userCache.invalidate(userId);
+    }
+
+    /**
+     * 用户数据变更后使对应缓存失效
+     */
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        event.getUserIds().forEach(this::invalidate);
+    }
+
+    /**
+     * 获取缓存统计信息（命中、未命中、淘汰次数）
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = userCache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", userCache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+}
@@ -0,0 +1,206 @@
+package com.danta.lunpicrurebackend.manager;
+
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.danta.lunpicrurebackend.event.UserChangeEvent;
+import com.danta.lunpicrurebackend.mapper.UserMapper;
+import com.danta.lunpicrurebackend.model.dto.user.UserQueryRequest;
+import com.danta.lunpicrurebackend.model.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 用户列表总数统计
+ * <p>
+ * 按归一化后的筛选条件缓存 COUNT 结果，用户数据变更后全部失效；
+ * 精确统计超过耗时预算时先返回基于执行计划统计信息的估算值，精确结果在后台算完后写入缓存。
+ */
+@Slf4j
+@Component
+public class UserCountManager {
+
+    @Resource
+    private UserMapper userMapper;
+
+    private final Cache<String, Long> countCache;
+
+    /**
+     * 正在执行的精确统计，同一条件只统计一次
+     */
+    private final Map<String, CompletableFuture<Long>> inflightCounts = new ConcurrentHashMap<>();
+
+    /**
+     * 缓存版本号，每次失效加一；统计开始后版本变化的结果不写入缓存
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    private final ThreadPoolExecutor countExecutor;
+
+    private final long latencyBudgetMillis;
+
+    public UserCountManager(@Value("${lun-picture.user-count.maximum-size:1000}") long maximumSize,
+                            @Value("${lun-picture.user-count.expire-seconds:300}") long expireSeconds,
+                            @Value("${lun-picture.user-count.latency-budget-millis:200}") long latencyBudgetMillis) {
+        this.countCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+                .build();
+        this.latencyBudgetMillis = latencyBudgetMillis;
+        this.countExecutor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(100), r -> {
+            Thread thread = new Thread(r, "user-count");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 获取符合筛选条件的用户总数
+     *
+     * @param userQueryRequest     查询条件（分页、排序参数不参与统计）
+     * @param queryWrapperSupplier 构造对应查询条件（统计可能在后台线程执行，每次使用新的条件对象）
+     * @return 总数及是否精确
+     */
+    public CountResult count(UserQueryRequest userQueryRequest, Supplier<QueryWrapper<User>> queryWrapperSupplier) {
+        String key = buildKey(userQueryRequest);
+        Long cachedTotal = countCache.getIfPresent(key);
+        if (cachedTotal != null) {
+            return new CountResult(cachedTotal, true);
+        }
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        CompletableFuture<Long> inflightFuture = inflightCounts.putIfAbsent(key, future);
+        if (inflightFuture != null) {
+            future = inflightFuture;
+        } else if (!startCount(key, future, queryWrapperSupplier.get())) {
+            // 统计线程池已满，直接估算
+            return new CountResult(estimate(queryWrapperSupplier.get()), false);
+        }
+        try {
+            return new CountResult(future.get(latencyBudgetMillis, TimeUnit.MILLISECONDS), true);
+        } catch (TimeoutException e) {
+            log.info("user count exceeded latency budget, fall back to estimate, key = {}", key);
+            return new CountResult(estimate(queryWrapperSupplier.get()), false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new CountResult(estimate(queryWrapperSupplier.get()), false);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * 用户数据变更后清空所有缓存的总数
+     */
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        version.incrementAndGet();
+        countCache.invalidateAll();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        countExecutor.shutdownNow();
+    }
+
+    /**
+     * 在后台执行精确统计，完成后写入缓存（统计期间发生过失效则不写入）
+     *
+     * @return 是否提交成功
+     */
+    private boolean startCount(String key, CompletableFuture<Long> future, QueryWrapper<User> queryWrapper) {
+        long startVersion = version.get();
+        try {
+            countExecutor.execute(() -> {
+                try {
+                    Long total = userMapper.selectCount(queryWrapper);
+                    if (version.get() == startVersion) {
+                        countCache.put(key, total);
+                    }
+                    future.complete(total);
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    inflightCounts.remove(key, future);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inflightCounts.remove(key, future);
+            future.completeExceptionally(e);
+            return false;
+        }
+    }
+
+    /**
+     * 根据执行计划估算行数：rows * filtered%
+     */
+    private long estimate(QueryWrapper<User> queryWrapper) {
+        try {
+            List<Map<String, Object>> plans = userMapper.explainUserQuery(queryWrapper);
+            if (plans.isEmpty()) {
+                return 0;
+            }
+            Map<String, Object> plan = plans.get(0);
+            double rows = toDouble(plan.get("rows"), 0);
+            double filtered = toDouble(plan.get("filtered"), 100);
+            return Math.round(rows * filtered / 100);
+        } catch (Exception e) {
+            log.warn("estimate user count failed", e);
+            return 0;
+        }
+    }
+
+    private static double toDouble(Object value, double defaultValue) {
+        return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+    }
+
+    /**
+     * 归一化筛选条件：只保留参与过滤的字段，空白字段视为未设置
+     */
+    private static String buildKey(UserQueryRequest userQueryRequest) {
+        StringBuilder key = new StringBuilder();
+        appendKeyPart(key, userQueryRequest.getId() == null ? null : userQueryRequest.getId().toString());
+        appendKeyPart(key, userQueryRequest.getUserRole());
+        appendKeyPart(key, userQueryRequest.getUserName());
+        appendKeyPart(key, userQueryRequest.getUserAccount());
+        appendKeyPart(key, userQueryRequest.getUserProfile());
+        return key.toString();
+    }
+
+    private static void appendKeyPart(StringBuilder key, String value) {
+        // 用前缀区分“未设置”和任意取值，避免拼接后产生歧义
+        key.append(StrUtil.isBlank(value) ? "-" : "=" + value).append('\u0001');
+    }
+
+    /**
+     * 统计结果
+     */
+    @Data
+    @AllArgsConstructor
+    public static class CountResult {
+
+        /**
+         * 总数
+         */
+        private long total;
+
+        /**
+         * 是否为精确值（false 表示估算值）
+         */
+        private boolean exact;
+    }
+}
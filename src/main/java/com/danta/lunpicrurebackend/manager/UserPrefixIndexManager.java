@@ -0,0 +1,224 @@
+package com.danta.lunpicrurebackend.manager;
+
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.danta.lunpicrurebackend.event.UserChangeEvent;
+import com.danta.lunpicrurebackend.mapper.UserMapper;
+import com.danta.lunpicrurebackend.model.entity.User;
+import com.danta.lunpicrurebackend.model.vo.UserSuggestionVO;
+import com.danta.lunpicrurebackend.utils.RadixTrie;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * 用户账号、昵称前缀索引（搜索联想）
+ * <p>
+ * 启动后在后台从数据库全量加载，之后随用户变更事件增量维护；加载完成前回退到数据库前缀查询。
+ */
+@Slf4j
+@Component
+public class UserPrefixIndexManager {
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Value("${lun-picture.user-prefix-index.load-batch-size:5000}")
+    private int loadBatchSize;
+
+    private final RadixTrie trie = new RadixTrie();
+
+    /**
+     * 已索引的用户：id -> [账号, 昵称]，用于删除旧词条以及直接组装联想结果
+     */
+    private final Map<Long, String[]> indexedUsers = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 全量加载期间收到变更的用户 id，加载完成后重新索引
+     */
+    private final Set<Long> pendingUserIds = new HashSet<>();
+
+    private volatile boolean loading = false;
+
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Thread loader = new Thread(this::load, "user-prefix-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * 按 id 分批从数据库全量加载
+     */
+    public void load() {
+        loading = true;
+        long start = System.currentTimeMillis();
+        try {
+            long lastId = Long.MIN_VALUE;
+            while (true) {
+                QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+                queryWrapper.select("id", "userAccount", "userName").gt("id", lastId).orderByAsc("id");
+                List<User> userList = userMapper.selectPage(new Page<>(1, loadBatchSize, false), queryWrapper).getRecords();
+                if (userList.isEmpty()) {
+                    break;
+                }
+                lock.writeLock().lock();
+                try {
+                    userList.forEach(this::indexUser);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                lastId = userList.get(userList.size() - 1).getId();
+            }
+            Set<Long> userIds;
+            lock.writeLock().lock();
+            try {
+                loading = false;
+                userIds = new HashSet<>(pendingUserIds);
+                pendingUserIds.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            refresh(userIds);
+            ready = true;
+            log.info("user prefix index loaded, users = {}, cost = {} ms", indexedUsers.size(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            loading = false;
+            log.warn("user prefix index load failed, fall back to database prefix query", e);
+        }
+    }
+
+    /**
+     * 前缀联想：匹配账号或昵称以 prefix 开头（忽略大小写）的用户
+     *
+     * @param prefix 前缀
+     * @param limit  最多返回条数
+     * @return 联想结果
+     */
+    public List<UserSuggestionVO> suggest(String prefix, int limit) {
+        if (!ready) {
+            return suggestFromDatabase(prefix, limit);
+        }
+        String normalizedPrefix = normalize(prefix);
+        // 账号和昵称都匹配的用户只返回一次
+        Set<Long> seenIds = new HashSet<>();
+        List<UserSuggestionVO> result = new ArrayList<>(limit);
+        lock.readLock().lock();
+        try {
+            trie.forEachWithPrefix(normalizedPrefix, id -> {
+                if (seenIds.add(id)) {
+                    String[] terms = indexedUsers.get(id);
+                    result.add(new UserSuggestionVO(id, terms[0], terms[1]));
+                }
+                return result.size() < limit;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * 用户变更后增量更新索引
+     */
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        if (event.getChangeType() == UserChangeEvent.ChangeType.DELETE) {
+            lock.writeLock().lock();
+            try {
+                event.getUserIds().forEach(this::unindexUser);
+                if (loading) {
+                    pendingUserIds.addAll(event.getUserIds());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+        refresh(new HashSet<>(event.getUserIds()));
+    }
+
+    /**
+     * 从数据库重新读取指定用户并重建其词条（已删除的用户会被移出索引）
+     */
+    private void refresh(Set<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "userAccount", "userName").in("id", userIds);
+        Map<Long, User> userMap = userMapper.selectList(queryWrapper).stream()
+                .collect(Collectors.toMap(User::getId, user -> user));
+        lock.writeLock().lock();
+        try {
+            for (Long userId : userIds) {
+                unindexUser(userId);
+                User user = userMap.get(userId);
+                if (user != null) {
+                    indexUser(user);
+                }
+            }
+            if (loading) {
+                pendingUserIds.addAll(userIds);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void indexUser(User user) {
+        unindexUser(user.getId());
+        String[] terms = new String[]{user.getUserAccount(), user.getUserName()};
+        for (String term : terms) {
+            if (StrUtil.isNotBlank(term)) {
+                trie.add(normalize(term), user.getId());
+            }
+        }
+        indexedUsers.put(user.getId(), terms);
+    }
+
+    private void unindexUser(Long userId) {
+        String[] terms = indexedUsers.remove(userId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            if (StrUtil.isNotBlank(term)) {
+                trie.remove(normalize(term), userId);
+            }
+        }
+    }
+
+    /**
+     * 索引未就绪时使用数据库前缀查询（可以走 uk_userAccount、idx_userName 索引）
+     */
+    private List<UserSuggestionVO> suggestFromDatabase(String prefix, int limit) {
+        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "userAccount", "userName")
+                .and(wrapper -> wrapper.likeRight("userAccount", prefix).or().likeRight("userName", prefix));
+        return userMapper.selectPage(new Page<>(1, limit, false), queryWrapper).getRecords().stream()
+                .map(user -> new UserSuggestionVO(user.getId(), user.getUserAccount(), user.getUserName()))
+                .collect(Collectors.toList());
+    }
+
+    private static String normalize(String term) {
+        return term.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+}
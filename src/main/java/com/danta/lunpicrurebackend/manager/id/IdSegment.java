@@ -0,0 +1,36 @@
+package com.danta.lunpicrurebackend.manager.id;
+
+/**
+ * 一段已租用的 id，区间 [start, end)
+ */
+public class IdSegment {
+
+    private final long start;
+
+    private final long end;
+
+    public IdSegment(long start, long end) {
+        if (end <= start) {
+            throw new IllegalArgumentException("empty id segment: [" + start + ", " + end + ")");
+        }
+        this.start = start;
+        this.end = end;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public long size() {
+        return end - start;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + start + ", " + end + ")";
+    }
+}
@@ -0,0 +1,14 @@
+package com.danta.lunpicrurebackend.manager.id;
+
+/**
+ * 号段分配：每次调用租用一段此前从未分配过的 id（多实例之间也不重叠）
+ */
+@FunctionalInterface
+public interface IdSegmentAllocator {
+
+    /**
+     * @param bizTag 业务标识（表名）
+     * @return 新号段
+     */
+    IdSegment allocate(String bizTag);
+}
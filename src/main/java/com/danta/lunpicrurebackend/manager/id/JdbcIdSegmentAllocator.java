@@ -0,0 +1,83 @@
+package com.danta.lunpicrurebackend.manager.id;
+
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.danta.lunpicrurebackend.manager.DataSourceRoutingManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * 基于 id_segment 表的号段分配
+ * <p>
+ * 每次分配在主库上执行一条 update maxId = maxId + step，行锁保证多实例之间号段不重叠。
+ * 业务标识第一次使用时自动插入一行，起点为该表当前的最大 id，与已有数据衔接。
+ */
+@Slf4j
+public class JdbcIdSegmentAllocator implements IdSegmentAllocator {
+
+    private static final String UPDATE_SQL = "update id_segment set maxId = maxId + ? where bizTag = ?";
+
+    private static final String SELECT_SQL = "select maxId from id_segment where bizTag = ?";
+
+    private static final String INSERT_SQL = "insert into id_segment (bizTag, maxId) values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final DataSourceRoutingManager dataSourceRoutingManager;
+
+    private final ToIntFunction<String> stepOf;
+
+    public JdbcIdSegmentAllocator(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                  DataSourceRoutingManager dataSourceRoutingManager, ToIntFunction<String> stepOf) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.dataSourceRoutingManager = dataSourceRoutingManager;
+        this.stepOf = stepOf;
+    }
+
+    @Override
+    public IdSegment allocate(String bizTag) {
+        int step = stepOf.applyAsInt(bizTag);
+        if (step <= 0) {
+            throw new IllegalStateException("id segment step must be positive, bizTag = " + bizTag);
+        }
+        return dataSourceRoutingManager.onPrimary(() -> transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(UPDATE_SQL, step, bizTag) == 0) {
+                initSegmentRow(bizTag);
+                jdbcTemplate.update(UPDATE_SQL, step, bizTag);
+            }
+            Long maxId = jdbcTemplate.queryForObject(SELECT_SQL, Long.class, bizTag);
+            return new IdSegment(maxId - step + 1, maxId + 1);
+        }));
+    }
+
+    /**
+     * 插入号段行，起点为表中已有的最大 id；其他实例同时插入时以先插入的为准
+     */
+    private void initSegmentRow(String bizTag) {
+        long startId = currentMaxId(bizTag);
+        try {
+            jdbcTemplate.update(INSERT_SQL, bizTag, startId);
+            log.info("id segment initialized, bizTag = {}, maxId = {}", bizTag, startId);
+        } catch (DuplicateKeyException e) {
+            log.info("id segment already initialized by another instance, bizTag = {}", bizTag);
+        }
+    }
+
+    private long currentMaxId(String bizTag) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(bizTag);
+        if (tableInfo == null || tableInfo.getKeyColumn() == null) {
+            return 0;
+        }
+        // 表名、主键列名来自实体映射，不是外部输入
+        Long maxId = jdbcTemplate.queryForObject("select max(`" + tableInfo.getKeyColumn() + "`) from `"
+                + tableInfo.getTableName() + "`", Long.class);
+        return maxId == null ? 0 : maxId;
+    }
+}
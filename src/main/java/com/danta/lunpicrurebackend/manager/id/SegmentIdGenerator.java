@@ -0,0 +1,181 @@
+package com.danta.lunpicrurebackend.manager.id;
+
+import com.baomidou.mybatisplus.core.incrementer.IdentifierGenerator;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 号段 id 生成器
+ * <p>
+ * 每个业务标识（实体对应的表名）从 {@link IdSegmentAllocator} 租用一段 id，在内存中用 CAS 逐个发放；
+ * 当前号段剩余比例低于 prefetchRatio 时在后台线程预取下一段，用完时直接切换，插入不用等待分配。
+ * 预取失败或还没完成时由切换号段的线程同步分配（同一业务标识同一时刻只有一个线程在切换）。
+ * 实体主键使用 IdType.ASSIGN_ID 即可接入，MyBatis-Plus 按类型注入 {@link IdentifierGenerator}。
+ */
+@Slf4j
+public class SegmentIdGenerator implements IdentifierGenerator, Closeable {
+
+    private final IdSegmentAllocator allocator;
+
+    private final double prefetchRatio;
+
+    private final ThreadPoolExecutor prefetchExecutor;
+
+    private final Map<String, SegmentBuffer> buffers = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, String> bizTags = new ConcurrentHashMap<>();
+
+    /**
+     * @param allocator     号段分配
+     * @param prefetchRatio 当前号段剩余比例低于该值时预取下一段，取值 (0, 1]
+     */
+    public SegmentIdGenerator(IdSegmentAllocator allocator, double prefetchRatio) {
+        if (prefetchRatio <= 0 || prefetchRatio > 1) {
+            throw new IllegalArgumentException("prefetchRatio must be in (0, 1]");
+        }
+        this.allocator = allocator;
+        this.prefetchRatio = prefetchRatio;
+        // 预取任务按业务标识去重，排队数不会超过业务标识数
+        this.prefetchExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "id-segment-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Number nextId(Object entity) {
+        return nextId(bizTagOf(entity.getClass()));
+    }
+
+    /**
+     * 获取下一个 id
+     *
+     * @param bizTag 业务标识
+     * @return id，同一业务标识内唯一
+     */
+    public long nextId(String bizTag) {
+        SegmentBuffer buffer = buffers.get(bizTag);
+        if (buffer == null) {
+            buffer = buffers.computeIfAbsent(bizTag, SegmentBuffer::new);
+        }
+        while (true) {
+            Segment segment = buffer.current;
+            if (segment != null) {
+                long id = segment.next.getAndIncrement();
+                if (id < segment.end) {
+                    if (id >= segment.prefetchFrom && buffer.prefetch.get() == null) {
+                        prefetch(buffer);
+                    }
+                    return id;
+                }
+            }
+            switchSegment(buffer, segment);
+        }
+    }
+
+    @Override
+    public void close() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    private void prefetch(SegmentBuffer buffer) {
+        CompletableFuture<IdSegment> future = new CompletableFuture<>();
+        if (!buffer.prefetch.compareAndSet(null, future)) {
+            return;
+        }
+        try {
+            prefetchExecutor.execute(() -> {
+                try {
+                    future.complete(allocator.allocate(buffer.bizTag));
+                } catch (RuntimeException e) {
+                    log.warn("prefetch id segment failed, bizTag = {}", buffer.bizTag, e);
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 当前号段用完（或还没有号段）时切换到下一段：优先使用预取的号段，否则同步分配
+     */
+    private void switchSegment(SegmentBuffer buffer, Segment exhausted) {
+        synchronized (buffer) {
+            if (buffer.current != exhausted) {
+                // 其他线程已经切换过
+                return;
+            }
+            IdSegment idSegment = null;
+            CompletableFuture<IdSegment> future = buffer.prefetch.get();
+            if (future != null) {
+                try {
+                    idSegment = future.join();
+                } catch (CompletionException | CancellationException e) {
+                    // 预取失败，下面同步重试一次，仍然失败时异常抛给调用方
+                }
+            }
+            if (idSegment == null) {
+                idSegment = allocator.allocate(buffer.bizTag);
+            }
+            buffer.current = new Segment(idSegment, prefetchRatio);
+            buffer.prefetch.set(null);
+        }
+    }
+
+    private String bizTagOf(Class<?> entityClass) {
+        String bizTag = bizTags.get(entityClass);
+        if (bizTag == null) {
+            bizTag = bizTags.computeIfAbsent(entityClass, clazz -> {
+                TableInfo tableInfo = TableInfoHelper.getTableInfo(clazz);
+                if (tableInfo == null) {
+                    throw new IllegalStateException("not a table entity: " + clazz.getName());
+                }
+                return tableInfo.getTableName();
+            });
+        }
+        return bizTag;
+    }
+
+    private static class SegmentBuffer {
+
+        private final String bizTag;
+
+        private volatile Segment current;
+
+        /**
+         * 正在预取或已预取好的下一段，切换后清空
+         */
+        private final AtomicReference<CompletableFuture<IdSegment>> prefetch = new AtomicReference<>();
+
+        SegmentBuffer(String bizTag) {
+            this.bizTag = bizTag;
+        }
+    }
+
+    private static class Segment {
+
+        private final AtomicLong next;
+
+        private final long end;
+
+        /**
+         * 发放到该 id 时开始预取下一段
+         */
+        private final long prefetchFrom;
+
+        Segment(IdSegment idSegment, double prefetchRatio) {
+            this.next = new AtomicLong(idSegment.getStart());
+            this.end = idSegment.getEnd();
+            this.prefetchFrom = idSegment.getEnd() - (long) Math.ceil(idSegment.size() * prefetchRatio);
+        }
+    }
+}
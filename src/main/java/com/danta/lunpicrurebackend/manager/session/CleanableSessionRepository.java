@@ -0,0 +1,17 @@
+package com.danta.lunpicrurebackend.manager.session;
+
+import org.springframework.session.MapSession;
+import org.springframework.session.SessionRepository;
+
+/**
+ * 需要定时清理过期会话的存储
+ */
+public interface CleanableSessionRepository extends SessionRepository<MapSession> {
+
+    /**
+     * 清理过期会话
+     *
+     * @return 清理数量
+     */
+    int cleanUpExpiredSessions();
+}
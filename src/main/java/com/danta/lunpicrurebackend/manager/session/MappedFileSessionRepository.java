@@ -0,0 +1,472 @@
+package com.danta.lunpicrurebackend.manager.session;
+
+import com.danta.lunpicrurebackend.utils.LogRateLimiter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.session.MapSession;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于内存映射文件的会话存储，同一台机器上的多个实例映射同一个文件即可共享会话
+ * <p>
+ * 文件由固定大小的槽位组成，按会话 id 哈希到分段，段内线性探测；
+ * 读写某个分段时先加进程内锁，再对该分段的文件区域加文件锁，保证跨进程互斥。
+ * 分段已满（过期和已删除的槽位都会被复用）或会话超过槽位大小时，退化为存入进程内的溢出存储：
+ * 会话只在本实例可见，但登录等请求不会因此失败。
+ * <pre>
+ * 文件头（HEADER_SIZE 字节）：magic, segmentCount, slotsPerSegment, slotSize
+ * 槽位：state(1) | expireAt(8) | idLength(2) | id(MAX_ID_LENGTH) | dataLength(4) | data
+ * </pre>
+ */
+@Slf4j
+public class MappedFileSessionRepository implements CleanableSessionRepository, Closeable {
+
+    private static final int MAGIC = 0x4C505353;
+
+    private static final int HEADER_SIZE = 4096;
+
+    private static final int MAX_ID_LENGTH = 64;
+
+    private static final byte STATE_EMPTY = 0;
+
+    private static final byte STATE_USED = 1;
+
+    private static final byte STATE_DELETED = 2;
+
+    private static final int STATE_OFFSET = 0;
+
+    private static final int EXPIRE_OFFSET = 1;
+
+    private static final int ID_LENGTH_OFFSET = 9;
+
+    private static final int ID_OFFSET = 11;
+
+    private static final int DATA_LENGTH_OFFSET = ID_OFFSET + MAX_ID_LENGTH;
+
+    private static final int DATA_OFFSET = DATA_LENGTH_OFFSET + 4;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int segmentCount;
+
+    private final int slotsPerSegment;
+
+    private final int slotSize;
+
+    private final ReentrantLock[] segmentLocks;
+
+    private final Duration defaultMaxInactiveInterval;
+
+    /**
+     * 文件中放不下的会话
+     */
+    private final StripedMapSessionRepository overflow;
+
+    private final LogRateLimiter overflowLogLimiter = new LogRateLimiter(1, 60000);
+
+    /**
+     * 已经删除过的旧会话 id：MapSession 的 originalId 不可修改，id 变更后同一个会话对象再次保存时不再重复删除
+     */
+    private final Cache<String, Boolean> rotatedIds = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(1, TimeUnit.MINUTES)
+            .build();
+
+    public MappedFileSessionRepository(Path path, int segmentCount, int slotsPerSegment, int slotSize,
+                                       Duration defaultMaxInactiveInterval) throws IOException {
+        if (slotSize <= DATA_OFFSET) {
+            throw new IllegalArgumentException("slotSize must be greater than " + DATA_OFFSET);
+        }
+        long fileSize = HEADER_SIZE + (long) segmentCount * slotsPerSegment * slotSize;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("session file too large: " + fileSize);
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        this.segmentCount = segmentCount;
+        this.slotsPerSegment = slotsPerSegment;
+        this.slotSize = slotSize;
+        this.segmentLocks = new ReentrantLock[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segmentLocks[i] = new ReentrantLock();
+        }
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+        this.overflow = new StripedMapSessionRepository(16, defaultMaxInactiveInterval);
+        initHeader();
+    }
+
+    @Override
+    public MapSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return session;
+    }
+
+    @Override
+    public void save(MapSession session) {
+        // 会话 id 变更（防会话固定）时删除旧 id
+        if (!session.getId().equals(session.getOriginalId())
+                && rotatedIds.asMap().putIfAbsent(session.getOriginalId(), Boolean.TRUE) == null) {
+            deleteById(session.getOriginalId());
+        }
+        byte[] id = encodeId(session.getId());
+        byte[] data = serialize(session);
+        int segment = segmentOf(session.getId());
+        boolean stored = DATA_OFFSET + data.length <= slotSize && withSegmentLock(segment, () -> {
+            int slot = findSlot(segment, id);
+            if (slot < 0) {
+                slot = findFreeSlot(segment, id);
+            }
+            if (slot < 0) {
+                return false;
+            }
+            long expireAt = session.getLastAccessedTime().plus(session.getMaxInactiveInterval()).toEpochMilli();
+            writeSlot(slot, id, expireAt, data);
+            return true;
+        });
+        if (stored) {
+            overflow.deleteById(session.getId());
+            return;
+        }
+        overflow.save(session);
+        if (overflowLogLimiter.tryAcquire()) {
+            log.warn("session stored in memory only, segment = {}, size = {} bytes, slot size = {}, suppressed = {}",
+                    segment, data.length, slotSize, overflowLogLimiter.drainSuppressed());
+        }
+    }
+
+    @Override
+    public MapSession findById(String id) {
+        byte[] encodedId = encodeId(id);
+        int segment = segmentOf(id);
+        byte[] data = withSegmentLock(segment, () -> {
+            int slot = findSlot(segment, encodedId);
+            if (slot < 0) {
+                return null;
+            }
+            int position = slotPosition(slot);
+            if (buffer.getLong(position + EXPIRE_OFFSET) <= System.currentTimeMillis()) {
+                buffer.put(position + STATE_OFFSET, STATE_DELETED);
+                return null;
+            }
+            byte[] bytes = new byte[buffer.getInt(position + DATA_LENGTH_OFFSET)];
+            ByteBuffer view = buffer.duplicate();
+            view.position(position + DATA_OFFSET);
+            view.get(bytes);
+            return bytes;
+        });
+        return data == null ? overflow.findById(id) : deserialize(id, data);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        byte[] encodedId = encodeId(id);
+        int segment = segmentOf(id);
+        withSegmentLock(segment, () -> {
+            int slot = findSlot(segment, encodedId);
+            if (slot >= 0) {
+                buffer.put(slotPosition(slot) + STATE_OFFSET, STATE_DELETED);
+            }
+            return null;
+        });
+        overflow.deleteById(id);
+    }
+
+    /**
+     * 逐段加锁清理，清理期间其他分段可正常读写
+     * <p>
+     * 过期会话先标记为已删除，随后回收该段的删除标记，避免探测链随会话更替无限变长。
+     */
+    @Override
+    public int cleanUpExpiredSessions() {
+        int removed = overflow.cleanUpExpiredSessions();
+        for (int segment = 0; segment < segmentCount; segment++) {
+            int currentSegment = segment;
+            removed += withSegmentLock(segment, () -> {
+                long now = System.currentTimeMillis();
+                int count = 0;
+                int firstSlot = currentSegment * slotsPerSegment;
+                for (int slot = firstSlot; slot < firstSlot + slotsPerSegment; slot++) {
+                    int position = slotPosition(slot);
+                    if (buffer.get(position + STATE_OFFSET) == STATE_USED
+                            && buffer.getLong(position + EXPIRE_OFFSET) <= now) {
+                        buffer.put(position + STATE_OFFSET, STATE_DELETED);
+                        count++;
+                    }
+                }
+                reclaimDeletedSlots(currentSegment);
+                return count;
+            });
+        }
+        return removed;
+    }
+
+    /**
+     * 空槽位数量
+     */
+    int countEmptySlots() {
+        int empty = 0;
+        for (int segment = 0; segment < segmentCount; segment++) {
+            int currentSegment = segment;
+            empty += withSegmentLock(segment, () -> countState(currentSegment, STATE_EMPTY));
+        }
+        return empty;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void initHeader() throws IOException {
+        try (FileLock ignored = channel.lock(0, HEADER_SIZE, false)) {
+            int magic = buffer.getInt(0);
+            if (magic == 0) {
+                buffer.putInt(4, segmentCount);
+                buffer.putInt(8, slotsPerSegment);
+                buffer.putInt(12, slotSize);
+                buffer.putInt(0, MAGIC);
+                return;
+            }
+            // 多个实例共享同一个文件时布局必须一致
+            if (magic != MAGIC || buffer.getInt(4) != segmentCount || buffer.getInt(8) != slotsPerSegment
+                    || buffer.getInt(12) != slotSize) {
+                throw new IllegalStateException("session file layout does not match configuration");
+            }
+        }
+    }
+
+    /**
+     * 在段内查找会话 id 所在槽位，遇到空槽停止
+     */
+    private int findSlot(int segment, byte[] id) {
+        int start = Math.floorMod(hashOf(id), slotsPerSegment);
+        for (int i = 0; i < slotsPerSegment; i++) {
+            int slot = segment * slotsPerSegment + (start + i) % slotsPerSegment;
+            int position = slotPosition(slot);
+            byte state = buffer.get(position + STATE_OFFSET);
+            if (state == STATE_EMPTY) {
+                return -1;
+            }
+            if (state == STATE_USED && idEquals(position, id)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 按与查找相同的探测顺序寻找可写入的槽位：空槽、已删除或已过期的槽
+     */
+    private int findFreeSlot(int segment, byte[] id) {
+        long now = System.currentTimeMillis();
+        int start = Math.floorMod(hashOf(id), slotsPerSegment);
+        for (int i = 0; i < slotsPerSegment; i++) {
+            int slot = segment * slotsPerSegment + (start + i) % slotsPerSegment;
+            int position = slotPosition(slot);
+            if (buffer.get(position + STATE_OFFSET) != STATE_USED || buffer.getLong(position + EXPIRE_OFFSET) <= now) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 回收段内的删除标记（调用方持有分段锁）
+     * <p>
+     * 查找遇到空槽即停止，所以紧挨在空槽之前的连续删除标记不在任何探测链上，可以直接置空；
+     * 剩余的删除标记超过一半（或段内已没有空槽）时，按探测顺序重新放置段内的全部会话。
+     */
+    private void reclaimDeletedSlots(int segment) {
+        int firstSlot = segment * slotsPerSegment;
+        for (int i = 0; i < slotsPerSegment; i++) {
+            if (buffer.get(slotPosition(firstSlot + i) + STATE_OFFSET) != STATE_EMPTY) {
+                continue;
+            }
+            // 从空槽向前（逆探测方向）清除连续的删除标记
+            for (int j = 1; j < slotsPerSegment; j++) {
+                int position = slotPosition(firstSlot + Math.floorMod(i - j, slotsPerSegment));
+                if (buffer.get(position + STATE_OFFSET) != STATE_DELETED) {
+                    break;
+                }
+                buffer.put(position + STATE_OFFSET, STATE_EMPTY);
+            }
+        }
+        int deleted = countState(segment, STATE_DELETED);
+        if (deleted > 0 && (deleted * 2 > slotsPerSegment || countState(segment, STATE_EMPTY) == 0)) {
+            rehashSegment(segment);
+        }
+    }
+
+    /**
+     * 把段内的会话读出后清空整段，再按探测顺序依次写回，写回后段内不再有删除标记
+     */
+    private void rehashSegment(int segment) {
+        int firstSlot = segment * slotsPerSegment;
+        List<byte[]> slots = new ArrayList<>();
+        for (int slot = firstSlot; slot < firstSlot + slotsPerSegment; slot++) {
+            int position = slotPosition(slot);
+            if (buffer.get(position + STATE_OFFSET) == STATE_USED) {
+                byte[] raw = new byte[slotSize];
+                ByteBuffer view = buffer.duplicate();
+                view.position(position);
+                view.get(raw);
+                slots.add(raw);
+            }
+        }
+        for (int slot = firstSlot; slot < firstSlot + slotsPerSegment; slot++) {
+            buffer.put(slotPosition(slot) + STATE_OFFSET, STATE_EMPTY);
+        }
+        for (byte[] raw : slots) {
+            byte[] id = Arrays.copyOfRange(raw, ID_OFFSET,
+                    ID_OFFSET + ByteBuffer.wrap(raw, ID_LENGTH_OFFSET, 2).getShort());
+            int start = Math.floorMod(hashOf(id), slotsPerSegment);
+            for (int i = 0; i < slotsPerSegment; i++) {
+                int position = slotPosition(firstSlot + (start + i) % slotsPerSegment);
+                if (buffer.get(position + STATE_OFFSET) == STATE_EMPTY) {
+                    ByteBuffer view = buffer.duplicate();
+                    view.position(position + EXPIRE_OFFSET);
+                    view.put(raw, EXPIRE_OFFSET, slotSize - EXPIRE_OFFSET);
+                    buffer.put(position + STATE_OFFSET, STATE_USED);
+                    break;
+                }
+            }
+        }
+    }
+
+    private int countState(int segment, byte state) {
+        int count = 0;
+        int firstSlot = segment * slotsPerSegment;
+        for (int slot = firstSlot; slot < firstSlot + slotsPerSegment; slot++) {
+            if (buffer.get(slotPosition(slot) + STATE_OFFSET) == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void writeSlot(int slot, byte[] id, long expireAt, byte[] data) {
+        int position = slotPosition(slot);
+        ByteBuffer view = buffer.duplicate();
+        view.position(position + EXPIRE_OFFSET);
+        view.putLong(expireAt);
+        view.putShort((short) id.length);
+        view.put(id);
+        view.position(position + DATA_LENGTH_OFFSET);
+        view.putInt(data.length);
+        view.put(data);
+        // 最后写状态，其他进程看到 USED 时数据已经完整
+        buffer.put(position + STATE_OFFSET, STATE_USED);
+    }
+
+    private boolean idEquals(int position, byte[] id) {
+        if (buffer.getShort(position + ID_LENGTH_OFFSET) != id.length) {
+            return false;
+        }
+        for (int i = 0; i < id.length; i++) {
+            if (buffer.get(position + ID_OFFSET + i) != id[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private <T> T withSegmentLock(int segment, IoAction<T> action) {
+        ReentrantLock lock = segmentLocks[segment];
+        lock.lock();
+        try (FileLock ignored = channel.lock(slotPosition(segment * slotsPerSegment),
+                (long) slotsPerSegment * slotSize, false)) {
+            return action.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int slotPosition(int slot) {
+        return HEADER_SIZE + slot * slotSize;
+    }
+
+    private int segmentOf(String id) {
+        return Math.floorMod(id.hashCode(), segmentCount);
+    }
+
+    private static int hashOf(byte[] id) {
+        int hash = 0;
+        for (byte b : id) {
+            hash = 31 * hash + b;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static byte[] encodeId(String id) {
+        byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("session id too long");
+        }
+        return bytes;
+    }
+
+    private static byte[] serialize(MapSession session) {
+        Map<String, Object> attributes = new HashMap<>();
+        for (String name : session.getAttributeNames()) {
+            attributes.put(name, session.getAttribute(name));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+            objectOut.writeLong(session.getCreationTime().toEpochMilli());
+            objectOut.writeLong(session.getLastAccessedTime().toEpochMilli());
+            objectOut.writeLong(session.getMaxInactiveInterval().getSeconds());
+            objectOut.writeObject(attributes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MapSession deserialize(String id, byte[] data) {
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            MapSession session = new MapSession(id);
+            session.setCreationTime(Instant.ofEpochMilli(objectIn.readLong()));
+            session.setLastAccessedTime(Instant.ofEpochMilli(objectIn.readLong()));
+            session.setMaxInactiveInterval(Duration.ofSeconds(objectIn.readLong()));
+            ((Map<String, Object>) objectIn.readObject()).forEach(session::setAttribute);
+            return session;
+        } catch (IOException | ClassNotFoundException e) {
+            log.warn("deserialize session failed, id = {}", id, e);
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface IoAction<T> {
+        T run() throws IOException;
+    }
+}
@@ -0,0 +1,129 @@
+package com.danta.lunpicrurebackend.manager.session;
+
+import org.springframework.session.MapSession;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 内存会话存储
+ * <p>
+ * 按会话 id 分成多个分段，每段一把锁；过期清理逐段进行，不会长时间阻塞读写。
+ */
+public class StripedMapSessionRepository implements CleanableSessionRepository {
+
+    private final Map<String, MapSession>[] stripes;
+
+    private final ReentrantLock[] locks;
+
+    private final Duration defaultMaxInactiveInterval;
+
+    @SuppressWarnings("unchecked")
+    public StripedMapSessionRepository(int stripeCount, Duration defaultMaxInactiveInterval) {
+        // 分段数取 2 的幂，便于按位取模
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Map[size];
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new HashMap<>();
+            locks[i] = new ReentrantLock();
+        }
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+    }
+
+    @Override
+    public MapSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return session;
+    }
+
+    @Override
+    public void save(MapSession session) {
+        // 会话 id 变更（防会话固定）时删除旧 id
+        if (!session.getId().equals(session.getOriginalId())) {
+            deleteById(session.getOriginalId());
+        }
+        int index = indexOf(session.getId());
+        locks[index].lock();
+        try {
+            stripes[index].put(session.getId(), new MapSession(session));
+        } finally {
+            locks[index].unlock();
+        }
+    }
+
+    @Override
+    public MapSession findById(String id) {
+        int index = indexOf(id);
+        locks[index].lock();
+        try {
+            MapSession saved = stripes[index].get(id);
+            if (saved == null) {
+                return null;
+            }
+            if (saved.isExpired()) {
+                stripes[index].remove(id);
+                return null;
+            }
+            return new MapSession(saved);
+        } finally {
+            locks[index].unlock();
+        }
+    }
+
+    @Override
+    public void deleteById(String id) {
+        int index = indexOf(id);
+        locks[index].lock();
+        try {
+            stripes[index].remove(id);
+        } finally {
+            locks[index].unlock();
+        }
+    }
+
+    @Override
+    public int cleanUpExpiredSessions() {
+        int removed = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            locks[i].lock();
+            try {
+                Iterator<MapSession> iterator = stripes[i].values().iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().isExpired()) {
+                        iterator.remove();
+                        removed++;
+                    }
+                }
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 当前会话数
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            locks[i].lock();
+            try {
+                size += stripes[i].size();
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return size;
+    }
+
+    private int indexOf(String id) {
+        int hash = id.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
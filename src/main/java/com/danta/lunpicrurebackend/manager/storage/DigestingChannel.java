@@ -0,0 +1,89 @@
+package com.danta.lunpicrurebackend.manager.storage;
+
+import com.danta.lunpicrurebackend.exception.BusinessException;
+import com.danta.lunpicrurebackend.exception.ErrorCode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+
+/**
+ * 读取时同步计算摘要并限制总字节数的通道
+ * <p>
+ * 摘要直接在调用方的缓冲区上计算，不额外复制数据。
+ */
+public class DigestingChannel implements ReadableByteChannel {
+
+    private final ReadableByteChannel delegate;
+
+    private final MessageDigest digest;
+
+    private final long maxBytes;
+
+    private long count;
+
+    private boolean eof;
+
+    public DigestingChannel(ReadableByteChannel delegate, MessageDigest digest, long maxBytes) {
+        this.delegate = delegate;
+        this.digest = digest;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int start = dst.position();
+        int read = delegate.read(dst);
+        if (read < 0) {
+            eof = true;
+            return read;
+        }
+        count += read;
+        if (count > maxBytes) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "文件大小不能超过 " + maxBytes / 1024 / 1024 + "MB");
+        }
+        ByteBuffer view = dst.duplicate();
+        view.limit(start + read);
+        view.position(start);
+        digest.update(view);
+        return read;
+    }
+
+    /**
+     * 是否已读到末尾
+     */
+    public boolean isEof() {
+        return eof;
+    }
+
+    /**
+     * 已读取的字节数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 摘要（小写十六进制），只能在读完后调用一次
+     */
+    public String digestHex() {
+        byte[] bytes = digest.digest();
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = Character.forDigit((bytes[i] >> 4) & 0xF, 16);
+            hex[i * 2 + 1] = Character.forDigit(bytes[i] & 0xF, 16);
+        }
+        return new String(hex);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return delegate.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
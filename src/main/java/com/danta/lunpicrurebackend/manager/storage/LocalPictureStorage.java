@@ -0,0 +1,112 @@
+package com.danta.lunpicrurebackend.manager.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.regex.Pattern;
+
+/**
+ * 本地文件系统存储
+ * <p>
+ * 上传内容通过 {@link FileChannel#transferFrom} 写入 root/tmp 下的临时文件，不在堆上缓存整个文件；
+ * 提交时按 root/&lt;哈希前两位&gt;/&lt;哈希&gt;.&lt;扩展名&gt; 原子重命名，目标已存在说明内容相同，直接删除临时文件。
+ * 临时目录与存储目录在同一文件系统上，重命名不复制数据。
+ */
+@Slf4j
+public class LocalPictureStorage implements PictureStorage {
+
+    /**
+     * 每次 transferFrom 的最大字节数
+     */
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{2}/[0-9a-f]{64}\\.[a-z0-9]{1,8}");
+
+    private final Path root;
+
+    private final Path tempDir;
+
+    public LocalPictureStorage(Path root) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        this.tempDir = this.root.resolve("tmp");
+        Files.createDirectories(tempDir);
+    }
+
+    @Override
+    public StagedObject stage(ReadableByteChannel source, long maxBytes) throws IOException {
+        DigestingChannel digestingChannel = new DigestingChannel(source, sha256(), maxBytes);
+        Path tempFile = Files.createTempFile(tempDir, "upload-", ".tmp");
+        boolean staged = false;
+        try (FileChannel target = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+            long position = 0;
+            while (!digestingChannel.isEof()) {
+                position += target.transferFrom(digestingChannel, position, TRANSFER_CHUNK);
+            }
+            staged = true;
+            return new StagedObject(tempFile, position, digestingChannel.digestHex());
+        } finally {
+            if (!staged) {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+
+    @Override
+    public StoredObject commit(StagedObject stagedObject, String extension) throws IOException {
+        String sha256 = stagedObject.getSha256();
+        String key = sha256.substring(0, 2) + "/" + sha256 + "." + extension;
+        Path target = resolve(key);
+        if (Files.exists(target)) {
+            stagedObject.close();
+            return new StoredObject(key, stagedObject.getSize(), sha256, true);
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(stagedObject.getPath(), target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // 并发上传了相同内容
+            stagedObject.close();
+            return new StoredObject(key, stagedObject.getSize(), sha256, true);
+        }
+        return new StoredObject(key, stagedObject.getSize(), sha256, false);
+    }
+
+    @Override
+    public ReadableByteChannel open(String key) throws IOException {
+        Path path = localPath(key);
+        return path == null ? null : FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    @Override
+    public Path localPath(String key) {
+        if (!isValidKey(key)) {
+            return null;
+        }
+        Path path = resolve(key);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    /**
+     * key 只能是提交时生成的格式，防止路径穿越
+     */
+    public static boolean isValidKey(String key) {
+        return key != null && KEY_PATTERN.matcher(key).matches();
+    }
+
+    private Path resolve(String key) {
+        return root.resolve(key);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.danta.lunpicrurebackend.manager.storage;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * 图片文件存储
+ * <p>
+ * 上传分两步：{@link #stage} 把上传内容写入本地临时文件，边写边计算 SHA-256，调用方可以在临时文件上校验内容；
+ * {@link #commit} 按内容哈希保存，内容相同的文件只保存一份。文件的 key 由内容决定，写入后不再变化。
+ */
+public interface PictureStorage {
+
+    /**
+     * 暂存上传内容
+     *
+     * @param source   上传内容
+     * @param maxBytes 最大字节数，超过时抛出参数错误
+     * @return 暂存的文件，未提交时关闭即删除
+     * @throws IOException 读取或写入失败
+     */
+    StagedObject stage(ReadableByteChannel source, long maxBytes) throws IOException;
+
+    /**
+     * 提交暂存的文件，已有相同内容时直接复用
+     *
+     * @param stagedObject 暂存的文件
+     * @param extension    扩展名（不含点）
+     * @return 保存结果
+     * @throws IOException 写入失败
+     */
+    StoredObject commit(StagedObject stagedObject, String extension) throws IOException;
+
+    /**
+     * 读取文件
+     *
+     * @param key 文件 key
+     * @return 文件内容，不存在时返回 null
+     * @throws IOException 读取失败
+     */
+    ReadableByteChannel open(String key) throws IOException;
+
+    /**
+     * 文件在本机上的路径（用于零拷贝发送），非本地存储或文件不存在时返回 null
+     */
+    default Path localPath(String key) {
+        return null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.danta.lunpicrurebackend.manager.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 暂存的上传文件（本地临时文件），关闭时删除未提交的临时文件
+ */
+public class StagedObject implements AutoCloseable {
+
+    private final Path path;
+
+    private final long size;
+
+    private final String sha256;
+
+    public StagedObject(Path path, long size, String sha256) {
+        this.path = path;
+        this.size = size;
+        this.sha256 = sha256;
+    }
+
+    /**
+     * 临时文件路径，提交前可以用来校验内容
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * 内容 SHA-256（小写十六进制）
+     */
+    public String getSha256() {
+        return sha256;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,27 @@
+package com.danta.lunpicrurebackend.manager.storage;
+
+import lombok.Data;
+
+/**
+ * 已保存的文件
+ */
+@Data
+public class StoredObject {
+
+    /**
+     * 文件 key（由内容哈希和扩展名组成）
+     */
+    private final String key;
+
+    private final long size;
+
+    /**
+     * 内容 SHA-256（小写十六进制）
+     */
+    private final String sha256;
+
+    /**
+     * 是否复用了已有的相同内容（没有写入新文件）
+     */
+    private final boolean deduplicated;
+}
@@ -0,0 +1,440 @@
+package com.danta.lunpicrurebackend.manager.thumbnail;
+
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.danta.lunpicrurebackend.config.ThumbnailProperties;
+import com.danta.lunpicrurebackend.manager.MetricsManager;
+import com.danta.lunpicrurebackend.manager.storage.PictureStorage;
+import com.danta.lunpicrurebackend.manager.storage.StagedObject;
+import com.danta.lunpicrurebackend.manager.storage.StoredObject;
+import com.danta.lunpicrurebackend.mapper.PictureMapper;
+import com.danta.lunpicrurebackend.model.entity.Picture;
+import com.danta.lunpicrurebackend.utils.ImageResizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.*;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缩略图生成
+ * <p>
+ * 上传完成后提交任务即返回，由四个阶段的流水线异步生成各尺寸的图片：
+ * 解码（按需降采样读取）→ 缩放（大图分块在 ForkJoinPool 中并行）→ 编码 → 保存（写入存储并更新 derivatives）。
+ * 每个阶段有自己的有界队列和线程池，指标见 {@link PipelineStage}。
+ * 解码后的像素占内存最多（降采样取整后最长边可达最大尺寸的 4 倍），驻留内存的解码像素总数受
+ * {@link ThumbnailProperties#getDecodedPixelBudget()} 限制：解码前按降采样后的尺寸预占，缩放完成后释放，
+ * 预算不足时解码线程等待，与各阶段的线程数和队列容量无关（解码线程内格式转换的临时副本不计入）。
+ * 生成结果按内容哈希共享：相同内容的图片已经生成过时直接复用，不再解码。
+ */
+@Slf4j
+@Component
+public class PictureThumbnailManager {
+
+    private final PictureStorage pictureStorage;
+
+    private final PictureMapper pictureMapper;
+
+    private final ThumbnailProperties thumbnailProperties;
+
+    private final String urlPrefix;
+
+    private final int maxSide;
+
+    private final ForkJoinPool resizePool;
+
+    private final ImageResizer imageResizer;
+
+    private final LongAdder rejectedCounter;
+
+    private final int decodedPixelBudget;
+
+    /**
+     * 解码像素预算，单位为像素
+     */
+    private final Semaphore decodedPixels;
+
+    private final PipelineStage<ThumbnailJob, DecodedPicture> decodeStage;
+
+    private final List<PipelineStage<?, ?>> stages = new ArrayList<>();
+
+    public PictureThumbnailManager(PictureStorage pictureStorage, PictureMapper pictureMapper,
+                                   ThumbnailProperties thumbnailProperties, MetricsManager metricsManager,
+                                   @Value("${lun-picture.storage.url-prefix:/api/picture/file/}") String urlPrefix) {
+        this.pictureStorage = pictureStorage;
+        this.pictureMapper = pictureMapper;
+        this.thumbnailProperties = thumbnailProperties;
+        this.urlPrefix = urlPrefix;
+        this.maxSide = thumbnailProperties.getSizes().values().stream().max(Integer::compare).orElse(0);
+        int threads = thumbnailProperties.getThreads() > 0
+                ? thumbnailProperties.getThreads() : Runtime.getRuntime().availableProcessors();
+        this.resizePool = new ForkJoinPool(threads);
+        this.imageResizer = new ImageResizer(resizePool, thumbnailProperties.getTilePixels());
+        this.rejectedCounter = metricsManager.counter("thumbnail.rejected");
+        this.decodedPixelBudget = thumbnailProperties.getDecodedPixelBudget();
+        this.decodedPixels = new Semaphore(decodedPixelBudget, true);
+        metricsManager.gauge("thumbnail.decoded.pixels", () -> decodedPixelBudget - decodedPixels.availablePermits());
+        int bufferCapacity = thumbnailProperties.getBufferCapacity();
+        this.decodeStage = new PipelineStage<>("decode", threads, thumbnailProperties.getQueueCapacity(), false,
+                this::decode, metricsManager);
+        PipelineStage<DecodedPicture, ResizedPicture> resizeStage = new PipelineStage<>("resize", threads,
+                bufferCapacity, true, this::resize, metricsManager);
+        PipelineStage<ResizedPicture, EncodedPicture> encodeStage = new PipelineStage<>("encode", threads,
+                bufferCapacity, true, this::encode, metricsManager);
+        PipelineStage<EncodedPicture, Void> persistStage = new PipelineStage<>("persist", threads,
+                bufferCapacity, true, this::persist, metricsManager);
+        decodeStage.then(resizeStage).then(encodeStage).then(persistStage);
+        stages.addAll(Arrays.asList(decodeStage, resizeStage, encodeStage, persistStage));
+        log.info("thumbnail pipeline started, sizes = {}, threads per stage = {}",
+                thumbnailProperties.getSizes(), threads);
+    }
+
+    /**
+     * 提交缩略图任务，不等待生成；队列已满时放弃并计数（不影响上传）
+     *
+     * @param pictureId   图片 id
+     * @param key         原图在存储中的 key
+     * @param contentHash 原图内容 SHA-256
+     * @return 是否已提交
+     */
+    public boolean submit(long pictureId, String key, String contentHash) {
+        if (!thumbnailProperties.isEnabled() || maxSide <= 0) {
+            return false;
+        }
+        boolean submitted = decodeStage.submit(new ThumbnailJob(pictureId, key, contentHash));
+        if (!submitted) {
+            rejectedCounter.increment();
+            log.warn("thumbnail queue is full, skip picture {}", pictureId);
+        }
+        return submitted;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        stages.forEach(PipelineStage::shutdown);
+        resizePool.shutdownNow();
+    }
+
+    /**
+     * 解码：相同内容已生成过时直接复用；原图比最大尺寸大很多时降采样读取，减少解码耗时和内存
+     */
+    private DecodedPicture decode(ThumbnailJob job) {
+        Picture generated = pictureMapper.selectOne(new QueryWrapper<Picture>().select("derivatives")
+                .eq("contentHash", job.contentHash).isNotNull("derivatives").last("limit 1"));
+        if (generated != null) {
+            saveDerivatives(job, generated.getDerivatives());
+            return null;
+        }
+        try (ImageInputStream imageInputStream = openImage(job.key)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) {
+                throw new IllegalStateException("no image reader");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > thumbnailProperties.getMaxPixels()) {
+                    throw new IllegalStateException("image too large: " + width + "x" + height);
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                // 降采样后最长边仍不小于最大尺寸的 2 倍，保证缩放质量
+                int subsampling = Math.max(1, Math.max(width, height) / (2 * maxSide));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                int permits = acquireDecodedPixels((long) ((width + subsampling - 1) / subsampling)
+                        * ((height + subsampling - 1) / subsampling));
+                boolean handedOff = false;
+                try {
+                    BufferedImage image = toIntImage(reader.read(0, param));
+                    int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+                    DecodedPicture decoded = new DecodedPicture(job, pixels, image.getWidth(), image.getHeight(),
+                            width, height, image.getType() == BufferedImage.TYPE_INT_ARGB, permits);
+                    handedOff = true;
+                    return decoded;
+                } finally {
+                    if (!handedOff) {
+                        decodedPixels.release(permits);
+                    }
+                }
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 缩放：按配置的每个尺寸等比缩小，原图不超过该尺寸的不生成
+     */
+    private ResizedPicture resize(DecodedPicture decoded) {
+        Map<String, Rendition> renditions = new LinkedHashMap<>();
+        try {
+            thumbnailProperties.getSizes().forEach((sizeName, side) -> {
+                int[] target = ImageResizer.fitWithin(decoded.originalWidth, decoded.originalHeight, side);
+                if (target[0] == decoded.originalWidth && target[1] == decoded.originalHeight) {
+                    return;
+                }
+                int width = Math.min(target[0], decoded.width);
+                int height = Math.min(target[1], decoded.height);
+                int[] pixels = imageResizer.resize(decoded.pixels, decoded.width, decoded.height, width, height);
+                renditions.put(sizeName, new Rendition(pixels, width, height, null));
+            });
+        } finally {
+            // 缩放结束后不再引用解码像素
+            decodedPixels.release(decoded.permits);
+        }
+        return new ResizedPicture(decoded.job, renditions, decoded.alpha);
+    }
+
+    /**
+     * 编码：不透明的图片编码为 JPEG，带透明通道的编码为 PNG
+     */
+    private EncodedPicture encode(ResizedPicture resized) {
+        String extension = resized.alpha ? "png" : "jpg";
+        Map<String, Rendition> encoded = new LinkedHashMap<>();
+        resized.renditions.forEach((sizeName, rendition) -> {
+            BufferedImage image = new BufferedImage(rendition.width, rendition.height,
+                    resized.alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            image.getRaster().setDataElements(0, 0, rendition.width, rendition.height, rendition.pixels);
+            encoded.put(sizeName, new Rendition(null, rendition.width, rendition.height,
+                    writeImage(image, extension)));
+        });
+        return new EncodedPicture(resized.job, encoded, extension);
+    }
+
+    /**
+     * 保存：写入存储（按内容去重），更新所有相同内容的图片的 derivatives
+     */
+    private Void persist(EncodedPicture encoded) {
+        Map<String, String> derivatives = new LinkedHashMap<>();
+        for (String sizeName : thumbnailProperties.getSizes().keySet()) {
+            Rendition rendition = encoded.renditions.get(sizeName);
+            if (rendition == null) {
+                // 原图不超过该尺寸，直接使用原图
+                derivatives.put(sizeName, urlPrefix + encoded.job.key);
+                continue;
+            }
+            try (StagedObject stagedObject = pictureStorage.stage(
+                    Channels.newChannel(new ByteArrayInputStream(rendition.bytes)), Long.MAX_VALUE)) {
+                StoredObject storedObject = pictureStorage.commit(stagedObject, encoded.extension);
+                derivatives.put(sizeName, urlPrefix + storedObject.getKey());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        saveDerivatives(encoded.job, JSONUtil.toJsonStr(derivatives));
+        return null;
+    }
+
+    private void saveDerivatives(ThumbnailJob job, String derivatives) {
+        int updated = pictureMapper.update(null, new UpdateWrapper<Picture>().set("derivatives", derivatives)
+                .eq("contentHash", job.contentHash).isNull("derivatives"));
+        log.debug("thumbnails saved for picture {}, updated rows = {}", job.pictureId, updated);
+    }
+
+    /**
+     * 预占解码像素，超过整个预算的单张图片按整个预算计算（独占预算，不会永远等待）
+     *
+     * @return 实际预占的数量，释放时使用
+     */
+    private int acquireDecodedPixels(long pixels) {
+        int permits = (int) Math.min(pixels, decodedPixelBudget);
+        try {
+            decodedPixels.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for decode budget", e);
+        }
+        return permits;
+    }
+
+    private ImageInputStream openImage(String key) throws IOException {
+        Path path = pictureStorage.localPath(key);
+        if (path != null) {
+            return ImageIO.createImageInputStream(path.toFile());
+        }
+        ReadableByteChannel channel = pictureStorage.open(key);
+        if (channel == null) {
+            throw new IllegalStateException("picture file not found: " + key);
+        }
+        return new MemoryCacheImageInputStream(Channels.newInputStream(channel));
+    }
+
+    /**
+     * 转换为 int 像素的图片（TYPE_INT_RGB / TYPE_INT_ARGB），缩放直接读写像素数组
+     */
+    private static BufferedImage toIntImage(BufferedImage image) {
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        if (image.getType() == type) {
+            return image;
+        }
+        BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), type);
+        Graphics2D graphics = converted.createGraphics();
+        try {
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return converted;
+    }
+
+    private byte[] writeImage(BufferedImage image, String extension) {
+        ImageWriter writer = ImageIO.getImageWritersBySuffix(extension).next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        try (MemoryCacheImageOutputStream imageOutputStream = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(imageOutputStream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if ("jpg".equals(extension)) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(thumbnailProperties.getQuality());
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static class ThumbnailJob {
+
+        private final long pictureId;
+
+        private final String key;
+
+        private final String contentHash;
+
+        ThumbnailJob(long pictureId, String key, String contentHash) {
+            this.pictureId = pictureId;
+            this.key = key;
+            this.contentHash = contentHash;
+        }
+
+        @Override
+        public String toString() {
+            return "picture " + pictureId + " (" + key + ")";
+        }
+    }
+
+    private static class DecodedPicture {
+
+        private final ThumbnailJob job;
+
+        private final int[] pixels;
+
+        private final int width;
+
+        private final int height;
+
+        private final int originalWidth;
+
+        private final int originalHeight;
+
+        private final boolean alpha;
+
+        /**
+         * 预占的解码像素
+         */
+        private final int permits;
+
+        DecodedPicture(ThumbnailJob job, int[] pixels, int width, int height, int originalWidth, int originalHeight,
+                       boolean alpha, int permits) {
+            this.job = job;
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+            this.originalWidth = originalWidth;
+            this.originalHeight = originalHeight;
+            this.alpha = alpha;
+            this.permits = permits;
+        }
+
+        @Override
+        public String toString() {
+            return job.toString();
+        }
+    }
+
+    /**
+     * 一个尺寸的结果：缩放后为像素，编码后为字节
+     */
+    private static class Rendition {
+
+        private final int[] pixels;
+
+        private final int width;
+
+        private final int height;
+
+        private final byte[] bytes;
+
+        Rendition(int[] pixels, int width, int height, byte[] bytes) {
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+            this.bytes = bytes;
+        }
+    }
+
+    private static class ResizedPicture {
+
+        private final ThumbnailJob job;
+
+        private final Map<String, Rendition> renditions;
+
+        private final boolean alpha;
+
+        ResizedPicture(ThumbnailJob job, Map<String, Rendition> renditions, boolean alpha) {
+            this.job = job;
+            this.renditions = renditions;
+            this.alpha = alpha;
+        }
+
+        @Override
+        public String toString() {
+            return job.toString();
+        }
+    }
+
+    private static class EncodedPicture {
+
+        private final ThumbnailJob job;
+
+        private final Map<String, Rendition> renditions;
+
+        private final String extension;
+
+        EncodedPicture(ThumbnailJob job, Map<String, Rendition> renditions, String extension) {
+            this.job = job;
+            this.renditions = renditions;
+            this.extension = extension;
+        }
+
+        @Override
+        public String toString() {
+            return job.toString();
+        }
+    }
+}
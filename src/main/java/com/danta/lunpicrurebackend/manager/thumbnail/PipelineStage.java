@@ -0,0 +1,127 @@
+package com.danta.lunpicrurebackend.manager.thumbnail;
+
+import com.danta.lunpicrurebackend.manager.MetricsManager;
+import com.danta.lunpicrurebackend.utils.LatencyHistogram;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 流水线的一个阶段：有界队列 + 固定线程池
+ * <p>
+ * 处理结果交给下游阶段，返回 null 表示任务到此结束。队列满时：入口阶段直接拒绝（调用方不等待），
+ * 中间阶段让上游线程等待，形成背压；排队中的数据量不超过各队列容量之和，
+ * 另有每个线程正在处理或等待提交给下游的一份，内存敏感的数据需要单独限制（见解码像素预算）。
+ * 指标：thumbnail.&lt;阶段&gt;（耗时）、.processed、.failed（计数）、.queue、.active（瞬时值）。
+ *
+ * @param <I> 输入
+ * @param <O> 输出
+ */
+@Slf4j
+public class PipelineStage<I, O> {
+
+    private final String name;
+
+    private final Function<I, O> worker;
+
+    private final ThreadPoolExecutor executor;
+
+    private final LatencyHistogram latencyHistogram;
+
+    private final LongAdder processedCounter;
+
+    private final LongAdder failedCounter;
+
+    private volatile Consumer<O> downstream = output -> {
+    };
+
+    /**
+     * @param name          阶段名
+     * @param threads       线程数
+     * @param queueCapacity 队列容量
+     * @param blockWhenFull 队列满时是否让提交方等待（否则拒绝）
+     * @param worker        处理逻辑
+     */
+    public PipelineStage(String name, int threads, int queueCapacity, boolean blockWhenFull, Function<I, O> worker,
+                         MetricsManager metricsManager) {
+        this.name = name;
+        this.worker = worker;
+        AtomicInteger threadIndex = new AtomicInteger();
+        RejectedExecutionHandler rejectedExecutionHandler = blockWhenFull
+                ? PipelineStage::waitForSpace : new ThreadPoolExecutor.AbortPolicy();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "thumbnail-" + name + "-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, rejectedExecutionHandler);
+        String metricName = "thumbnail." + name;
+        this.latencyHistogram = metricsManager.histogram(metricName);
+        this.processedCounter = metricsManager.counter(metricName + ".processed");
+        this.failedCounter = metricsManager.counter(metricName + ".failed");
+        metricsManager.gauge(metricName + ".queue", () -> executor.getQueue().size());
+        metricsManager.gauge(metricName + ".active", executor::getActiveCount);
+    }
+
+    /**
+     * 连接下游阶段
+     *
+     * @return 下游阶段，便于链式调用
+     */
+    public <R> PipelineStage<O, R> then(PipelineStage<O, R> next) {
+        this.downstream = next::submit;
+        return next;
+    }
+
+    /**
+     * 提交任务
+     *
+     * @return 是否已进入队列（入口阶段队列满或已关闭时返回 false）
+     */
+    public boolean submit(I input) {
+        try {
+            executor.execute(() -> process(input));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void process(I input) {
+        long start = System.nanoTime();
+        O output;
+        try {
+            output = worker.apply(input);
+        } catch (RuntimeException e) {
+            failedCounter.increment();
+            log.warn("thumbnail stage {} failed, input = {}", name, input, e);
+            return;
+        } finally {
+            latencyHistogram.record(System.nanoTime() - start);
+        }
+        processedCounter.increment();
+        if (output != null) {
+            downstream.accept(output);
+        }
+    }
+
+    private static void waitForSpace(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("pipeline stage is shut down");
+        }
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("interrupted while waiting for pipeline stage", e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.danta.lunpicrurebackend.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.danta.lunpicrurebackend.model.entity.Picture;
+
+/**
+* @description 针对表【picture(图片)】的数据库操作Mapper
+* @Entity com.danta.lunpicrurebackend.model.entity.Picture
+*/
+public interface PictureMapper extends BaseMapper<Picture> {
+
+}
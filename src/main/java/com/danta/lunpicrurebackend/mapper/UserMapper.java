@@ -1,16 +1,58 @@
 package com.danta.lunpicrurebackend.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
 import com.danta.lunpicrurebackend.model.entity.User;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
 * @author Administrator
 * @description 针对表【user(用户)】的数据库操作Mapper
 * @createDate 2024-12-10 18:01:21
-* @Entity com.danta.lunpictruebackend.model.entity.User
+* @Entity com.danta.lunpicrurebackend.model.entity.User
 */
 public interface UserMapper extends BaseMapper<User> {
 
+    /**
+     * 查看用户查询的执行计划，用于估算符合条件的行数
+     *
+     * @param queryWrapper 查询条件
+     * @return 执行计划（包含 rows、filtered 列）
+     */
+    List<Map<String, Object>> explainUserQuery(@Param(Constants.WRAPPER) Wrapper<User> queryWrapper);
+
+    /**
+     * 按 id 顺序分批查询账号（包括逻辑删除的用户）
+     *
+     * @param lastId 上一批最后一个 id
+     * @param limit  批大小
+     * @return 只包含 id、userAccount 的用户
+     */
+    List<User> listAccountAfterId(@Param("lastId") long lastId, @Param("limit") int limit);
+
+    /**
+     * 查询已存在的账号（包括逻辑删除的用户）
+     *
+     * @param accounts 待检查的账号
+     * @return 其中已存在的账号
+     */
+    List<String> listExistingAccounts(@Param("accounts") Collection<String> accounts);
+
+    /**
+     * 流式查询用户（MySQL 逐行读取结果集，内存占用与行数无关）
+     * <p>
+     * 查询条件需要自行加上逻辑删除过滤；处理期间会一直占用数据库连接。
+     *
+     * @param wrapper       查询条件（通过 select 指定列）
+     * @param resultHandler 逐行处理
+     */
+    void streamUsers(@Param(Constants.WRAPPER) Wrapper<User> wrapper, ResultHandler<User> resultHandler);
 }
 
 
@@ -0,0 +1,39 @@
+package com.danta.lunpicrurebackend.model.dto.picture;
+
+import com.danta.lunpicrurebackend.common.PageRequest;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.io.Serializable;
+
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class PictureQueryRequest extends PageRequest implements Serializable {
+
+    /**
+     * 图片名称（模糊匹配）
+     */
+    private String name;
+
+    /**
+     * 分类
+     */
+    private String category;
+
+    /**
+     * 标签（包含该标签）
+     */
+    private String tag;
+
+    /**
+     * 图片格式
+     */
+    private String picFormat;
+
+    /**
+     * 创建用户 id
+     */
+    private Long userId;
+
+    private static final long serialVersionUID = 1L;
+}
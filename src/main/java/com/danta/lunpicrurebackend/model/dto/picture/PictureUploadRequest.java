@@ -0,0 +1,32 @@
+package com.danta.lunpicrurebackend.model.dto.picture;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+public class PictureUploadRequest implements Serializable {
+
+    /**
+     * 图片名称，为空时使用文件名
+     */
+    private String name;
+
+    /**
+     * 简介
+     */
+    private String introduction;
+
+    /**
+     * 分类
+     */
+    private String category;
+
+    /**
+     * 标签
+     */
+    private List<String> tags;
+
+    private static final long serialVersionUID = 1L;
+}
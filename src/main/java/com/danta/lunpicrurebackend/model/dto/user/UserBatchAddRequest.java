@@ -0,0 +1,20 @@
+package com.danta.lunpicrurebackend.model.dto.user;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量新增用户请求
+ */
+@Data
+public class UserBatchAddRequest implements Serializable {
+
+    /**
+     * 待新增的用户
+     */
+    private List<UserAddRequest> userList;
+
+    private static final long serialVersionUID = 1L;
+}
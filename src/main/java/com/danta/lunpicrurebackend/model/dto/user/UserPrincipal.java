@@ -0,0 +1,39 @@
+package com.danta.lunpicrurebackend.model.dto.user;
+
+import com.danta.lunpicrurebackend.model.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 会话中保存的登录用户（只保存身份信息，不保存密码等完整用户数据）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPrincipal implements Serializable {
+
+    /**
+     * 用户 id
+     */
+    private Long id;
+
+    /**
+     * 用户角色：user/admin
+     */
+    private String userRole;
+
+    /**
+     * 用户数据版本（更新时间戳），与数据库不一致时说明用户信息已变更
+     */
+    private long version;
+
+    public static UserPrincipal of(User user) {
+        long version = user.getUpdateTime() == null ? 0 : user.getUpdateTime().getTime();
+        return new UserPrincipal(user.getId(), user.getUserRole(), version);
+    }
+
+    private static final long serialVersionUID = 1L;
+}
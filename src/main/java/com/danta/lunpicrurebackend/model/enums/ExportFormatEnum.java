@@ -0,0 +1,37 @@
+package com.danta.lunpicrurebackend.model.enums;
+
+import cn.hutool.core.util.ObjectUtil;
+import lombok.Getter;
+
+/**
+ * 导出格式
+ */
+@Getter
+public enum ExportFormatEnum {
+    NDJSON("ndjson", "application/x-ndjson"),
+    CSV("csv", "text/csv");
+
+    /**
+     * 格式名，同时作为文件扩展名
+     */
+    private final String value;
+
+    private final String contentType;
+
+    ExportFormatEnum(String value, String contentType) {
+        this.value = value;
+        this.contentType = contentType;
+    }
+
+    public static ExportFormatEnum getEnumByValue(String value) {
+        if (ObjectUtil.isEmpty(value)) {
+            return null;
+        }
+        for (ExportFormatEnum formatEnum : ExportFormatEnum.values()) {
+            if (formatEnum.value.equalsIgnoreCase(value)) {
+                return formatEnum;
+            }
+        }
+        return null;
+    }
+}
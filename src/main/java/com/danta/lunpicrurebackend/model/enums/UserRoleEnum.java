@@ -3,33 +3,55 @@ package com.danta.lunpicrurebackend.model.enums;
 import cn.hutool.core.util.ObjectUtil;
 import lombok.Getter;
 
+import java.util.HashMap;
+import java.util.Map;
+
 
 @Getter
 public enum UserRoleEnum {
-    USER("用户","user"),
-    ADMIN("管理员","admin");
+    // 角色掩码按层级包含：管理员拥有用户的全部权限位
+    USER("用户","user", 0b01),
+    ADMIN("管理员","admin", 0b11);
 
 
     private final String text;
 
     private final String value;
 
+    /**
+     * 权限位掩码，拥有角色 A 的全部位即视为满足角色 A 的要求
+     */
+    private final int mask;
+
+    private static final Map<String, UserRoleEnum> VALUE_MAP = new HashMap<>();
+
+    static {
+        for (UserRoleEnum userRoleEnum : UserRoleEnum.values()) {
+            VALUE_MAP.put(userRoleEnum.value, userRoleEnum);
+        }
+    }
+
 
-    UserRoleEnum(String text, String value) {
+    UserRoleEnum(String text, String value, int mask) {
         this.text = text;
         this.value = value;
+        this.mask = mask;
     }
 
     public static UserRoleEnum getEnumByValue(String value){
         if(ObjectUtil.isEmpty(value)){
             return null;
         }
-        for (UserRoleEnum userRoleEnum : UserRoleEnum.values()){
-            if(userRoleEnum.value.equals(value)){
-                return userRoleEnum;
-            }
-        }
+        return VALUE_MAP.get(value);
+    }
 
-        return null;
+    /**
+     * 判断当前角色是否满足要求的权限掩码
+     *
+     * @param requiredMask 要求的权限掩码
+     * @return 是否满足
+     */
+    public boolean hasMask(int requiredMask) {
+        return (this.mask & requiredMask) == requiredMask;
     }
 }
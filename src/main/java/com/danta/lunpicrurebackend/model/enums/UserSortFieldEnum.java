@@ -0,0 +1,69 @@
+package com.danta.lunpicrurebackend.model.enums;
+
+import com.danta.lunpicrurebackend.model.entity.User;
+import lombok.Getter;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 用户排序字段白名单
+ * <p>
+ * 游标分页只允许非空列，保证 (排序值, id) 能唯一定位一行；可为空的列（userName）只用于普通分页。
+ */
+@Getter
+public enum UserSortFieldEnum {
+    ID("id", User::getId, Long::valueOf),
+    USER_ACCOUNT("userAccount", User::getUserAccount, value -> value),
+    CREATE_TIME("createTime", user -> user.getCreateTime().getTime(), value -> new Date(Long.parseLong(value))),
+    UPDATE_TIME("updateTime", user -> user.getUpdateTime().getTime(), value -> new Date(Long.parseLong(value))),
+    EDIT_TIME("editTime", user -> user.getEditTime().getTime(), value -> new Date(Long.parseLong(value))),
+    USER_NAME("userName", null, null);
+
+    /**
+     * 列名
+     */
+    private final String value;
+
+    /**
+     * 从用户中取出写入游标的值
+     */
+    private final Function<User, Object> extractor;
+
+    /**
+     * 把游标中的值还原为查询参数
+     */
+    private final Function<String, Object> parser;
+
+    /**
+     * 是否支持游标分页
+     */
+    private final boolean cursorSupported;
+
+    private static final Map<String, UserSortFieldEnum> VALUE_MAP = new HashMap<>();
+
+    static {
+        for (UserSortFieldEnum sortFieldEnum : UserSortFieldEnum.values()) {
+            VALUE_MAP.put(sortFieldEnum.value, sortFieldEnum);
+        }
+    }
+
+    UserSortFieldEnum(String value, Function<User, Object> extractor, Function<String, Object> parser) {
+        this.value = value;
+        this.extractor = extractor;
+        this.parser = parser;
+        this.cursorSupported = extractor != null;
+    }
+
+    /**
+     * 根据列名获取排序字段，空值默认按 id 排序，不支持的列返回 null
+     */
+    public static UserSortFieldEnum getEnumByValue(String value) {
+        if (value == null || value.isEmpty()) {
+            return ID;
+        }
+        return VALUE_MAP.get(value);
+    }
+}
@@ -0,0 +1,52 @@
+package com.danta.lunpicrurebackend.model.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 归档任务进度（正在执行时为本次进度，否则为上一次的结果）
+ */
+@Data
+public class ArchiveProgressVO implements Serializable {
+
+    /**
+     * 是否正在执行
+     */
+    private boolean running;
+
+    private Date startTime;
+
+    /**
+     * 结束时间，执行中为 null
+     */
+    private Date finishTime;
+
+    /**
+     * 已归档行数
+     */
+    private long archivedRows;
+
+    /**
+     * 已执行批次数
+     */
+    private int batches;
+
+    /**
+     * 平均每秒归档行数（含批次间暂停）
+     */
+    private double rowsPerSecond;
+
+    /**
+     * 是否整理了表和索引
+     */
+    private boolean optimized;
+
+    /**
+     * 失败原因，成功时为 null
+     */
+    private String error;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,31 @@
+package com.danta.lunpicrurebackend.model.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 延迟指标（微秒）
+ */
+@Data
+public class LatencyMetricVO implements Serializable {
+
+    /**
+     * 指标名，http. 开头为接口，sql. 开头为 SQL 语句，pool. 开头为连接池
+     */
+    private String name;
+
+    private long count;
+
+    private long meanMicros;
+
+    private long p50Micros;
+
+    private long p99Micros;
+
+    private long p999Micros;
+
+    private long maxMicros;
+
+    private static final long serialVersionUID = 1L;
+}
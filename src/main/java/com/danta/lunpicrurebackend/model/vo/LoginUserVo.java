@@ -48,6 +48,16 @@ public class LoginUserVo implements Serializable {
          */
         private Date updateTime;
 
+        /**
+         * 登录令牌（仅令牌认证模式返回）
+         */
+        private String token;
+
+        /**
+         * 令牌有效期（秒）
+         */
+        private Long tokenExpireSeconds;
+
         private static final long serialVersionUID = 1L;
 }
 
@@ -0,0 +1,33 @@
+package com.danta.lunpicrurebackend.model.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 运行指标
+ */
+@Data
+public class MetricsVO implements Serializable {
+
+    /**
+     * 延迟分布
+     */
+    private List<LatencyMetricVO> latencies = new ArrayList<>();
+
+    /**
+     * 累计计数
+     */
+    private Map<String, Long> counters = new LinkedHashMap<>();
+
+    /**
+     * 瞬时值
+     */
+    private Map<String, Long> gauges = new LinkedHashMap<>();
+
+    private static final long serialVersionUID = 1L;
+}
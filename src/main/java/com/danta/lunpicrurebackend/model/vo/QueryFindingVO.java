@@ -0,0 +1,45 @@
+package com.danta.lunpicrurebackend.model.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * SQL 检查发现的问题
+ */
+@Data
+public class QueryFindingVO implements Serializable {
+
+    /**
+     * SLOW：单条语句超过耗时阈值；REPEATED：同一请求内同一语句执行次数超过阈值（疑似 N+1）
+     */
+    private String type;
+
+    /**
+     * 所在接口（Controller名.方法名）
+     */
+    private String endpoint;
+
+    /**
+     * 语句（Mapper名.方法名）
+     */
+    private String statement;
+
+    /**
+     * 执行次数（SLOW 为 1）
+     */
+    private int count;
+
+    /**
+     * 耗时（微秒），REPEATED 为该语句在请求内的总耗时
+     */
+    private long elapsedMicros;
+
+    /**
+     * 发现时间
+     */
+    private Date createTime;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,37 @@
+package com.danta.lunpicrurebackend.model.vo;
+
+import com.danta.lunpicrurebackend.common.BatchItemResult;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 用户导入结果
+ */
+@Data
+public class UserImportResultVO implements Serializable {
+
+    /**
+     * 读取的数据行数（不含表头）
+     */
+    private long total;
+
+    /**
+     * 导入成功的行数
+     */
+    private long successCount;
+
+    /**
+     * 导入失败的行数
+     */
+    private long failCount;
+
+    /**
+     * 失败的行（index 为数据行号，从 1 开始），最多返回前 1000 条
+     */
+    private List<BatchItemResult> errors = new ArrayList<>();
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,33 @@
+package com.danta.lunpicrurebackend.model.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 用户搜索联想结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSuggestionVO implements Serializable {
+
+    /**
+     * id
+     */
+    private Long id;
+
+    /**
+     * 账号
+     */
+    private String userAccount;
+
+    /**
+     * 用户昵称
+     */
+    private String userName;
+
+    private static final long serialVersionUID = 1L;
+}
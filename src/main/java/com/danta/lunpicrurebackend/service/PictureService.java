@@ -0,0 +1,68 @@
+package com.danta.lunpicrurebackend.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.danta.lunpicrurebackend.common.PageResult;
+import com.danta.lunpicrurebackend.model.dto.picture.PictureQueryRequest;
+import com.danta.lunpicrurebackend.model.dto.picture.PictureUploadRequest;
+import com.danta.lunpicrurebackend.model.dto.user.UserPrincipal;
+import com.danta.lunpicrurebackend.model.entity.Picture;
+import com.danta.lunpicrurebackend.model.vo.PictureVO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+* @description 针对表【picture(图片)】的数据库操作Service
+*/
+public interface PictureService extends IService<Picture> {
+
+    /**
+     * 上传图片
+     * <p>
+     * 内容流式写入存储，同时计算 SHA-256；只读取文件头校验格式和尺寸，不解码整张图片。
+     * 内容相同的图片共用同一个文件；缩略图在上传完成后异步生成。
+     *
+     * @param inputStream          图片内容
+     * @param originalFilename     原始文件名（图片名称为空时使用）
+     * @param pictureUploadRequest 图片信息
+     * @param loginUser            当前登录身份
+     * @return 图片
+     * @throws IOException 读取或写入失败
+     */
+    PictureVO uploadPicture(InputStream inputStream, String originalFilename,
+                            PictureUploadRequest pictureUploadRequest, UserPrincipal loginUser) throws IOException;
+
+    /**
+     * 删除图片（本人或管理员），文件可能被其他图片共用，不删除
+     *
+     * @param id        图片 id
+     * @param loginUser 当前登录身份
+     * @return 是否删除
+     */
+    boolean deletePicture(long id, UserPrincipal loginUser);
+
+    /**
+     * 获得图片（附带创建用户）
+     *
+     * @param id 图片 id
+     * @return 图片
+     */
+    PictureVO getPictureVo(long id);
+
+    /**
+     * 分页查询图片（按 id 倒序，即上传时间倒序）
+     *
+     * @param pictureQueryRequest 查询条件
+     * @return 分页结果
+     */
+    PageResult<PictureVO> listPictureVoByPage(PictureQueryRequest pictureQueryRequest);
+
+    /**
+     * 批量转换为图片视图，创建用户一次查询
+     *
+     * @param pictureList 图片
+     * @return 图片视图
+     */
+    List<PictureVO> getPictureVoList(List<Picture> pictureList);
+}
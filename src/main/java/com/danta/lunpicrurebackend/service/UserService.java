@@ -1,13 +1,22 @@
 package com.danta.lunpicrurebackend.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.danta.lunpicrurebackend.common.BatchItemResult;
+import com.danta.lunpicrurebackend.common.PageResult;
+import com.danta.lunpicrurebackend.model.dto.user.UserAddRequest;
+import com.danta.lunpicrurebackend.model.dto.user.UserPrincipal;
 import com.danta.lunpicrurebackend.model.dto.user.UserQueryRequest;
 import com.danta.lunpicrurebackend.model.entity.User;
+import com.danta.lunpicrurebackend.model.enums.ExportFormatEnum;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.danta.lunpicrurebackend.model.vo.LoginUserVo;
+import com.danta.lunpicrurebackend.model.vo.UserImportResultVO;
 import com.danta.lunpicrurebackend.model.vo.UserVO;
 
 import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -34,7 +43,7 @@ public interface UserService extends IService<User> {
     LoginUserVo userLogin(String userAccount, String userPassword, HttpServletRequest request);
 
     /**
-     * 获取加密后的密码
+     * 获取加密后的密码（BCrypt，每次调用盐不同，不能用于等值比较）
      * @param userPassword
      * @return
      */
@@ -47,6 +56,24 @@ public interface UserService extends IService<User> {
      */
     User getLoginUser(HttpServletRequest request);
 
+    /**
+     * 获取当前登录身份（id、角色、版本）
+     * <p>
+     * 令牌认证模式下只校验令牌签名，不查询会话和数据库
+     *
+     * @param request
+     * @return 登录身份
+     */
+    UserPrincipal getLoginPrincipal(HttpServletRequest request);
+
+    /**
+     * 刷新令牌：注销当前令牌，按最新的用户信息签发新令牌（仅令牌认证模式）
+     *
+     * @param request
+     * @return 带新令牌的登录信息
+     */
+    LoginUserVo refreshToken(HttpServletRequest request);
+
     /**
      * 获得脱敏后的用户登录信息
      * @param user
@@ -70,6 +97,53 @@ public interface UserService extends IService<User> {
      */
     List<UserVO> getUserVoList(List<User> userList);
 
+    /**
+     * 按 id 批量获得脱敏后的用户（一次查询，按传入顺序返回，不存在的 id 忽略）
+     *
+     * @param ids 用户 id 列表
+     * @return 脱敏后的用户列表
+     */
+    List<UserVO> listUserVoByIds(List<Long> ids);
+
+    /**
+     * 批量新增用户（默认密码，一次批量插入）
+     *
+     * @param userAddRequestList 待新增的用户
+     * @return 每一项的处理结果，与请求顺序一致
+     */
+    List<BatchItemResult> batchAddUser(List<UserAddRequest> userAddRequestList);
+
+    /**
+     * 批量删除用户
+     *
+     * @param ids 用户 id 列表
+     * @return 每一项的处理结果，与请求顺序一致
+     */
+    List<BatchItemResult> batchDeleteUser(List<Long> ids);
+
+    /**
+     * 流式导出用户（按 id 顺序，逐行写出并定期刷新，内存占用与行数无关）
+     *
+     * @param userQueryRequest 查询条件（忽略分页和排序参数）
+     * @param exportFormatEnum 导出格式
+     * @param outputStream     输出流
+     * @return 导出行数
+     * @throws IOException 写出失败（例如客户端断开）
+     */
+    long exportUsers(UserQueryRequest userQueryRequest, ExportFormatEnum exportFormatEnum,
+                     OutputStream outputStream) throws IOException;
+
+    /**
+     * 流式导入用户（CSV，表头：userAccount, userPassword, userName, userRole, userAvatar, userProfile）
+     * <p>
+     * 按批次校验、并行哈希密码、批量插入，账号冲突记为该行失败，不影响其他行。
+     *
+     * @param inputStream CSV 输入流
+     * @return 导入结果
+     * @throws IOException 读取失败
+     */
+    UserImportResultVO importUsers(InputStream inputStream) throws IOException;
+
     /**
      * 用户注销
      * @param request
@@ -79,5 +153,21 @@ public interface UserService extends IService<User> {
 
 
     QueryWrapper<User> getUserQueryWrapper(UserQueryRequest userQueryRequest);
+
+    /**
+     * 分页查询用户（总数来自缓存，统计超时时返回估算值）
+     *
+     * @param userQueryRequest 查询条件
+     * @return 分页结果
+     */
+    PageResult<User> listUserByPage(UserQueryRequest userQueryRequest);
+
+    /**
+     * 游标分页查询用户（按 (排序字段, id) 定位，每页代价与页码无关）
+     *
+     * @param userQueryRequest 查询条件，cursor 为上一页返回的游标，首页为空字符串
+     * @return 分页结果，nextCursor 为 null 表示没有下一页
+     */
+    PageResult<User> listUserByCursor(UserQueryRequest userQueryRequest);
 }
 
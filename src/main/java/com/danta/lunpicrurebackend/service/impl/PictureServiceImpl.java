@@ -0,0 +1,252 @@
+package com.danta.lunpicrurebackend.service.impl;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.danta.lunpicrurebackend.annotation.ReadOnly;
+import com.danta.lunpicrurebackend.common.PageResult;
+import com.danta.lunpicrurebackend.constant.UserConstant;
+import com.danta.lunpicrurebackend.convert.PictureConvert;
+import com.danta.lunpicrurebackend.exception.BusinessException;
+import com.danta.lunpicrurebackend.exception.ErrorCode;
+import com.danta.lunpicrurebackend.exception.ThrowUtils;
+import com.danta.lunpicrurebackend.manager.MetricsManager;
+import com.danta.lunpicrurebackend.manager.storage.PictureStorage;
+import com.danta.lunpicrurebackend.manager.storage.StagedObject;
+import com.danta.lunpicrurebackend.manager.storage.StoredObject;
+import com.danta.lunpicrurebackend.manager.thumbnail.PictureThumbnailManager;
+import com.danta.lunpicrurebackend.mapper.PictureMapper;
+import com.danta.lunpicrurebackend.model.dto.picture.PictureQueryRequest;
+import com.danta.lunpicrurebackend.model.dto.picture.PictureUploadRequest;
+import com.danta.lunpicrurebackend.model.dto.user.UserPrincipal;
+import com.danta.lunpicrurebackend.model.entity.Picture;
+import com.danta.lunpicrurebackend.model.vo.PictureVO;
+import com.danta.lunpicrurebackend.model.vo.UserVO;
+import com.danta.lunpicrurebackend.service.PictureService;
+import com.danta.lunpicrurebackend.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+* @description 针对表【picture(图片)】的数据库操作Service实现
+*/
+@Service
+@Slf4j
+public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
+    implements PictureService {
+
+    /**
+     * ImageIO 格式名 -> 扩展名，不在其中的格式不允许上传
+     */
+    private static final Map<String, String> FORMAT_EXTENSIONS = new HashMap<>();
+
+    private static final int NAME_MAX_LENGTH = 128;
+
+    private static final int INTRODUCTION_MAX_LENGTH = 512;
+
+    private static final int PAGE_SIZE_MAX = 50;
+
+    static {
+        FORMAT_EXTENSIONS.put("jpeg", "jpg");
+        FORMAT_EXTENSIONS.put("png", "png");
+        FORMAT_EXTENSIONS.put("gif", "gif");
+        FORMAT_EXTENSIONS.put("bmp", "bmp");
+    }
+
+    @Resource
+    private PictureStorage pictureStorage;
+
+    @Resource
+    private PictureConvert pictureConvert;
+
+    @Resource
+    private UserService userService;
+
+    @Resource
+    private PictureThumbnailManager pictureThumbnailManager;
+
+    private final LongAdder uploadBytesCounter;
+
+    private final LongAdder dedupCounter;
+
+    @Value("${lun-picture.storage.max-file-size:20971520}")
+    private long maxFileSize;
+
+    @Value("${lun-picture.storage.url-prefix:/api/picture/file/}")
+    private String urlPrefix;
+
+    public PictureServiceImpl(MetricsManager metricsManager) {
+        this.uploadBytesCounter = metricsManager.counter("picture.upload.bytes");
+        this.dedupCounter = metricsManager.counter("picture.upload.dedup");
+    }
+
+    @Override
+    public PictureVO uploadPicture(InputStream inputStream, String originalFilename,
+                                   PictureUploadRequest pictureUploadRequest, UserPrincipal loginUser) throws IOException {
+        ThrowUtils.throwIf(inputStream == null, ErrorCode.PARAMS_ERROR, "文件不能为空");
+        if (pictureUploadRequest == null) {
+            pictureUploadRequest = new PictureUploadRequest();
+        }
+        String name = StrUtil.blankToDefault(pictureUploadRequest.getName(), FileUtil.mainName(originalFilename));
+        ThrowUtils.throwIf(StrUtil.isBlank(name) || name.length() > NAME_MAX_LENGTH, ErrorCode.PARAMS_ERROR,
+                "图片名称不能为空且不超过" + NAME_MAX_LENGTH + "个字符");
+        String introduction = pictureUploadRequest.getIntroduction();
+        ThrowUtils.throwIf(introduction != null && introduction.length() > INTRODUCTION_MAX_LENGTH,
+                ErrorCode.PARAMS_ERROR, "简介不能超过" + INTRODUCTION_MAX_LENGTH + "个字符");
+
+        StoredObject storedObject;
+        ImageInfo imageInfo;
+        try (StagedObject stagedObject = pictureStorage.stage(Channels.newChannel(inputStream), maxFileSize)) {
+            ThrowUtils.throwIf(stagedObject.getSize() == 0, ErrorCode.PARAMS_ERROR, "文件不能为空");
+            imageInfo = readImageInfo(stagedObject.getPath());
+            storedObject = pictureStorage.commit(stagedObject, imageInfo.extension);
+        }
+        uploadBytesCounter.add(storedObject.getSize());
+        if (storedObject.isDeduplicated()) {
+            dedupCounter.increment();
+        }
+
+        Picture picture = new Picture();
+        picture.setUrl(urlPrefix + storedObject.getKey());
+        picture.setName(name);
+        picture.setIntroduction(introduction);
+        picture.setCategory(pictureUploadRequest.getCategory());
+        if (CollUtil.isNotEmpty(pictureUploadRequest.getTags())) {
+            picture.setTags(JSONUtil.toJsonStr(pictureUploadRequest.getTags()));
+        }
+        picture.setPicSize(storedObject.getSize());
+        picture.setPicWidth(imageInfo.width);
+        picture.setPicHeight(imageInfo.height);
+        picture.setPicScale(imageInfo.height == 0 ? null : (double) imageInfo.width / imageInfo.height);
+        picture.setPicFormat(imageInfo.extension);
+        picture.setContentHash(storedObject.getSha256());
+        picture.setUserId(loginUser.getId());
+        boolean saved = this.save(picture);
+        ThrowUtils.throwIf(!saved, ErrorCode.OPERATION_ERROR, "图片保存失败");
+        log.info("picture uploaded, id = {}, key = {}, size = {}, deduplicated = {}", picture.getId(),
+                storedObject.getKey(), storedObject.getSize(), storedObject.isDeduplicated());
+        // 缩略图异步生成，不计入上传耗时
+        pictureThumbnailManager.submit(picture.getId(), storedObject.getKey(), storedObject.getSha256());
+        return pictureConvert.toPictureVo(picture);
+    }
+
+    @Override
+    public boolean deletePicture(long id, UserPrincipal loginUser) {
+        ThrowUtils.throwIf(id <= 0, ErrorCode.PARAMS_ERROR);
+        Picture picture = this.getById(id);
+        ThrowUtils.throwIf(picture == null, ErrorCode.NOT_FOUND_ERROR);
+        boolean isAdmin = UserConstant.ADMIN_ROLE.equals(loginUser.getUserRole());
+        ThrowUtils.throwIf(!isAdmin && !picture.getUserId().equals(loginUser.getId()), ErrorCode.NO_AUTH_ERROR);
+        return this.removeById(id);
+    }
+
+    @Override
+    @ReadOnly
+    public PictureVO getPictureVo(long id) {
+        ThrowUtils.throwIf(id <= 0, ErrorCode.PARAMS_ERROR);
+        Picture picture = this.getById(id);
+        ThrowUtils.throwIf(picture == null, ErrorCode.NOT_FOUND_ERROR);
+        return getPictureVoList(Collections.singletonList(picture)).get(0);
+    }
+
+    @Override
+    @ReadOnly
+    public PageResult<PictureVO> listPictureVoByPage(PictureQueryRequest pictureQueryRequest) {
+        ThrowUtils.throwIf(pictureQueryRequest == null, ErrorCode.PARAMS_ERROR);
+        int pageSize = pictureQueryRequest.getPageSize();
+        ThrowUtils.throwIf(pageSize <= 0 || pageSize > PAGE_SIZE_MAX, ErrorCode.PARAMS_ERROR,
+                "每页数量应在1到" + PAGE_SIZE_MAX + "之间");
+        QueryWrapper<Picture> queryWrapper = new QueryWrapper<>();
+        queryWrapper.like(StrUtil.isNotBlank(pictureQueryRequest.getName()), "name", pictureQueryRequest.getName());
+        queryWrapper.eq(StrUtil.isNotBlank(pictureQueryRequest.getCategory()), "category",
+                pictureQueryRequest.getCategory());
+        queryWrapper.eq(StrUtil.isNotBlank(pictureQueryRequest.getPicFormat()), "picFormat",
+                pictureQueryRequest.getPicFormat());
+        queryWrapper.eq(pictureQueryRequest.getUserId() != null, "userId", pictureQueryRequest.getUserId());
+        // 标签保存为 JSON 数组，按带引号的完整标签匹配
+        queryWrapper.like(StrUtil.isNotBlank(pictureQueryRequest.getTag()), "tags",
+                "\"" + pictureQueryRequest.getTag() + "\"");
+        // 雪花和号段生成的 id 都随时间递增，按 id 倒序即（近似）按上传时间倒序
+        queryWrapper.orderByDesc("id");
+        Page<Picture> picturePage = this.page(new Page<>(pictureQueryRequest.getCurrent(), pageSize,
+                pictureQueryRequest.isSearchCount()), queryWrapper);
+        PageResult<PictureVO> pictureVOPage = new PageResult<>(picturePage.getCurrent(), picturePage.getSize(),
+                picturePage.getTotal(), picturePage.searchCount());
+        pictureVOPage.setRecords(getPictureVoList(picturePage.getRecords()));
+        return pictureVOPage;
+    }
+
+    @Override
+    public List<PictureVO> getPictureVoList(List<Picture> pictureList) {
+        if (CollUtil.isEmpty(pictureList)) {
+            return new ArrayList<>();
+        }
+        List<Long> userIds = pictureList.stream().map(Picture::getUserId).distinct().collect(Collectors.toList());
+        Map<Long, UserVO> userMap = userService.listUserVoByIds(userIds).stream()
+                .collect(Collectors.toMap(UserVO::getId, Function.identity()));
+        List<PictureVO> pictureVOList = new ArrayList<>(pictureList.size());
+        for (Picture picture : pictureList) {
+            PictureVO pictureVO = pictureConvert.toPictureVo(picture);
+            pictureVO.setUser(userMap.get(picture.getUserId()));
+            pictureVOList.add(pictureVO);
+        }
+        return pictureVOList;
+    }
+
+    /**
+     * 只读取文件头获取格式和尺寸，不解码像素
+     */
+    private static ImageInfo readImageInfo(Path path) throws IOException {
+        try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(path.toFile())) {
+            Iterator<ImageReader> readers = imageInputStream == null
+                    ? Collections.emptyIterator() : ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) {
+                throw new BusinessException(ErrorCode.PARAMS_ERROR, "不支持的图片格式");
+            }
+            ImageReader reader = readers.next();
+            try {
+                String extension = FORMAT_EXTENSIONS.get(reader.getFormatName().toLowerCase(Locale.ROOT));
+                ThrowUtils.throwIf(extension == null, ErrorCode.PARAMS_ERROR, "不支持的图片格式");
+                reader.setInput(imageInputStream, true, true);
+                return new ImageInfo(extension, reader.getWidth(0), reader.getHeight(0));
+            } catch (IOException e) {
+                throw new BusinessException(ErrorCode.PARAMS_ERROR, "图片已损坏");
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static class ImageInfo {
+
+        private final String extension;
+
+        private final int width;
+
+        private final int height;
+
+        ImageInfo(String extension, int width, int height) {
+            this.extension = extension;
+            this.width = width;
+            this.height = height;
+        }
+    }
+}
@@ -1,27 +1,63 @@
 package com.danta.lunpicrurebackend.service.impl;
 
-import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.io.IORuntimeException;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.text.csv.CsvReadConfig;
+import cn.hutool.core.text.csv.CsvReader;
+import cn.hutool.core.text.csv.CsvUtil;
+import cn.hutool.core.text.csv.CsvWriter;
+import cn.hutool.core.codec.Base64;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.danta.lunpicrurebackend.annotation.ReadOnly;
+import com.danta.lunpicrurebackend.common.BatchItemResult;
+import com.danta.lunpicrurebackend.common.PageResult;
 import com.danta.lunpicrurebackend.constant.UserConstant;
+import com.danta.lunpicrurebackend.convert.UserConvert;
+import com.danta.lunpicrurebackend.event.UserChangeEvent;
 import com.danta.lunpicrurebackend.exception.BusinessException;
 import com.danta.lunpicrurebackend.exception.ErrorCode;
+import com.danta.lunpicrurebackend.manager.AccountBloomFilterManager;
+import com.danta.lunpicrurebackend.manager.DataSourceRoutingManager;
+import com.danta.lunpicrurebackend.manager.PasswordHashManager;
+import com.danta.lunpicrurebackend.manager.TokenManager;
+import com.danta.lunpicrurebackend.manager.UserCacheManager;
+import com.danta.lunpicrurebackend.manager.UserCountManager;
 import com.danta.lunpicrurebackend.mapper.UserMapper;
+import com.danta.lunpicrurebackend.model.dto.user.UserAddRequest;
+import com.danta.lunpicrurebackend.model.dto.user.UserPrincipal;
 import com.danta.lunpicrurebackend.model.dto.user.UserQueryRequest;
 import com.danta.lunpicrurebackend.model.entity.User;
+import com.danta.lunpicrurebackend.model.enums.ExportFormatEnum;
 import com.danta.lunpicrurebackend.model.enums.UserRoleEnum;
+import com.danta.lunpicrurebackend.model.enums.UserSortFieldEnum;
 import com.danta.lunpicrurebackend.model.vo.LoginUserVo;
+import com.danta.lunpicrurebackend.model.vo.UserImportResultVO;
 import com.danta.lunpicrurebackend.model.vo.UserVO;
 import com.danta.lunpicrurebackend.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import org.springframework.util.DigestUtils;
 
+import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
-import java.util.ArrayList;
-import java.util.List;
+import javax.servlet.http.HttpSession;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -34,6 +70,57 @@ import java.util.stream.Collectors;
 public class UserServiceImpl extends ServiceImpl<UserMapper, User>
     implements UserService{
 
+    @Resource
+    private UserCacheManager userCacheManager;
+
+    @Resource
+    private UserCountManager userCountManager;
+
+    @Resource
+    private PasswordHashManager passwordHashManager;
+
+    @Resource
+    private AccountBloomFilterManager accountBloomFilterManager;
+
+    @Resource
+    private TokenManager tokenManager;
+
+    @Resource
+    private DataSourceRoutingManager dataSourceRoutingManager;
+
+    @Resource
+    private UserConvert userConvert;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    /**
+     * 导出时每写出多少行刷新一次输出流
+     */
+    private static final int EXPORT_FLUSH_ROWS = 1000;
+
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 导入结果中最多返回的失败行数
+     */
+    private static final int IMPORT_MAX_ERRORS = 1000;
+
+    /**
+     * 导入时每批校验、哈希、插入的行数
+     */
+    @Value("${lun-picture.user-import.batch-size:1000}")
+    private int importBatchSize;
+
+    /**
+     * 单次导入的最大行数
+     */
+    @Value("${lun-picture.user-import.max-rows:200000}")
+    private long importMaxRows;
+
   /**
      * 用户注册方法，用于处理用户注册逻辑。
      *
@@ -57,12 +144,15 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
         if(!userPassword.equals(checkPassword)){
             throw new BusinessException(ErrorCode.PARAMS_ERROR,"两次输入的密码不一致");
         }
-        // 2. 检查用户账号是否和数据库中已有的重复
-        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("userAccount", userAccount);
-        Long count = this.baseMapper.selectCount(queryWrapper);
-        if(count > 0){
-            throw new BusinessException(ErrorCode.PARAMS_ERROR,"账号已存在");
+        // 2. 检查用户账号是否和数据库中已有的重复（布隆过滤器判定一定不存在时跳过查询，由唯一索引兜底）
+        if(!accountBloomFilterManager.isDefinitelyAbsent(userAccount)){
+            QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("userAccount", userAccount);
+            Long count = this.baseMapper.selectCount(queryWrapper);
+            if(count > 0){
+                throw new BusinessException(ErrorCode.PARAMS_ERROR,"账号已存在");
+            }
+            accountBloomFilterManager.recordFalsePositive();
         }
 
         // 3. 密码一定要加密
@@ -73,14 +163,23 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
         user.setUserPassword(encryptPassword);
         user.setUserName("无名");
         user.setUserRole(UserRoleEnum.USER.getValue());
-        boolean saveResult = this.save(user);
+        boolean saveResult;
+        try {
+            saveResult = this.save(user);
+        } catch (DuplicateKeyException e) {
+            // 并发注册或账号已被逻辑删除的用户占用
+            throw new BusinessException(ErrorCode.PARAMS_ERROR,"账号已存在");
+        }
         if(!saveResult){
             throw new BusinessException(ErrorCode.SYSTEM_ERROR,"用户注册失败");
         }
+        accountBloomFilterManager.add(userAccount);
+        applicationEventPublisher.publishEvent(new UserChangeEvent(this, UserChangeEvent.ChangeType.ADD, user.getId()));
         return user.getId();
     }
 
     @Override
+    @ReadOnly
     public LoginUserVo userLogin(String userAccount, String userPassword, HttpServletRequest request) {
         // 1. 检验参数
         if(StrUtil.hasBlank(userAccount, userPassword)){
@@ -92,55 +191,149 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
         if(userPassword.length() < 8 ){
             throw new BusinessException(ErrorCode.PARAMS_ERROR,"密码长度不能小于8位");
         }
-        // 2. 对用户传递的密码进行加密
-        String encryptPassword = getEncryptPassword(userPassword);
-        // 3. 查询数据库中的用户是否存在
+        // 2. 查询数据库中的用户是否存在
         QueryWrapper<User> queryWrapper = new QueryWrapper<>();
         queryWrapper.eq("userAccount", userAccount);
-        queryWrapper.eq("userPassword", encryptPassword);
         User user = this.baseMapper.selectOne(queryWrapper);
-        //  不存在，抛异常
-        if(user == null){
-            log.info("user login failed,userAccount cannot match password");
+        // 刚注册的账号可能还没同步到从库，布隆过滤器判定可能存在时再查一次主库
+        if(user == null && dataSourceRoutingManager.isRoutingToReplica()
+                && !accountBloomFilterManager.isDefinitelyAbsent(userAccount)){
+            user = dataSourceRoutingManager.onPrimary(() -> this.baseMapper.selectOne(queryWrapper));
+        }
+        // 3. 校验密码，不存在或不匹配，抛异常
+        if(user == null || !passwordHashManager.matches(userPassword, user.getUserPassword())){
             throw new BusinessException(ErrorCode.PARAMS_ERROR,"账号或密码错误");
         }
-        // 4. 保存用户登录态
-        request.getSession().setAttribute(UserConstant.USER_LOGIN_STATE, user);
+        // 旧版 MD5 或工作因子过低的密码，登录成功后顺便升级
+        if(passwordHashManager.needsRehash(user.getUserPassword())){
+            rehashPassword(user, userPassword);
+        }
+        // 4. 保存用户登录态（只保存 id、角色和版本，不保存完整用户）
+        if(tokenManager.isEnabled()){
+            return this.getLoginUserVoWithToken(user);
+        }
+        request.getSession().setAttribute(UserConstant.USER_LOGIN_STATE, UserPrincipal.of(user));
 
         return this.getLoginUserVo(user);
     }
 
     @Override
     public String getEncryptPassword(String userPassword){
-        // 加盐，混淆密码
-        final String SALT = "danta";
-        return DigestUtils.md5DigestAsHex((SALT + userPassword).getBytes() );
+        // BCrypt 自带随机盐，在独立的哈希线程池中计算
+        return passwordHashManager.hash(userPassword);
+    }
+
+    /**
+     * 重新哈希密码并保存（只在密码未被并发修改时更新，失败不影响登录）
+     */
+    private void rehashPassword(User user, String userPassword) {
+        try {
+            String newPassword = passwordHashManager.hash(userPassword);
+            UpdateWrapper<User> updateWrapper = new UpdateWrapper<>();
+            updateWrapper.eq("id", user.getId())
+                    .eq("userPassword", user.getUserPassword())
+                    .set("userPassword", newPassword);
+            this.update(updateWrapper);
+        } catch (BusinessException e) {
+            log.info("rehash password skipped, userId = {}, reason = {}", user.getId(), e.getMessage());
+        }
     }
 
     @Override
+    @ReadOnly
     public User getLoginUser(HttpServletRequest request) {
-        Object userObj = request.getSession().getAttribute(UserConstant.USER_LOGIN_STATE);
-        User currentUser  = (User) userObj;
-        if(currentUser == null || currentUser.getId() == null){
+        // 同一请求内已经解析过（例如权限拦截器），直接复用
+        Object resolvedUser = request.getAttribute(UserConstant.REQUEST_LOGIN_USER);
+        if (resolvedUser != null) {
+            return (User) resolvedUser;
+        }
+        if (tokenManager.isEnabled()) {
+            UserPrincipal principal = getLoginPrincipal(request);
+            User currentUser = userCacheManager.getUser(principal.getId(), this::getById);
+            if(currentUser == null){
+                throw new BusinessException(ErrorCode.NOT_LOGIN_ERROR,"用户未登录");
+            }
+            request.setAttribute(UserConstant.REQUEST_LOGIN_USER, currentUser);
+            return currentUser;
+        }
+        HttpSession session = request.getSession(false);
+        Object userObj = session == null ? null : session.getAttribute(UserConstant.USER_LOGIN_STATE);
+        if(!(userObj instanceof UserPrincipal) || ((UserPrincipal) userObj).getId() == null){
             throw new BusinessException(ErrorCode.NOT_LOGIN_ERROR,"用户未登录");
         }
-        // 从数据库中查询（追求性能可以直接返回）
-        Long userId = currentUser.getId();
-        currentUser = this.getById(userId);
+        UserPrincipal principal = (UserPrincipal) userObj;
+        // 从本地缓存中查询，未命中再查数据库（缓存有过期时间，角色变更、删除会在过期后生效）
+        User currentUser = userCacheManager.getUser(principal.getId(), this::getById);
         if(currentUser == null){
             throw new BusinessException(ErrorCode.NOT_LOGIN_ERROR,"用户未登录");
         }
+        // 用户信息已变更时刷新会话中的登录态
+        UserPrincipal latest = UserPrincipal.of(currentUser);
+        if(!latest.equals(principal)){
+            session.setAttribute(UserConstant.USER_LOGIN_STATE, latest);
+        }
+        request.setAttribute(UserConstant.REQUEST_LOGIN_USER, currentUser);
         return currentUser;
     }
 
+    @Override
+    public UserPrincipal getLoginPrincipal(HttpServletRequest request) {
+        Object resolvedPrincipal = request.getAttribute(UserConstant.REQUEST_LOGIN_PRINCIPAL);
+        if (resolvedPrincipal != null) {
+            return (UserPrincipal) resolvedPrincipal;
+        }
+        UserPrincipal principal;
+        if (tokenManager.isEnabled()) {
+            // 只验签，不查会话和数据库
+            principal = tokenManager.parse(getRequestToken(request));
+            if(principal == null || principal.getId() == null){
+                throw new BusinessException(ErrorCode.NOT_LOGIN_ERROR,"用户未登录");
+            }
+        } else {
+            principal = UserPrincipal.of(getLoginUser(request));
+        }
+        request.setAttribute(UserConstant.REQUEST_LOGIN_PRINCIPAL, principal);
+        return principal;
+    }
+
+    @Override
+    public LoginUserVo refreshToken(HttpServletRequest request) {
+        if(!tokenManager.isEnabled()){
+            throw new BusinessException(ErrorCode.OPERATION_ERROR,"未启用令牌认证");
+        }
+        // 按最新的用户信息签发，角色变更在刷新后生效
+        User loginUser = getLoginUser(request);
+        tokenManager.revoke(getRequestToken(request));
+        return getLoginUserVoWithToken(loginUser);
+    }
+
+    /**
+     * 签发令牌并返回带令牌的登录信息
+     */
+    private LoginUserVo getLoginUserVoWithToken(User user) {
+        LoginUserVo loginUserVo = this.getLoginUserVo(user);
+        loginUserVo.setToken(tokenManager.issue(UserPrincipal.of(user)));
+        loginUserVo.setTokenExpireSeconds(tokenManager.getExpireSeconds());
+        return loginUserVo;
+    }
+
+    /**
+     * 从请求头中获取令牌
+     */
+    private static String getRequestToken(HttpServletRequest request) {
+        String header = request.getHeader(UserConstant.TOKEN_HEADER);
+        if(header == null || !header.startsWith(UserConstant.TOKEN_PREFIX)){
+            return null;
+        }
+        return header.substring(UserConstant.TOKEN_PREFIX.length()).trim();
+    }
+
     @Override
     public LoginUserVo getLoginUserVo(User user) {
         if(user == null){
            return null;
         }
-        LoginUserVo loginUserVo = new LoginUserVo();
-        BeanUtil.copyProperties(user, loginUserVo);
-        return loginUserVo;
+        return userConvert.toLoginUserVo(user);
     }
 
     /**
@@ -153,9 +346,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
         if(user == null){
             return null;
         }
-        UserVO UserVO = new UserVO();
-        BeanUtil.copyProperties(user, UserVO);
-        return UserVO;
+        return userConvert.toUserVo(user);
 
     }
 
@@ -169,16 +360,422 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
         if(userList == null){
             return new ArrayList<>();
         }
-        return userList.stream().map(this::getUserVo).collect(Collectors.toList());
+        return userConvert.toUserVoList(userList);
+    }
+
+    @Override
+    @ReadOnly
+    public List<UserVO> listUserVoByIds(List<Long> ids) {
+        if(CollUtil.isEmpty(ids)){
+            return new ArrayList<>();
+        }
+        if(ids.size() > UserConstant.BATCH_MAX_SIZE){
+            throw new BusinessException(ErrorCode.PARAMS_ERROR,"单次最多查询" + UserConstant.BATCH_MAX_SIZE + "个用户");
+        }
+        Map<Long, User> userMap = this.listByIds(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<User> userList = ids.stream()
+                .distinct()
+                .map(userMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return this.getUserVoList(userList);
+    }
+
+    @Override
+    public List<BatchItemResult> batchAddUser(List<UserAddRequest> userAddRequestList) {
+        if(CollUtil.isEmpty(userAddRequestList) || userAddRequestList.size() > UserConstant.BATCH_MAX_SIZE){
+            throw new BusinessException(ErrorCode.PARAMS_ERROR,"单次新增数量应在1到" + UserConstant.BATCH_MAX_SIZE + "之间");
+        }
+        int size = userAddRequestList.size();
+        BatchItemResult[] results = new BatchItemResult[size];
+        // 1. 校验参数，批次内账号去重（账号 -> 下标）
+        Map<String, Integer> accountIndexMap = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            UserAddRequest userAddRequest = userAddRequestList.get(i);
+            String userAccount = userAddRequest == null ? null : userAddRequest.getUserAccount();
+            if(StrUtil.isBlank(userAccount) || userAccount.length() < 4){
+                results[i] = BatchItemResult.fail(i, null, "账号长度不能小于4位");
+            } else if(accountIndexMap.putIfAbsent(userAccount, i) != null){
+                results[i] = BatchItemResult.fail(i, null, "账号重复");
+            }
+        }
+        // 2. 一次查询已存在的账号（包括逻辑删除的用户）
+        if(!accountIndexMap.isEmpty()){
+            for (String existingAccount : this.baseMapper.listExistingAccounts(accountIndexMap.keySet())) {
+                Integer index = accountIndexMap.remove(existingAccount);
+                if(index != null){
+                    results[index] = BatchItemResult.fail(index, null, "账号已存在");
+                }
+            }
+        }
+        // 3. 批量插入，默认密码整批只哈希一次
+        List<User> userList = new ArrayList<>(accountIndexMap.size());
+        if(!accountIndexMap.isEmpty()){
+            String encryptPassword = getEncryptPassword(UserConstant.DEFAULT_PASSWORD);
+            for (Integer index : accountIndexMap.values()) {
+                User user = userConvert.toUser(userAddRequestList.get(index));
+                user.setUserPassword(encryptPassword);
+                userList.add(user);
+            }
+            try {
+                this.saveBatch(userList);
+            } catch (DuplicateKeyException e) {
+                // 查询之后有账号被并发占用，逐条插入以定位失败项
+                log.info("batch add user hit duplicate key, fallback to single insert");
+                saveOneByOne(userList);
+            }
+        }
+        List<Long> addedIds = new ArrayList<>();
+        int position = 0;
+        for (Integer index : accountIndexMap.values()) {
+            User user = userList.get(position++);
+            if(user.getId() == null){
+                results[index] = BatchItemResult.fail(index, null, "账号已存在");
+                continue;
+            }
+            results[index] = BatchItemResult.success(index, user.getId());
+            accountBloomFilterManager.add(user.getUserAccount());
+            addedIds.add(user.getId());
+        }
+        if(!addedIds.isEmpty()){
+            applicationEventPublisher.publishEvent(new UserChangeEvent(this, UserChangeEvent.ChangeType.ADD, addedIds));
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 逐条插入，账号冲突的用户 id 置空
+     */
+    private void saveOneByOne(List<User> userList) {
+        for (User user : userList) {
+            try {
+                this.save(user);
+            } catch (DuplicateKeyException e) {
+                user.setId(null);
+            }
+        }
+    }
+
+    @Override
+    public List<BatchItemResult> batchDeleteUser(List<Long> ids) {
+        if(CollUtil.isEmpty(ids) || ids.size() > UserConstant.BATCH_MAX_SIZE){
+            throw new BusinessException(ErrorCode.PARAMS_ERROR,"单次删除数量应在1到" + UserConstant.BATCH_MAX_SIZE + "之间");
+        }
+        List<Long> validIds = ids.stream()
+                .filter(id -> id != null && id > 0)
+                .distinct()
+                .collect(Collectors.toList());
+        // 只查 id 确认哪些用户存在，再一条语句批量逻辑删除
+        Set<Long> existingIds = new HashSet<>();
+        if(!validIds.isEmpty()){
+            QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select("id").in("id", validIds);
+            this.list(queryWrapper).forEach(user -> existingIds.add(user.getId()));
+        }
+        if(!existingIds.isEmpty()){
+            this.removeByIds(existingIds);
+            applicationEventPublisher.publishEvent(new UserChangeEvent(this, UserChangeEvent.ChangeType.DELETE, new ArrayList<>(existingIds)));
+        }
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        Set<Long> reported = new HashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if(id == null || id <= 0){
+                results.add(BatchItemResult.fail(i, id, "参数错误"));
+            } else if(!reported.add(id)){
+                results.add(BatchItemResult.fail(i, id, "id重复"));
+            } else if(existingIds.contains(id)){
+                results.add(BatchItemResult.success(i, id));
+            } else {
+                results.add(BatchItemResult.fail(i, id, "用户不存在"));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    @ReadOnly
+    public long exportUsers(UserQueryRequest userQueryRequest, ExportFormatEnum exportFormatEnum,
+                            OutputStream outputStream) throws IOException {
+        if(userQueryRequest == null){
+            userQueryRequest = new UserQueryRequest();
+        }
+        // 按主键顺序导出，忽略排序参数
+        userQueryRequest.setSortField(null);
+        QueryWrapper<User> queryWrapper = this.getUserQueryWrapper(userQueryRequest);
+        queryWrapper.select("id", "userAccount", "userName", "userAvatar", "userProfile", "userRole", "createTime")
+                .eq("isDelete", 0)
+                .orderByAsc("id");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        UserExportWriter exportWriter = exportFormatEnum == ExportFormatEnum.CSV
+                ? new CsvUserExportWriter(writer)
+                : new NdjsonUserExportWriter(writer, objectMapper);
+        long[] rows = {0};
+        try {
+            this.baseMapper.streamUsers(queryWrapper, context -> {
+                try {
+                    exportWriter.write(userConvert.toUserVo(context.getResultObject()));
+                    // 定期刷新，客户端持续收到数据，服务端缓冲区不随行数增长
+                    if(++rows[0] % EXPORT_FLUSH_ROWS == 0){
+                        exportWriter.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        exportWriter.flush();
+        return rows[0];
+    }
+
+    /**
+     * 导出行写出
+     */
+    private interface UserExportWriter {
+
+        void write(UserVO userVO) throws IOException;
+
+        /**
+         * 把缓冲的内容写到输出流
+         */
+        void flush() throws IOException;
+    }
+
+    /**
+     * 每行一个 JSON 对象（与接口返回的 UserVO 序列化一致）
+     */
+    private static class NdjsonUserExportWriter implements UserExportWriter {
+
+        private final JsonGenerator generator;
+
+        private final ObjectWriter objectWriter;
+
+        NdjsonUserExportWriter(Writer writer, ObjectMapper objectMapper) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(writer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // 行之间只用换行分隔（默认会在根级别的值之间插入空格）
+            generator.setRootValueSeparator(null);
+            // 刷新由导出循环统一控制
+            this.objectWriter = objectMapper.writerFor(UserVO.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+
+        @Override
+        public void write(UserVO userVO) throws IOException {
+            objectWriter.writeValue(generator, userVO);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    /**
+     * CSV，带 UTF-8 BOM 便于 Excel 识别编码
+     */
+    private static class CsvUserExportWriter implements UserExportWriter {
+
+        private final CsvWriter csvWriter;
+
+        CsvUserExportWriter(Writer writer) throws IOException {
+            writer.write('\uFEFF');
+            this.csvWriter = CsvUtil.getWriter(writer);
+            csvWriter.writeHeaderLine("id", "userAccount", "userName", "userAvatar", "userProfile", "userRole", "createTime");
+        }
+
+        @Override
+        public void write(UserVO userVO) throws IOException {
+            try {
+                csvWriter.writeLine(String.valueOf(userVO.getId()), userVO.getUserAccount(), userVO.getUserName(),
+                        userVO.getUserAvatar(), userVO.getUserProfile(), userVO.getUserRole(),
+                        userVO.getCreateTime() == null ? null : DateUtil.formatDateTime(userVO.getCreateTime()));
+            } catch (IORuntimeException e) {
+                throw toIOException(e);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            try {
+                csvWriter.flush();
+            } catch (IORuntimeException e) {
+                throw toIOException(e);
+            }
+        }
+
+        private static IOException toIOException(IORuntimeException e) {
+            return e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e);
+        }
+    }
+
+    @Override
+    public UserImportResultVO importUsers(InputStream inputStream) throws IOException {
+        UserImportResultVO result = new UserImportResultVO();
+        CsvReadConfig csvReadConfig = CsvReadConfig.defaultConfig();
+        csvReadConfig.setContainsHeader(true);
+        csvReadConfig.setSkipEmptyRows(true);
+        csvReadConfig.setTrimField(true);
+        CsvReader csvReader = new CsvReader(IoUtil.getBomReader(inputStream), csvReadConfig);
+        List<UserImportRow> chunk = new ArrayList<>(importBatchSize);
+        // 整个文件内账号去重
+        Set<String> importedAccounts = new HashSet<>();
+        String[] defaultPasswordHash = {null};
+        try {
+            csvReader.read(row -> {
+                long rowNumber = result.getTotal() + 1;
+                result.setTotal(rowNumber);
+                if(rowNumber == 1 && !row.getFieldMap().containsKey("userAccount")){
+                    throw new BusinessException(ErrorCode.PARAMS_ERROR,"缺少 userAccount 列");
+                }
+                if(rowNumber > importMaxRows){
+                    addImportError(result, BatchItemResult.fail((int) rowNumber, null, "超过单次导入上限" + importMaxRows + "行"));
+                    return;
+                }
+                String userAccount = row.getByName("userAccount");
+                String userPassword = row.getByName("userPassword");
+                UserRoleEnum userRoleEnum = StrUtil.isBlank(row.getByName("userRole"))
+                        ? UserRoleEnum.USER : UserRoleEnum.getEnumByValue(row.getByName("userRole"));
+                String message = null;
+                if(StrUtil.isBlank(userAccount) || userAccount.length() < 4){
+                    message = "账号长度不能小于4位";
+                } else if(StrUtil.isNotBlank(userPassword) && userPassword.length() < 8){
+                    message = "密码长度不能小于8位";
+                } else if(userRoleEnum == null){
+                    message = "用户角色错误";
+                } else if(!importedAccounts.add(userAccount)){
+                    message = "账号重复";
+                }
+                if(message != null){
+                    addImportError(result, BatchItemResult.fail((int) rowNumber, null, message));
+                    return;
+                }
+                User user = new User();
+                user.setUserAccount(userAccount);
+                user.setUserName(StrUtil.blankToDefault(row.getByName("userName"), "无名"));
+                user.setUserAvatar(StrUtil.emptyToNull(row.getByName("userAvatar")));
+                user.setUserProfile(StrUtil.emptyToNull(row.getByName("userProfile")));
+                user.setUserRole(userRoleEnum.getValue());
+                chunk.add(new UserImportRow((int) rowNumber, user, StrUtil.emptyToNull(userPassword)));
+                if(chunk.size() >= importBatchSize){
+                    importChunk(chunk, defaultPasswordHash, result);
+                    chunk.clear();
+                }
+            });
+        } catch (IORuntimeException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e);
+        }
+        if(!chunk.isEmpty()){
+            importChunk(chunk, defaultPasswordHash, result);
+        }
+        return result;
+    }
+
+    /**
+     * 导入一批用户：查重、并行哈希、批量插入
+     *
+     * @param defaultPasswordHash 未填写密码时使用的默认密码哈希，整个导入只计算一次
+     */
+    private void importChunk(List<UserImportRow> chunk, String[] defaultPasswordHash, UserImportResultVO result) {
+        // 1. 一次查询已存在的账号（包括逻辑删除的用户）
+        Map<String, UserImportRow> accountRowMap = new LinkedHashMap<>();
+        chunk.forEach(row -> accountRowMap.put(row.user.getUserAccount(), row));
+        for (String existingAccount : this.baseMapper.listExistingAccounts(accountRowMap.keySet())) {
+            UserImportRow row = accountRowMap.remove(existingAccount);
+            if(row != null){
+                addImportError(result, BatchItemResult.fail(row.rowNumber, null, "账号已存在"));
+            }
+        }
+        if(accountRowMap.isEmpty()){
+            return;
+        }
+        // 2. 在哈希线程池中并行计算密码哈希
+        List<UserImportRow> rows = new ArrayList<>(accountRowMap.values());
+        List<String> passwords = new ArrayList<>();
+        for (UserImportRow row : rows) {
+            if(row.password != null){
+                passwords.add(row.password);
+            }
+        }
+        Iterator<String> hashes = passwordHashManager.hashAll(passwords).iterator();
+        List<User> userList = new ArrayList<>(rows.size());
+        for (UserImportRow row : rows) {
+            if(row.password != null){
+                row.user.setUserPassword(hashes.next());
+            } else {
+                if(defaultPasswordHash[0] == null){
+                    defaultPasswordHash[0] = getEncryptPassword(UserConstant.DEFAULT_PASSWORD);
+                }
+                row.user.setUserPassword(defaultPasswordHash[0]);
+            }
+            userList.add(row.user);
+        }
+        // 3. 按批次大小一次批量插入
+        try {
+            this.saveBatch(userList, importBatchSize);
+        } catch (DuplicateKeyException e) {
+            // 查询之后有账号被并发占用（或大小写不同的账号命中唯一索引），逐条插入以定位失败项
+            log.info("import user hit duplicate key, fallback to single insert");
+            saveOneByOne(userList);
+        }
+        List<Long> addedIds = new ArrayList<>(rows.size());
+        for (UserImportRow row : rows) {
+            if(row.user.getId() == null){
+                addImportError(result, BatchItemResult.fail(row.rowNumber, null, "账号已存在"));
+                continue;
+            }
+            accountBloomFilterManager.add(row.user.getUserAccount());
+            addedIds.add(row.user.getId());
+        }
+        result.setSuccessCount(result.getSuccessCount() + addedIds.size());
+        if(!addedIds.isEmpty()){
+            applicationEventPublisher.publishEvent(new UserChangeEvent(this, UserChangeEvent.ChangeType.ADD, addedIds));
+        }
+    }
+
+    private static void addImportError(UserImportResultVO result, BatchItemResult error) {
+        result.setFailCount(result.getFailCount() + 1);
+        if(result.getErrors().size() < IMPORT_MAX_ERRORS){
+            result.getErrors().add(error);
+        }
+    }
+
+    /**
+     * 待导入的一行（密码为空表示使用默认密码）
+     */
+    private static class UserImportRow {
+
+        private final int rowNumber;
+
+        private final User user;
+
+        private final String password;
+
+        UserImportRow(int rowNumber, User user, String password) {
+            this.rowNumber = rowNumber;
+            this.user = user;
+            this.password = password;
+        }
     }
 
     @Override
     public boolean userLogout(HttpServletRequest request) {
-        Object userObj = request.getSession().getAttribute(UserConstant.USER_LOGIN_STATE);
-        if(userObj == null ){
+        if(tokenManager.isEnabled()){
+            if(!tokenManager.revoke(getRequestToken(request))){
+                throw new BusinessException(ErrorCode.OPERATION_ERROR);
+            }
+            return true;
+        }
+        HttpSession session = request.getSession(false);
+        if(session == null || session.getAttribute(UserConstant.USER_LOGIN_STATE) == null){
             throw new BusinessException(ErrorCode.OPERATION_ERROR);
         }
-        request.getSession().removeAttribute(UserConstant.USER_LOGIN_STATE);
+        session.removeAttribute(UserConstant.USER_LOGIN_STATE);
 
         return true;
     }
@@ -198,21 +795,141 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
         String sortField = userQueryRequest.getSortField();
         String sortOrder = userQueryRequest.getSortOrder();
 
+        // 排序字段会拼进 ORDER BY，只允许白名单中的列
+        UserSortFieldEnum sortFieldEnum = UserSortFieldEnum.getEnumByValue(sortField);
+        if(sortFieldEnum == null){
+            throw new BusinessException(ErrorCode.PARAMS_ERROR,"不支持的排序字段");
+        }
+
         QueryWrapper<User> queryWrapper = new QueryWrapper<>();
         queryWrapper.eq(ObjectUtil.isNotNull(id), "id", id);
-        queryWrapper.eq(ObjectUtil.isNotNull(userRole), "userRole", userRole);
-        queryWrapper.like(ObjectUtil.isNotNull(userName), "userName", userName);
-        queryWrapper.like(ObjectUtil.isNotNull(userAccount), "userAccount", userAccount);
-        queryWrapper.like(ObjectUtil.isNotNull(userProfile),"userProfile", userProfile);
+        queryWrapper.eq(StrUtil.isNotBlank(userRole), "userRole", userRole);
+        queryWrapper.like(StrUtil.isNotBlank(userName), "userName", userName);
+        queryWrapper.like(StrUtil.isNotBlank(userAccount), "userAccount", userAccount);
+        queryWrapper.like(StrUtil.isNotBlank(userProfile),"userProfile", userProfile);
         // sortOrder.equals("ascend") 来判断排序顺序是否是升序（ascend）,如果 sortOrder 不等于 "ascend"，返回 false，表示不需要升序排序，可能是降序排序（descend）。
         // sortField排序的字段
-        queryWrapper.orderBy(StrUtil.isNotEmpty(sortField), sortOrder.equals("ascend"), sortField);
+        queryWrapper.orderBy(StrUtil.isNotEmpty(sortField), "ascend".equals(sortOrder), sortFieldEnum.getValue());
 
 
-        return null;
+        return queryWrapper;
+    }
+
+    @Override
+    @ReadOnly
+    public PageResult<User> listUserByPage(UserQueryRequest userQueryRequest) {
+        if(userQueryRequest == null){
+            throw new BusinessException(ErrorCode.PARAMS_ERROR,"参数不能为空");
+        }
+        long current = userQueryRequest.getCurrent();
+        long pageSize = userQueryRequest.getPageSize();
+        // 总数由 userCountManager 统计（带缓存），分页查询本身不再执行 COUNT
+        Page<User> userPage = this.page(new Page<>(current, pageSize, false),
+                this.getUserQueryWrapper(userQueryRequest));
+        PageResult<User> pageResult = new PageResult<>(current, pageSize, 0, userQueryRequest.isSearchCount());
+        pageResult.setRecords(userPage.getRecords());
+        fillTotal(pageResult, userQueryRequest);
+        return pageResult;
+    }
+
+    /**
+     * 需要统计总数时，从缓存或估算中获取总数并标记是否精确
+     */
+    private void fillTotal(PageResult<User> pageResult, UserQueryRequest userQueryRequest) {
+        if(!userQueryRequest.isSearchCount()){
+            return;
+        }
+        UserCountManager.CountResult countResult = userCountManager.count(userQueryRequest,
+                () -> this.getUserQueryWrapper(userQueryRequest));
+        pageResult.setTotal(countResult.getTotal());
+        pageResult.setExactTotal(countResult.isExact());
     }
-}
 
+    @Override
+    @ReadOnly
+    public PageResult<User> listUserByCursor(UserQueryRequest userQueryRequest) {
+        if(userQueryRequest == null){
+            throw new BusinessException(ErrorCode.PARAMS_ERROR,"参数不能为空");
+        }
+        int pageSize = userQueryRequest.getPageSize();
+        if(pageSize <= 0){
+            throw new BusinessException(ErrorCode.PARAMS_ERROR,"页面大小必须大于0");
+        }
+        UserSortFieldEnum sortFieldEnum = UserSortFieldEnum.getEnumByValue(userQueryRequest.getSortField());
+        if(sortFieldEnum == null || !sortFieldEnum.isCursorSupported()){
+            throw new BusinessException(ErrorCode.PARAMS_ERROR,"该字段不支持游标分页");
+        }
+        boolean isAsc = "ascend".equals(userQueryRequest.getSortOrder());
+        // 1. 按筛选条件统计总数（可关闭）
+        QueryWrapper<User> queryWrapper = this.getUserQueryWrapper(userQueryRequest);
+        PageResult<User> pageResult = new PageResult<>(1, pageSize, 0, userQueryRequest.isSearchCount());
+        fillTotal(pageResult, userQueryRequest);
+        // 2. 追加游标条件：(排序值, id) 严格位于上一页最后一行之后
+        String cursor = userQueryRequest.getCursor();
+        if(StrUtil.isNotEmpty(cursor)){
+            applyCursor(queryWrapper, decodeCursor(cursor, sortFieldEnum, isAsc), sortFieldEnum, isAsc);
+        }
+        // id 作为第二排序键，保证排序值相同时顺序稳定（按 id 排序时已经由 getUserQueryWrapper 添加）
+        queryWrapper.orderBy(!UserSortFieldEnum.ID.getValue().equals(userQueryRequest.getSortField()), isAsc, "id");
+        // 3. 多取一条判断是否还有下一页，不查询总数
+        List<User> records = this.page(new Page<>(1, pageSize + 1, false), queryWrapper).getRecords();
+        if(records.size() > pageSize){
+            records = new ArrayList<>(records.subList(0, pageSize));
+            pageResult.setNextCursor(encodeCursor(records.get(records.size() - 1), sortFieldEnum, isAsc));
+        }
+        pageResult.setRecords(records);
+        return pageResult;
+    }
 
+    /**
+     * 生成游标：Base64Url(排序字段,排序顺序,id,排序值)，对调用方不透明
+     */
+    static String encodeCursor(User lastUser, UserSortFieldEnum sortFieldEnum, boolean isAsc) {
+        String raw = sortFieldEnum.getValue() + "," + (isAsc ? "ascend" : "descend") + ","
+                + lastUser.getId() + "," + sortFieldEnum.getExtractor().apply(lastUser);
+        return Base64.encodeUrlSafe(raw);
+    }
 
+    /**
+     * 解析游标，并校验游标与本次请求的排序条件一致
+     *
+     * @return [排序字段, 排序顺序, id, 排序值]
+     */
+    static String[] decodeCursor(String cursor, UserSortFieldEnum sortFieldEnum, boolean isAsc) {
+        String[] parts;
+        try {
+            parts = Base64.decodeStr(cursor).split(",", 4);
+            Long.parseLong(parts[2]);
+            // 排序值也要能还原，否则查询时才报错
+            sortFieldEnum.getParser().apply(parts[3]);
+        } catch (Exception e) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR,"游标无效");
+        }
+        if(!sortFieldEnum.getValue().equals(parts[0])
+                || !(isAsc ? "ascend" : "descend").equals(parts[1])){
+            throw new BusinessException(ErrorCode.PARAMS_ERROR,"游标与排序条件不匹配");
+        }
+        return parts;
+    }
 
+    /**
+     * 追加游标条件：排序值相同时按 id 区分，降序时两个比较都取反
+     */
+    static void applyCursor(QueryWrapper<User> queryWrapper, String[] parts, UserSortFieldEnum sortFieldEnum,
+                            boolean isAsc) {
+        Long lastId = Long.valueOf(parts[2]);
+        if(sortFieldEnum == UserSortFieldEnum.ID){
+            queryWrapper.gt(isAsc, "id", lastId).lt(!isAsc, "id", lastId);
+            return;
+        }
+        String column = sortFieldEnum.getValue();
+        Object lastValue = sortFieldEnum.getParser().apply(parts[3]);
+        queryWrapper.and(wrapper -> {
+            if(isAsc){
+                wrapper.gt(column, lastValue).or(w -> w.eq(column, lastValue).gt("id", lastId));
+            } else {
+                wrapper.lt(column, lastValue).or(w -> w.eq(column, lastValue).lt("id", lastId));
+            }
+        });
+    }
+}
@@ -0,0 +1,139 @@
+package com.danta.lunpicrurebackend.utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 图片缩小（区域平均）
+ * <p>
+ * 像素为 ARGB 打包的 int 数组。目标图按行切分成若干块，在 ForkJoinPool 中并行计算，
+ * 每块不超过 tilePixels 个目标像素；每个目标像素取它覆盖的源区域的各通道平均值，缩小时不会出现锯齿。
+ */
+public class ImageResizer {
+
+    private final ForkJoinPool pool;
+
+    private final int tilePixels;
+
+    /**
+     * @param pool       并行计算使用的线程池
+     * @param tilePixels 每块的目标像素数，小图只有一块，直接在调用线程计算
+     */
+    public ImageResizer(ForkJoinPool pool, int tilePixels) {
+        if (tilePixels <= 0) {
+            throw new IllegalArgumentException("tilePixels must be positive");
+        }
+        this.pool = pool;
+        this.tilePixels = tilePixels;
+    }
+
+    /**
+     * 缩放到目标尺寸
+     *
+     * @param src       源像素（ARGB，行优先）
+     * @param srcWidth  源宽度
+     * @param srcHeight 源高度
+     * @param dstWidth  目标宽度（不大于源宽度）
+     * @param dstHeight 目标高度（不大于源高度）
+     * @return 目标像素（ARGB，行优先）
+     */
+    public int[] resize(int[] src, int srcWidth, int srcHeight, int dstWidth, int dstHeight) {
+        if (dstWidth <= 0 || dstHeight <= 0 || dstWidth > srcWidth || dstHeight > srcHeight) {
+            throw new IllegalArgumentException("invalid target size " + dstWidth + "x" + dstHeight
+                    + " for source " + srcWidth + "x" + srcHeight);
+        }
+        int[] dst = new int[dstWidth * dstHeight];
+        ResizeTask task = new ResizeTask(src, srcWidth, srcHeight, dst, dstWidth, dstHeight, 0, dstHeight);
+        if ((long) dstWidth * dstHeight <= tilePixels) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return dst;
+    }
+
+    /**
+     * 等比缩小到宽高都不超过 maxSide，返回 {宽, 高}；已经不超过时返回原尺寸
+     */
+    public static int[] fitWithin(int width, int height, int maxSide) {
+        if (width <= maxSide && height <= maxSide) {
+            return new int[]{width, height};
+        }
+        if (width >= height) {
+            return new int[]{maxSide, Math.max(1, (int) Math.round((double) height * maxSide / width))};
+        }
+        return new int[]{Math.max(1, (int) Math.round((double) width * maxSide / height)), maxSide};
+    }
+
+    private class ResizeTask extends RecursiveAction {
+
+        private final int[] src;
+
+        private final int srcWidth;
+
+        private final int srcHeight;
+
+        private final int[] dst;
+
+        private final int dstWidth;
+
+        private final int dstHeight;
+
+        private final int rowFrom;
+
+        private final int rowTo;
+
+        ResizeTask(int[] src, int srcWidth, int srcHeight, int[] dst, int dstWidth, int dstHeight,
+                   int rowFrom, int rowTo) {
+            this.src = src;
+            this.srcWidth = srcWidth;
+            this.srcHeight = srcHeight;
+            this.dst = dst;
+            this.dstWidth = dstWidth;
+            this.dstHeight = dstHeight;
+            this.rowFrom = rowFrom;
+            this.rowTo = rowTo;
+        }
+
+        @Override
+        protected void compute() {
+            int rows = rowTo - rowFrom;
+            if (rows > 1 && (long) rows * dstWidth > tilePixels) {
+                int middle = rowFrom + rows / 2;
+                invokeAll(new ResizeTask(src, srcWidth, srcHeight, dst, dstWidth, dstHeight, rowFrom, middle),
+                        new ResizeTask(src, srcWidth, srcHeight, dst, dstWidth, dstHeight, middle, rowTo));
+                return;
+            }
+            for (int y = rowFrom; y < rowTo; y++) {
+                int y0 = (int) ((long) y * srcHeight / dstHeight);
+                int y1 = Math.max(y0 + 1, (int) ((long) (y + 1) * srcHeight / dstHeight));
+                for (int x = 0; x < dstWidth; x++) {
+                    int x0 = (int) ((long) x * srcWidth / dstWidth);
+                    int x1 = Math.max(x0 + 1, (int) ((long) (x + 1) * srcWidth / dstWidth));
+                    dst[y * dstWidth + x] = average(x0, x1, y0, y1);
+                }
+            }
+        }
+
+        private int average(int x0, int x1, int y0, int y1) {
+            long a = 0;
+            long r = 0;
+            long g = 0;
+            long b = 0;
+            for (int sy = y0; sy < y1; sy++) {
+                int offset = sy * srcWidth;
+                for (int sx = x0; sx < x1; sx++) {
+                    int pixel = src[offset + sx];
+                    a += pixel >>> 24;
+                    r += (pixel >> 16) & 0xFF;
+                    g += (pixel >> 8) & 0xFF;
+                    b += pixel & 0xFF;
+                }
+            }
+            long count = (long) (x1 - x0) * (y1 - y0);
+            long half = count / 2;
+            return (int) ((a + half) / count) << 24 | (int) ((r + half) / count) << 16
+                    | (int) ((g + half) / count) << 8 | (int) ((b + half) / count);
+        }
+    }
+}
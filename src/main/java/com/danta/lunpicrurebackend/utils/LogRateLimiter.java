@@ -0,0 +1,54 @@
+package com.danta.lunpicrurebackend.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 日志限流
+ * <p>
+ * 每个时间窗口内最多放行 permits 条，其余的只计数；放行的日志可以通过 {@link #drainSuppressed()}
+ * 带上之前被跳过的条数。无锁实现，窗口切换时的计数是近似的。
+ */
+public class LogRateLimiter {
+
+    private final int permits;
+
+    private final long windowNanos;
+
+    private final AtomicLong windowStart;
+
+    private final AtomicInteger used = new AtomicInteger();
+
+    private final LongAdder suppressed = new LongAdder();
+
+    public LogRateLimiter(int permits, long windowMillis) {
+        this.permits = permits;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.windowStart = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 本条日志是否可以输出
+     */
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            used.set(0);
+        }
+        if (used.incrementAndGet() <= permits) {
+            return true;
+        }
+        suppressed.increment();
+        return false;
+    }
+
+    /**
+     * 取出并清零被跳过的条数
+     */
+    public long drainSuppressed() {
+        return suppressed.sumThenReset();
+    }
+}
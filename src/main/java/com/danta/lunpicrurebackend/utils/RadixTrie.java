@@ -0,0 +1,248 @@
+package com.danta.lunpicrurebackend.utils;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.function.LongPredicate;
+
+/**
+ * 压缩前缀树（Radix Trie），用于前缀检索
+ * <p>
+ * 只有一个子节点的路径会被压缩成一条边，子节点按首字符有序存放在数组中，词条对应的 id 存放在 long 数组中。
+ * 非线程安全，由调用方加锁。
+ */
+public class RadixTrie {
+
+    private static final Node[] EMPTY_CHILDREN = new Node[0];
+
+    private static final long[] EMPTY_IDS = new long[0];
+
+    private final Node root = new Node("");
+
+    /**
+     * 词条数（同一词条的不同 id 分别计数）
+     */
+    private int size;
+
+    /**
+     * 添加词条
+     *
+     * @param term 词条
+     * @param id   词条关联的 id
+     */
+    public void add(String term, long id) {
+        Node node = root;
+        int offset = 0;
+        while (offset < term.length()) {
+            int index = node.indexOf(term.charAt(offset));
+            if (index < 0) {
+                Node leaf = new Node(term.substring(offset));
+                node.insertChild(-index - 1, leaf);
+                node = leaf;
+                break;
+            }
+            Node child = node.children[index];
+            int common = commonPrefixLength(child.label, term, offset);
+            if (common < child.label.length()) {
+                // 边只匹配了一部分，拆分成公共部分 + 剩余部分
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children = new Node[]{child};
+                middle.childCount = 1;
+                node.children[index] = middle;
+                child = middle;
+            }
+            node = child;
+            offset += common;
+        }
+        if (node.addId(id)) {
+            size++;
+        }
+    }
+
+    /**
+     * 删除词条
+     *
+     * @param term 词条
+     * @param id   词条关联的 id
+     */
+    public void remove(String term, long id) {
+        Node parent = null;
+        Node node = root;
+        int offset = 0;
+        while (offset < term.length()) {
+            int index = node.indexOf(term.charAt(offset));
+            if (index < 0) {
+                return;
+            }
+            Node child = node.children[index];
+            if (!term.startsWith(child.label, offset)) {
+                return;
+            }
+            parent = node;
+            node = child;
+            offset += child.label.length();
+        }
+        if (!node.removeId(id)) {
+            return;
+        }
+        size--;
+        if (parent == null || node.idCount > 0) {
+            return;
+        }
+        // 清理空节点，并把只剩一个子节点的中间节点和子节点合并
+        if (node.childCount == 0) {
+            parent.removeChild(node);
+            if (parent != root && parent.idCount == 0 && parent.childCount == 1) {
+                parent.mergeWithOnlyChild();
+            }
+        } else if (node.childCount == 1) {
+            node.mergeWithOnlyChild();
+        }
+    }
+
+    /**
+     * 按字典序遍历以 prefix 开头的词条 id
+     *
+     * @param prefix   前缀
+     * @param consumer 返回 false 时停止遍历
+     */
+    public void forEachWithPrefix(String prefix, LongPredicate consumer) {
+        Node node = root;
+        int offset = 0;
+        while (offset < prefix.length()) {
+            int index = node.indexOf(prefix.charAt(offset));
+            if (index < 0) {
+                return;
+            }
+            Node child = node.children[index];
+            int remaining = prefix.length() - offset;
+            if (remaining <= child.label.length()) {
+                // 前缀在这条边上结束
+                if (!child.label.startsWith(prefix.substring(offset))) {
+                    return;
+                }
+            } else if (!prefix.startsWith(child.label, offset)) {
+                return;
+            }
+            node = child;
+            offset += child.label.length();
+        }
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node current = stack.pop();
+            for (int i = 0; i < current.idCount; i++) {
+                if (!consumer.test(current.ids[i])) {
+                    return;
+                }
+            }
+            for (int i = current.childCount - 1; i >= 0; i--) {
+                stack.push(current.children[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static int commonPrefixLength(String label, String term, int offset) {
+        int max = Math.min(label.length(), term.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == term.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+
+        /**
+         * 从父节点到当前节点的边上的字符
+         */
+        private String label;
+
+        /**
+         * 子节点，按 label 首字符升序
+         */
+        private Node[] children = EMPTY_CHILDREN;
+
+        private int childCount;
+
+        private long[] ids = EMPTY_IDS;
+
+        private int idCount;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        /**
+         * 二分查找首字符为 c 的子节点，未找到返回 -(插入位置) - 1
+         */
+        private int indexOf(char c) {
+            int low = 0;
+            int high = childCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = children[mid].label.charAt(0);
+                if (midChar < c) {
+                    low = mid + 1;
+                } else if (midChar > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private void insertChild(int index, Node child) {
+            if (childCount == children.length) {
+                children = Arrays.copyOf(children, Math.max(2, childCount * 2));
+            }
+            System.arraycopy(children, index, children, index + 1, childCount - index);
+            children[index] = child;
+            childCount++;
+        }
+
+        private void removeChild(Node child) {
+            int index = indexOf(child.label.charAt(0));
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            children[--childCount] = null;
+        }
+
+        private void mergeWithOnlyChild() {
+            Node child = children[0];
+            label = label + child.label;
+            children = child.children;
+            childCount = child.childCount;
+            ids = child.ids;
+            idCount = child.idCount;
+        }
+
+        private boolean addId(long id) {
+            for (int i = 0; i < idCount; i++) {
+                if (ids[i] == id) {
+                    return false;
+                }
+            }
+            if (idCount == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(1, idCount * 2));
+            }
+            ids[idCount++] = id;
+            return true;
+        }
+
+        private boolean removeId(long id) {
+            for (int i = 0; i < idCount; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--idCount];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
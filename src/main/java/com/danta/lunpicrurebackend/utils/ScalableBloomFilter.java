@@ -0,0 +1,173 @@
+package com.danta.lunpicrurebackend.utils;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 可扩容布隆过滤器（Scalable Bloom Filter）
+ * <p>
+ * 由多级过滤器组成，当前级写满后新增一级，容量翻倍、误判率减半（第一级为 fpp / 2），整体误判率不超过 fpp。
+ * 写入和查询都是无锁的（位数组使用 CAS），只有扩容时加锁。
+ */
+public class ScalableBloomFilter {
+
+    private static final double LN2_SQUARED = Math.log(2) * Math.log(2);
+
+    private final double fpp;
+
+    private volatile Stage[] stages;
+
+    /**
+     * @param initialCapacity 第一级的预期元素数
+     * @param fpp             整体误判率上限
+     */
+    public ScalableBloomFilter(long initialCapacity, double fpp) {
+        this.fpp = fpp;
+        this.stages = new Stage[]{new Stage(Math.max(initialCapacity, 1), fpp / 2)};
+    }
+
+    /**
+     * 添加元素
+     */
+    public void add(String value) {
+        long[] hash = MurmurHash.hash128(value);
+        Stage[] currentStages = stages;
+        for (Stage stage : currentStages) {
+            if (stage.mightContain(hash)) {
+                return;
+            }
+        }
+        Stage current = currentStages[currentStages.length - 1];
+        current.put(hash);
+        if (current.count.incrementAndGet() >= current.capacity) {
+            grow(current);
+        }
+    }
+
+    /**
+     * 判断元素是否可能存在：false 表示一定不存在
+     */
+    public boolean mightContain(String value) {
+        long[] hash = MurmurHash.hash128(value);
+        for (Stage stage : stages) {
+            if (stage.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 已添加的元素数（近似，重复判定为存在的元素不计入）
+     */
+    public long size() {
+        long size = 0;
+        for (Stage stage : stages) {
+            size += stage.count.get();
+        }
+        return size;
+    }
+
+    /**
+     * 位数组占用的内存（字节）
+     */
+    public long memoryBytes() {
+        long bytes = 0;
+        for (Stage stage : stages) {
+            bytes += stage.bits.length() * 8L;
+        }
+        return bytes;
+    }
+
+    public int stageCount() {
+        return stages.length;
+    }
+
+    /**
+     * 按当前元素数估算的整体误判率：1 - Π(1 - 每级误判率)
+     */
+    public double expectedFpp() {
+        double notFalsePositive = 1;
+        for (Stage stage : stages) {
+            notFalsePositive *= 1 - stage.expectedFpp();
+        }
+        return 1 - notFalsePositive;
+    }
+
+    public double getFpp() {
+        return fpp;
+    }
+
+    private synchronized void grow(Stage full) {
+        Stage[] currentStages = stages;
+        if (currentStages[currentStages.length - 1] != full) {
+            return;
+        }
+        Stage[] newStages = new Stage[currentStages.length + 1];
+        System.arraycopy(currentStages, 0, newStages, 0, currentStages.length);
+        newStages[currentStages.length] = new Stage(full.capacity * 2, full.fpp / 2);
+        stages = newStages;
+    }
+
+    private static final class Stage {
+
+        private final AtomicLongArray bits;
+
+        private final long bitSize;
+
+        private final int hashCount;
+
+        private final long capacity;
+
+        private final double fpp;
+
+        private final AtomicLong count = new AtomicLong();
+
+        private Stage(long capacity, double fpp) {
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(fpp) / LN2_SQUARED);
+            this.bits = new AtomicLongArray((int) ((optimalBits + 63) >>> 6));
+            this.bitSize = bits.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitSize / capacity * Math.log(2)));
+            this.capacity = capacity;
+            this.fpp = fpp;
+        }
+
+        private void put(long[] hash) {
+            long combined = hash[0];
+            for (int i = 0; i < hashCount; i++) {
+                long bitIndex = (combined & Long.MAX_VALUE) % bitSize;
+                int wordIndex = (int) (bitIndex >>> 6);
+                long mask = 1L << bitIndex;
+                long word;
+                do {
+                    word = bits.get(wordIndex);
+                    if ((word & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(wordIndex, word, word | mask));
+                combined += hash[1];
+            }
+        }
+
+        private boolean mightContain(long[] hash) {
+            long combined = hash[0];
+            for (int i = 0; i < hashCount; i++) {
+                long bitIndex = (combined & Long.MAX_VALUE) % bitSize;
+                if ((bits.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) == 0) {
+                    return false;
+                }
+                combined += hash[1];
+            }
+            return true;
+        }
+
+        /**
+         * (1 - e^(-kn/m))^k
+         */
+        private double expectedFpp() {
+            return Math.pow(1 - Math.exp(-(double) hashCount * count.get() / bitSize), hashCount);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.danta.lunpicrurebackend.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按 key 的令牌桶限流（GCRA 实现）
+ * <p>
+ * 每个 key 只保存一个"理论到达时间"（TAT），一次获取就是一次 CAS：
+ * 新 TAT = max(TAT, now) + 发放间隔，新 TAT 超出当前时间不多于 容量 × 发放间隔 时放行。
+ * 与令牌桶等价（每个发放间隔补充一个令牌，最多攒 burst 个），但不需要单独的补充线程和锁。
+ * TAT 已经过去的 key 等价于满桶，可以随时清理。
+ */
+public class TokenBucketLimiter {
+
+    private final long emissionIntervalNanos;
+
+    private final long burstNanos;
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param permits      每个周期补充的令牌数
+     * @param periodMillis 周期（毫秒）
+     * @param burst        桶容量（允许的突发请求数）
+     */
+    public TokenBucketLimiter(int permits, long periodMillis, int burst) {
+        if (permits <= 0 || periodMillis <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("permits, period and burst must be positive");
+        }
+        this.emissionIntervalNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis) / permits;
+        this.burstNanos = emissionIntervalNanos * burst;
+    }
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @return 是否放行
+     */
+    public boolean tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong tat = buckets.get(key);
+        if (tat == null) {
+            tat = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long current = tat.get();
+            long newTat = Math.max(current, now) + emissionIntervalNanos;
+            if (newTat - now > burstNanos) {
+                return false;
+            }
+            if (tat.compareAndSet(current, newTat)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 清理桶已经补满的 key
+     *
+     * @return 清理的 key 数
+     */
+    public int cleanUp() {
+        long now = System.nanoTime();
+        int removed = 0;
+        for (Map.Entry<String, AtomicLong> entry : buckets.entrySet()) {
+            if (entry.getValue().get() - now <= 0 && buckets.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
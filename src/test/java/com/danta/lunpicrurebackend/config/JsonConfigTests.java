@@ -0,0 +1,76 @@
+package com.danta.lunpicrurebackend.config;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.danta.lunpicrurebackend.common.PageResult;
+import com.danta.lunpicrurebackend.common.ResultUtils;
+import com.danta.lunpicrurebackend.exception.ErrorCode;
+import com.danta.lunpicrurebackend.model.vo.LoginUserVo;
+import com.danta.lunpicrurebackend.model.vo.UserVO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Arrays;
+import java.util.Date;
+
+class JsonConfigTests {
+
+    @Test
+    void optimizedSerializersMatchDefaultOutput() throws Exception {
+        UserVO userVO = new UserVO();
+        userVO.setId(1800000000000000001L);
+        userVO.setUserAccount("danta");
+        userVO.setUserName("用户\"1\"");
+        userVO.setCreateTime(new Date(1700000000000L));
+        UserVO emptyUserVO = new UserVO();
+
+        PageResult<UserVO> pageResult = new PageResult<>(2, 10, 12, true);
+        pageResult.setRecords(Arrays.asList(userVO, emptyUserVO));
+        pageResult.setNextCursor("cursor");
+        pageResult.setExactTotal(false);
+        Page<UserVO> page = new Page<>(1, 10, 1);
+        page.setRecords(Arrays.asList(userVO));
+        LoginUserVo loginUserVo = new LoginUserVo();
+        loginUserVo.setId(1L);
+        loginUserVo.setUpdateTime(new Date(1700000000000L));
+
+        for (boolean datesAsTimestamps : new boolean[]{true, false}) {
+            for (String timeZone : new String[]{"UTC", "Asia/Shanghai", "America/St_Johns"}) {
+                ObjectMapper plain = createObjectMapper(false, datesAsTimestamps, timeZone);
+                ObjectMapper optimized = createObjectMapper(true, datesAsTimestamps, timeZone);
+                for (Object value : Arrays.asList(ResultUtils.success(pageResult), ResultUtils.success(page),
+                        ResultUtils.success(userVO), ResultUtils.success(loginUserVo),
+                        ResultUtils.error(ErrorCode.PARAMS_ERROR), pageResult)) {
+                    Assertions.assertEquals(plain.writeValueAsString(value), optimized.writeValueAsString(value));
+                }
+            }
+        }
+    }
+
+    @Test
+    void fastDateFormatMatchesStdDateFormat() throws Exception {
+        ObjectMapper plain = createObjectMapper(false, false, "Europe/Berlin");
+        ObjectMapper optimized = createObjectMapper(true, false, "Europe/Berlin");
+        UserVO userVO = new UserVO();
+        long[] samples = {0L, -1L, 951782400000L, 1711846799999L, 1711846800000L, 253402300799999L, -2208988800001L};
+        for (long millis : samples) {
+            userVO.setCreateTime(new Date(millis));
+            Assertions.assertEquals(plain.writeValueAsString(userVO), optimized.writeValueAsString(userVO));
+        }
+        for (long millis = -2208988800000L; millis < 4102444800000L; millis += 86399999L * 7 + 12345) {
+            userVO.setCreateTime(new Date(millis));
+            Assertions.assertEquals(plain.writeValueAsString(userVO), optimized.writeValueAsString(userVO));
+        }
+    }
+
+    private static ObjectMapper createObjectMapper(boolean optimized, boolean datesAsTimestamps, String timeZone) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json().timeZone(timeZone);
+        if (!datesAsTimestamps) {
+            // 与 Spring Boot 默认配置一致
+            builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        }
+        return new JsonConfig().jacksonObjectMapper(builder, optimized);
+    }
+}
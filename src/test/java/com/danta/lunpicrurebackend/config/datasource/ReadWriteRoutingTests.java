@@ -0,0 +1,143 @@
+package com.danta.lunpicrurebackend.config.datasource;
+
+import com.danta.lunpicrurebackend.annotation.ReadOnly;
+import com.danta.lunpicrurebackend.aop.ReadOnlyAspect;
+import com.danta.lunpicrurebackend.aop.WriteRoutingInterceptor;
+import com.danta.lunpicrurebackend.manager.DataSourceRoutingManager;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Invocation;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Collections;
+
+/**
+ * 两个内嵌 H2 库分别充当主库和从库，每个库的 node 表里写着自己的名字
+ */
+class ReadWriteRoutingTests {
+
+    private static DataSourceRoutingManager dataSourceRoutingManager;
+
+    private static ReadWriteRoutingDataSource dataSource;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        for (String name : new String[]{"primary", "replica"}) {
+            JdbcTemplate template = new JdbcTemplate(new DriverManagerDataSource(url(name), "sa", ""));
+            template.execute("create table node (name varchar(32))");
+            template.update("insert into node values (?)", name);
+        }
+        DataSourceProperties dataSourceProperties = new DataSourceProperties();
+        dataSourceProperties.setUrl(url("primary"));
+        dataSourceProperties.setUsername("sa");
+        dataSourceProperties.setPassword("");
+        dataSourceProperties.afterPropertiesSet();
+        ReadWriteDataSourceProperties.Replica replica = new ReadWriteDataSourceProperties.Replica();
+        replica.setUrl(url("replica"));
+        ReadWriteDataSourceProperties readWriteDataSourceProperties = new ReadWriteDataSourceProperties();
+        readWriteDataSourceProperties.setReplicas(Collections.singletonList(replica));
+
+        dataSourceRoutingManager = new DataSourceRoutingManager(60000);
+        dataSource = new ReadWriteDataSourceConfig().dataSource(dataSourceProperties, readWriteDataSourceProperties,
+                dataSourceRoutingManager, new StandardEnvironment());
+        dataSource.afterPropertiesSet();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        dataSource.close();
+    }
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readOnlyMethodsUseReplica() {
+        NodeService nodeService = proxy();
+        Assertions.assertEquals("primary", nodeService.currentNode());
+        Assertions.assertEquals("replica", nodeService.currentNodeReadOnly());
+        // 退出只读方法后恢复主库
+        Assertions.assertEquals("primary", nodeService.currentNode());
+    }
+
+    @Test
+    void writesGoToPrimaryAndStick() throws Throwable {
+        NodeService nodeService = proxy();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRequestedSessionId("session-1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        Assertions.assertEquals("replica", nodeService.currentNodeReadOnly());
+
+        // 只读方法内的写操作仍在主库执行
+        WriteRoutingInterceptor writeRoutingInterceptor = new WriteRoutingInterceptor(dataSourceRoutingManager);
+        String[] writeNode = new String[1];
+        Executor executor = Mockito.mock(Executor.class);
+        Mockito.when(executor.update(Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+            writeNode[0] = nodeService.currentNode();
+            return 1;
+        });
+        boolean previous = dataSourceRoutingManager.enterReadOnly();
+        try {
+            writeRoutingInterceptor.intercept(new Invocation(executor,
+                    Executor.class.getMethod("update", MappedStatement.class, Object.class), new Object[]{null, null}));
+        } finally {
+            dataSourceRoutingManager.exitReadOnly(previous);
+        }
+        Assertions.assertEquals("primary", writeNode[0]);
+        Assertions.assertEquals("primary", nodeService.currentNodeReadOnly());
+
+        // 同一会话的后续请求仍读主库，其他会话读从库
+        MockHttpServletRequest nextRequest = new MockHttpServletRequest();
+        nextRequest.setRequestedSessionId("session-1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(nextRequest));
+        Assertions.assertEquals("primary", nodeService.currentNodeReadOnly());
+        MockHttpServletRequest otherRequest = new MockHttpServletRequest();
+        otherRequest.setRequestedSessionId("session-2");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(otherRequest));
+        Assertions.assertEquals("replica", nodeService.currentNodeReadOnly());
+    }
+
+    private static NodeService proxy() {
+        ReadOnlyAspect readOnlyAspect = new ReadOnlyAspect();
+        ReflectionTestUtils.setField(readOnlyAspect, "dataSourceRoutingManager", dataSourceRoutingManager);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new NodeService());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(readOnlyAspect);
+        return proxyFactory.getProxy();
+    }
+
+    private static String url(String name) {
+        return "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1";
+    }
+
+    public static class NodeService {
+
+        public String currentNode() {
+            return jdbcTemplate.queryForObject("select name from node", String.class);
+        }
+
+        @ReadOnly
+        public String currentNodeReadOnly() {
+            return jdbcTemplate.queryForObject("select name from node", String.class);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.danta.lunpicrurebackend.manager;
+
+import com.danta.lunpicrurebackend.model.vo.QueryFindingVO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+class QueryInspectorManagerTests {
+
+    @Test
+    void flagsRepeatedAndSlowStatements() {
+        QueryInspectorManager queryInspectorManager = new QueryInspectorManager(100, 3, 10, false);
+        queryInspectorManager.start("UserController.listUserVoByPage");
+        for (int i = 0; i < 5; i++) {
+            queryInspectorManager.beforeStatement("UserMapper.selectById");
+            queryInspectorManager.afterStatement("UserMapper.selectById", 1000, false);
+        }
+        queryInspectorManager.afterStatement("UserMapper.selectList", TimeUnit.MILLISECONDS.toNanos(150), false);
+        // 攒批的 insert 不计入重复次数
+        for (int i = 0; i < 100; i++) {
+            queryInspectorManager.afterStatement("UserMapper.insert", 1000, true);
+        }
+        QueryInspectorManager.QueryProfile profile = queryInspectorManager.finish();
+
+        Assertions.assertEquals(6, profile.getStatementCount());
+        Assertions.assertEquals(5, profile.countOf("UserMapper.selectById"));
+        List<QueryFindingVO> findings = queryInspectorManager.listFindings();
+        Assertions.assertEquals(2, findings.size());
+        Assertions.assertEquals(QueryInspectorManager.TYPE_REPEATED, findings.get(0).getType());
+        Assertions.assertEquals(5, findings.get(0).getCount());
+        Assertions.assertEquals(QueryInspectorManager.TYPE_SLOW, findings.get(1).getType());
+        Assertions.assertEquals("UserController.listUserVoByPage", findings.get(1).getEndpoint());
+        Assertions.assertSame(profile, queryInspectorManager.getLastProfile("UserController.listUserVoByPage"));
+    }
+
+    @Test
+    void assertionsAndFailOnRepeat() {
+        QueryInspectorManager queryInspectorManager = new QueryInspectorManager(100, 2, 10, true);
+        QueryInspectorManager.QueryProfile profile = queryInspectorManager.inspect("getUserVoList", () -> {
+            queryInspectorManager.afterStatement("UserMapper.selectBatchIds", 1000, false);
+            return null;
+        });
+        profile.assertStatementCountAtMost(1).assertNoStatementRepeatedMoreThan(1);
+        Assertions.assertThrows(AssertionError.class, () -> profile.assertStatementCountAtMost(0));
+
+        Assertions.assertThrows(IllegalStateException.class, () -> queryInspectorManager.inspect("loop", () -> {
+            for (int i = 0; i < 3; i++) {
+                queryInspectorManager.beforeStatement("UserMapper.selectById");
+                queryInspectorManager.afterStatement("UserMapper.selectById", 1000, false);
+            }
+            return null;
+        }));
+        // 记录结束后不再影响当前线程
+        queryInspectorManager.beforeStatement("UserMapper.selectById");
+    }
+
+    @Test
+    void keepsLatestFindings() {
+        QueryInspectorManager queryInspectorManager = new QueryInspectorManager(0, 10, 3, false);
+        for (int i = 0; i < 5; i++) {
+            queryInspectorManager.afterStatement("statement" + i, 1, false);
+        }
+        List<QueryFindingVO> findings = queryInspectorManager.listFindings();
+        Assertions.assertEquals(3, findings.size());
+        Assertions.assertEquals("statement4", findings.get(0).getStatement());
+        Assertions.assertEquals("statement2", findings.get(2).getStatement());
+    }
+}
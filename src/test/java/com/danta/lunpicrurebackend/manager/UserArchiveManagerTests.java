@@ -0,0 +1,106 @@
+package com.danta.lunpicrurebackend.manager;
+
+import com.danta.lunpicrurebackend.exception.BusinessException;
+import com.danta.lunpicrurebackend.model.vo.ArchiveProgressVO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内嵌 H2 库（MySQL 模式）上的归档
+ */
+class UserArchiveManagerTests {
+
+    private static final String COLUMNS = "id bigint primary key, userAccount varchar(256) not null, "
+            + "userPassword varchar(512) not null, userName varchar(256), userAvatar varchar(1024), "
+            + "userProfile varchar(512), userRole varchar(256) not null, editTime timestamp not null, "
+            + "createTime timestamp not null, updateTime timestamp not null, isDelete tinyint not null";
+
+    private JdbcTemplate jdbcTemplate;
+
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:user_archive;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate.execute("drop table if exists `user`");
+        jdbcTemplate.execute("drop table if exists user_archive");
+        jdbcTemplate.execute("create table `user` (" + COLUMNS + ")");
+        jdbcTemplate.execute("create table user_archive (" + COLUMNS + ", archiveTime timestamp not null)");
+        Timestamp old = new Timestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(40));
+        Timestamp recent = new Timestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1));
+        for (long id = 1; id <= 25; id++) {
+            // 1-12：删除超过 30 天；13-15：刚删除；其余：正常用户
+            int isDelete = id <= 15 ? 1 : 0;
+            Timestamp updateTime = id <= 12 ? old : recent;
+            jdbcTemplate.update("insert into `user` values (?, ?, 'pwd', null, null, null, 'user', ?, ?, ?, ?)",
+                    id, "account" + id, updateTime, updateTime, updateTime, isDelete);
+        }
+    }
+
+    @Test
+    void archivesOnlyRowsDeletedBeforeRetentionInBatches() {
+        UserArchiveManager manager = createManager(5, 100000);
+        ArchiveProgressVO progress = manager.archive();
+
+        Assertions.assertNull(progress.getError());
+        Assertions.assertFalse(progress.isRunning());
+        Assertions.assertEquals(12, progress.getArchivedRows());
+        Assertions.assertEquals(3, progress.getBatches());
+        Assertions.assertEquals(12, count("user_archive"));
+        Assertions.assertEquals(13, count("`user`"));
+        Assertions.assertEquals(0, (int) jdbcTemplate.queryForObject(
+                "select count(*) from `user` where id <= 12", Integer.class));
+        Assertions.assertEquals("account7", jdbcTemplate.queryForObject(
+                "select userAccount from user_archive where id = 7", String.class));
+
+        // 再次执行没有可归档的行
+        Assertions.assertEquals(0, manager.archive().getArchivedRows());
+    }
+
+    @Test
+    void stopsAtMaxRowsPerRun() {
+        ArchiveProgressVO progress = createManager(5, 7).archive();
+        Assertions.assertEquals(10, progress.getArchivedRows());
+        Assertions.assertEquals(10, count("user_archive"));
+    }
+
+    @Test
+    void manualRunIgnoresScheduleSwitchAndRunsOnce() throws InterruptedException {
+        // 批次之间暂停，保证第二次触发时第一次还在执行
+        UserArchiveManager manager = createManager(false, 5, 100000, 200);
+        manager.scheduledArchive();
+        Assertions.assertEquals(0, count("user_archive"));
+
+        manager.startArchive();
+        Assertions.assertThrows(BusinessException.class, manager::startArchive);
+        Assertions.assertThrows(BusinessException.class, manager::archive);
+        long deadline = System.currentTimeMillis() + 10000;
+        while (count("user_archive") < 12 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assertions.assertEquals(12, count("user_archive"));
+    }
+
+    private UserArchiveManager createManager(int batchSize, long maxRowsPerRun) {
+        return createManager(true, batchSize, maxRowsPerRun, 0);
+    }
+
+    private UserArchiveManager createManager(boolean enabled, int batchSize, long maxRowsPerRun, long pauseMillis) {
+        return new UserArchiveManager(jdbcTemplate, transactionManager, new DataSourceRoutingManager(1000),
+                new MetricsManager(), enabled, 30, batchSize, pauseMillis, maxRowsPerRun, 0);
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Integer.class);
+    }
+}
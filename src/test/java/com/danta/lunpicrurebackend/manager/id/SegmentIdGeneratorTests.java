@@ -0,0 +1,128 @@
+package com.danta.lunpicrurebackend.manager.id;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.danta.lunpicrurebackend.manager.DataSourceRoutingManager;
+import com.danta.lunpicrurebackend.model.entity.User;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+class SegmentIdGeneratorTests {
+
+    @Test
+    void concurrentIdsAreUniqueAcrossSegments() throws Exception {
+        AtomicLong maxId = new AtomicLong();
+        AtomicInteger allocations = new AtomicInteger();
+        SegmentIdGenerator generator = new SegmentIdGenerator(bizTag -> {
+            allocations.incrementAndGet();
+            long end = maxId.addAndGet(100);
+            return new IdSegment(end - 99, end + 1);
+        }, 0.5);
+        int threads = 8;
+        int perThread = 10000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                long[] ids = new long[perThread];
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = generator.nextId("user");
+                }
+                return ids;
+            }));
+        }
+        Set<Long> seen = new HashSet<>();
+        for (Future<long[]> future : futures) {
+            for (long id : future.get()) {
+                Assertions.assertTrue(seen.add(id), "duplicate id " + id);
+            }
+        }
+        executor.shutdown();
+        generator.close();
+        Assertions.assertEquals(threads * perThread, seen.size());
+        // 每段 100 个，至多多预取一段
+        Assertions.assertTrue(allocations.get() <= threads * perThread / 100 + 1);
+    }
+
+    @Test
+    void nextSegmentIsPrefetchedBeforeCurrentRunsOut() throws Exception {
+        AtomicLong maxId = new AtomicLong();
+        List<String> allocatingThreads = new CopyOnWriteArrayList<>();
+        CountDownLatch prefetched = new CountDownLatch(2);
+        SegmentIdGenerator generator = new SegmentIdGenerator(bizTag -> {
+            allocatingThreads.add(Thread.currentThread().getName());
+            long end = maxId.addAndGet(10);
+            prefetched.countDown();
+            return new IdSegment(end - 9, end + 1);
+        }, 0.5);
+        // 第一段同步分配，发放到剩余一半时在后台预取第二段
+        for (int i = 0; i < 6; i++) {
+            Assertions.assertEquals(i + 1, generator.nextId("user"));
+        }
+        Assertions.assertTrue(prefetched.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(Arrays.asList(Thread.currentThread().getName(), "id-segment-prefetch"),
+                allocatingThreads);
+        for (int i = 6; i < 15; i++) {
+            Assertions.assertEquals(i + 1, generator.nextId("user"));
+        }
+        generator.close();
+    }
+
+    @Test
+    void failedPrefetchFallsBackToSynchronousAllocation() {
+        AtomicLong maxId = new AtomicLong();
+        AtomicInteger calls = new AtomicInteger();
+        SegmentIdGenerator generator = new SegmentIdGenerator(bizTag -> {
+            // 第二次调用（预取）失败
+            if (calls.incrementAndGet() == 2) {
+                throw new IllegalStateException("database unavailable");
+            }
+            long end = maxId.addAndGet(4);
+            return new IdSegment(end - 3, end + 1);
+        }, 0.5);
+        for (int i = 0; i < 8; i++) {
+            Assertions.assertEquals(i + 1, generator.nextId("user"));
+        }
+        generator.close();
+    }
+
+    @Test
+    void jdbcAllocatorStartsAfterExistingIdsAndNeverOverlaps() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:id_segment;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table id_segment (bizTag varchar(128) primary key, maxId bigint not null)");
+        jdbcTemplate.execute("create table `user` (id bigint primary key)");
+        jdbcTemplate.update("insert into `user` values (41)");
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), User.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        JdbcIdSegmentAllocator allocator = new JdbcIdSegmentAllocator(jdbcTemplate, transactionTemplate,
+                new DataSourceRoutingManager(1000), bizTag -> 10);
+
+        IdSegment first = allocator.allocate("user");
+        IdSegment second = allocator.allocate("user");
+        Assertions.assertEquals(42, first.getStart());
+        Assertions.assertEquals(52, first.getEnd());
+        Assertions.assertEquals(52, second.getStart());
+        Assertions.assertEquals(62, second.getEnd());
+        Assertions.assertEquals(61L, jdbcTemplate.queryForObject(
+                "select maxId from id_segment where bizTag = 'user'", Long.class));
+
+        SegmentIdGenerator generator = new SegmentIdGenerator(allocator, 0.5);
+        User user = new User();
+        Assertions.assertEquals(62L, generator.nextId(user));
+        generator.close();
+    }
+}
@@ -0,0 +1,188 @@
+package com.danta.lunpicrurebackend.manager.session;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.session.MapSession;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 内存映射文件会话存储
+ */
+class MappedFileSessionRepositoryTests {
+
+    @TempDir
+    Path tempDir;
+
+    private MappedFileSessionRepository repository;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (repository != null) {
+            repository.close();
+        }
+    }
+
+    @Test
+    void saveFindAndDelete() throws IOException {
+        repository = open(4, 16);
+        MapSession session = repository.createSession();
+        session.setAttribute("userId", 42L);
+        repository.save(session);
+
+        MapSession found = repository.findById(session.getId());
+        Assertions.assertNotNull(found);
+        Assertions.assertEquals(42L, (Long) found.getAttribute("userId"));
+        Assertions.assertEquals(Duration.ofMinutes(30), found.getMaxInactiveInterval());
+
+        repository.deleteById(session.getId());
+        Assertions.assertNull(repository.findById(session.getId()));
+        Assertions.assertNull(repository.findById("unknown"));
+    }
+
+    @Test
+    void sessionsSurviveReopen() throws IOException {
+        repository = open(4, 16);
+        MapSession session = repository.createSession();
+        session.setAttribute("userId", 7L);
+        repository.save(session);
+        repository.close();
+
+        repository = open(4, 16);
+        Assertions.assertEquals(7L, (Long) repository.findById(session.getId()).getAttribute("userId"));
+    }
+
+    @Test
+    void expiredSessionsAreNotReturned() throws IOException {
+        repository = open(4, 16);
+        MapSession expired = repository.createSession();
+        expired.setMaxInactiveInterval(Duration.ofSeconds(1));
+        expired.setLastAccessedTime(Instant.now().minusSeconds(60));
+        repository.save(expired);
+        MapSession alive = repository.createSession();
+        repository.save(alive);
+
+        Assertions.assertEquals(1, repository.cleanUpExpiredSessions());
+        Assertions.assertNull(repository.findById(expired.getId()));
+        Assertions.assertNotNull(repository.findById(alive.getId()));
+    }
+
+    @Test
+    void changedSessionIdReplacesOriginal() throws IOException {
+        repository = open(4, 16);
+        MapSession session = repository.createSession();
+        repository.save(session);
+        String originalId = session.getId();
+
+        MapSession found = repository.findById(originalId);
+        String newId = found.changeSessionId();
+        repository.save(found);
+
+        Assertions.assertNull(repository.findById(originalId));
+        Assertions.assertNotNull(repository.findById(newId));
+
+        // 同一个会话对象再次保存（originalId 仍是旧 id）
+        found.setAttribute("userId", 1L);
+        repository.save(found);
+        Assertions.assertEquals(1L, (Long) repository.findById(newId).getAttribute("userId"));
+    }
+
+    @Test
+    void fullSegmentReusesExpiredSlots() throws IOException {
+        repository = open(1, 4);
+        MapSession expired = repository.createSession();
+        expired.setMaxInactiveInterval(Duration.ofSeconds(1));
+        expired.setLastAccessedTime(Instant.now().minusSeconds(60));
+        repository.save(expired);
+        for (int i = 0; i < 3; i++) {
+            repository.save(repository.createSession());
+        }
+        MapSession session = repository.createSession();
+        repository.save(session);
+        repository.close();
+
+        // 写入了文件（复用过期会话的槽位），重新打开后仍然存在
+        repository = open(1, 4);
+        Assertions.assertNotNull(repository.findById(session.getId()));
+        Assertions.assertNull(repository.findById(expired.getId()));
+    }
+
+    @Test
+    void fullSegmentFallsBackToMemory() throws IOException {
+        repository = open(1, 4);
+        for (int i = 0; i < 4; i++) {
+            repository.save(repository.createSession());
+        }
+        MapSession session = repository.createSession();
+        session.setAttribute("userId", 42L);
+        repository.save(session);
+        Assertions.assertEquals(42L, (Long) repository.findById(session.getId()).getAttribute("userId"));
+
+        repository.deleteById(session.getId());
+        Assertions.assertNull(repository.findById(session.getId()));
+
+        repository.save(session);
+        repository.close();
+        // 溢出的会话只在本实例内存中
+        repository = open(1, 4);
+        Assertions.assertNull(repository.findById(session.getId()));
+    }
+
+    @Test
+    void oversizedSessionFallsBackToMemory() throws IOException {
+        repository = open(1, 4);
+        MapSession session = repository.createSession();
+        session.setAttribute("payload", new byte[4096]);
+        repository.save(session);
+        Assertions.assertEquals(4096, ((byte[]) repository.findById(session.getId()).getAttribute("payload")).length);
+    }
+
+    @Test
+    void cleanupReclaimsDeletedSlots() throws IOException {
+        repository = open(1, 8);
+        // 反复创建、删除会话，删除标记逐渐占满整段
+        for (int i = 0; i < 64; i++) {
+            MapSession session = repository.createSession();
+            repository.save(session);
+            repository.deleteById(session.getId());
+        }
+        repository.cleanUpExpiredSessions();
+        Assertions.assertEquals(8, repository.countEmptySlots());
+    }
+
+    @Test
+    void cleanupRehashesSegmentWithoutEmptySlots() throws IOException {
+        repository = open(1, 8);
+        List<MapSession> sessions = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            MapSession session = repository.createSession();
+            repository.save(session);
+            sessions.add(session);
+        }
+        for (int i = 0; i < 5; i++) {
+            repository.deleteById(sessions.get(i).getId());
+        }
+        Assertions.assertEquals(0, repository.countEmptySlots());
+
+        repository.cleanUpExpiredSessions();
+        Assertions.assertEquals(5, repository.countEmptySlots());
+        for (int i = 5; i < 8; i++) {
+            Assertions.assertNotNull(repository.findById(sessions.get(i).getId()));
+        }
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertNull(repository.findById(sessions.get(i).getId()));
+        }
+    }
+
+    private MappedFileSessionRepository open(int segments, int slotsPerSegment) throws IOException {
+        return new MappedFileSessionRepository(tempDir.resolve("session.dat"), segments, slotsPerSegment, 1024,
+                Duration.ofMinutes(30));
+    }
+}
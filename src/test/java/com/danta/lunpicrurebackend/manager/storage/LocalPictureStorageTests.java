@@ -0,0 +1,95 @@
+package com.danta.lunpicrurebackend.manager.storage;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.danta.lunpicrurebackend.exception.BusinessException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+class LocalPictureStorageTests {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void storesByContentHashAndDeduplicates() throws IOException {
+        LocalPictureStorage storage = new LocalPictureStorage(root);
+        byte[] content = new byte[3 * 1024 * 1024 + 17];
+        new Random(1).nextBytes(content);
+        String sha256 = DigestUtil.sha256Hex(content);
+
+        StoredObject first = commit(storage, content);
+        Assertions.assertEquals(sha256.substring(0, 2) + "/" + sha256 + ".png", first.getKey());
+        Assertions.assertEquals(content.length, first.getSize());
+        Assertions.assertEquals(sha256, first.getSha256());
+        Assertions.assertFalse(first.isDeduplicated());
+        Assertions.assertArrayEquals(content, Files.readAllBytes(storage.localPath(first.getKey())));
+
+        StoredObject second = commit(storage, content);
+        Assertions.assertTrue(second.isDeduplicated());
+        Assertions.assertEquals(first.getKey(), second.getKey());
+        Assertions.assertEquals(0, countFiles(root.resolve("tmp")));
+
+        try (ReadableByteChannel channel = storage.open(first.getKey())) {
+            ByteBuffer buffer = ByteBuffer.allocate(content.length);
+            while (channel.read(buffer) > 0) {
+                // 读满为止
+            }
+            Assertions.assertArrayEquals(content, buffer.array());
+        }
+    }
+
+    @Test
+    void rejectsOversizedUploadAndRemovesTempFile() throws IOException {
+        LocalPictureStorage storage = new LocalPictureStorage(root);
+        byte[] content = new byte[2048];
+        Assertions.assertThrows(BusinessException.class, () ->
+                storage.stage(Channels.newChannel(new ByteArrayInputStream(content)), 1024));
+        Assertions.assertEquals(0, countFiles(root.resolve("tmp")));
+    }
+
+    @Test
+    void uncommittedStagedObjectIsDeletedOnClose() throws IOException {
+        LocalPictureStorage storage = new LocalPictureStorage(root);
+        Path stagedPath;
+        try (StagedObject stagedObject = storage.stage(
+                Channels.newChannel(new ByteArrayInputStream(new byte[]{1, 2, 3})), 1024)) {
+            stagedPath = stagedObject.getPath();
+            Assertions.assertEquals(3, stagedObject.getSize());
+            Assertions.assertTrue(Files.exists(stagedPath));
+        }
+        Assertions.assertFalse(Files.exists(stagedPath));
+    }
+
+    @Test
+    void rejectsKeysOutsideStorage() throws IOException {
+        LocalPictureStorage storage = new LocalPictureStorage(root);
+        Files.write(root.resolve("secret.txt"), new byte[]{1});
+        Assertions.assertNull(storage.localPath("../secret.txt"));
+        Assertions.assertNull(storage.localPath("tmp/secret.txt"));
+        Assertions.assertNull(storage.open("ab/" + DigestUtil.sha256Hex("missing") + ".png"));
+    }
+
+    private static StoredObject commit(LocalPictureStorage storage, byte[] content) throws IOException {
+        try (StagedObject stagedObject = storage.stage(
+                Channels.newChannel(new ByteArrayInputStream(content)), Long.MAX_VALUE)) {
+            return storage.commit(stagedObject, "png");
+        }
+    }
+
+    private static long countFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.danta.lunpicrurebackend.manager.thumbnail;
+
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.AbstractWrapper;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.danta.lunpicrurebackend.config.ThumbnailProperties;
+import com.danta.lunpicrurebackend.manager.MetricsManager;
+import com.danta.lunpicrurebackend.manager.storage.LocalPictureStorage;
+import com.danta.lunpicrurebackend.manager.storage.StagedObject;
+import com.danta.lunpicrurebackend.manager.storage.StoredObject;
+import com.danta.lunpicrurebackend.mapper.PictureMapper;
+import com.danta.lunpicrurebackend.model.entity.Picture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+
+/**
+ * 真实的本地存储 + 模拟的 PictureMapper
+ */
+class PictureThumbnailManagerTests {
+
+    private static final String URL_PREFIX = "/api/picture/file/";
+
+    @TempDir
+    Path root;
+
+    private LocalPictureStorage storage;
+
+    private PictureMapper pictureMapper;
+
+    private MetricsManager metricsManager;
+
+    private PictureThumbnailManager manager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storage = new LocalPictureStorage(root);
+        pictureMapper = Mockito.mock(PictureMapper.class);
+        metricsManager = new MetricsManager();
+        manager = new PictureThumbnailManager(storage, pictureMapper, properties(32 * 1024 * 1024), metricsManager,
+                URL_PREFIX);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.destroy();
+    }
+
+    @Test
+    void generatesEachSizeAsynchronously() throws IOException {
+        StoredObject original = store(image(3000, 1500), "png");
+        Assertions.assertTrue(manager.submit(1L, original.getKey(), original.getSha256()));
+
+        JSONObject derivatives = awaitDerivatives();
+        assertSize(derivatives.getStr("thumbnail"), 256, 128);
+        assertSize(derivatives.getStr("medium"), 1024, 512);
+        Assertions.assertTrue(derivatives.getStr("thumbnail").endsWith(".jpg"));
+        Assertions.assertEquals(1, metricsManager.snapshot().getCounters().get("thumbnail.persist.processed"));
+        Assertions.assertEquals(0, metricsManager.snapshot().getCounters().get("thumbnail.decode.failed"));
+    }
+
+    @Test
+    void usesOriginalForSizesLargerThanImage() throws IOException {
+        StoredObject original = store(image(600, 300), "png");
+        manager.submit(2L, original.getKey(), original.getSha256());
+
+        JSONObject derivatives = awaitDerivatives();
+        assertSize(derivatives.getStr("thumbnail"), 256, 128);
+        Assertions.assertEquals(URL_PREFIX + original.getKey(), derivatives.getStr("medium"));
+    }
+
+    @Test
+    void reusesDerivativesOfSameContent() {
+        Picture generated = new Picture();
+        generated.setDerivatives("{\"thumbnail\":\"/api/picture/file/ab/x.jpg\"}");
+        Mockito.when(pictureMapper.selectOne(Mockito.any())).thenReturn(generated);
+        manager.submit(3L, "ab/missing.png", "hash");
+
+        Assertions.assertEquals(generated.getDerivatives(), awaitDerivatives().toString());
+        Assertions.assertEquals(0, metricsManager.snapshot().getCounters().get("thumbnail.resize.processed"));
+    }
+
+    @Test
+    void decodedPixelBudgetIsReleasedAfterResize() throws IOException {
+        manager.destroy();
+        // 预算小于单张图片：按整个预算预占，逐张解码
+        manager = new PictureThumbnailManager(storage, pictureMapper, properties(100_000), metricsManager, URL_PREFIX);
+        for (int i = 0; i < 3; i++) {
+            StoredObject original = store(image(2000 + i, 1000), "png");
+            Assertions.assertTrue(manager.submit(10L + i, original.getKey(), original.getSha256()));
+        }
+
+        Mockito.verify(pictureMapper, Mockito.timeout(20000).times(3)).update(Mockito.isNull(), Mockito.any());
+        Assertions.assertEquals(0, metricsManager.snapshot().getGauges().get("thumbnail.decoded.pixels"));
+        Assertions.assertEquals(0, metricsManager.snapshot().getCounters().get("thumbnail.decode.failed"));
+    }
+
+    /**
+     * 等待保存，取出 set derivatives 的参数值（JSON 对象）
+     */
+    @SuppressWarnings("unchecked")
+    private JSONObject awaitDerivatives() {
+        ArgumentCaptor<Wrapper<Picture>> captor = ArgumentCaptor.forClass(Wrapper.class);
+        Mockito.verify(pictureMapper, Mockito.timeout(10000)).update(Mockito.isNull(), captor.capture());
+        return ((AbstractWrapper<Picture, String, ?>) captor.getValue()).getParamNameValuePairs().values().stream()
+                .map(String::valueOf)
+                .filter(JSONUtil::isTypeJSONObject)
+                .map(JSONUtil::parseObj)
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+    }
+
+    private void assertSize(String url, int width, int height) throws IOException {
+        BufferedImage image = ImageIO.read(storage.localPath(url.substring(URL_PREFIX.length())).toFile());
+        Assertions.assertEquals(width, image.getWidth());
+        Assertions.assertEquals(height, image.getHeight());
+    }
+
+    private StoredObject store(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        try (StagedObject stagedObject = storage.stage(
+                Channels.newChannel(new ByteArrayInputStream(out.toByteArray())), Long.MAX_VALUE)) {
+            return storage.commit(stagedObject, format);
+        }
+    }
+
+    private static ThumbnailProperties properties(int decodedPixelBudget) {
+        ThumbnailProperties thumbnailProperties = new ThumbnailProperties();
+        thumbnailProperties.getSizes().put("thumbnail", 256);
+        thumbnailProperties.getSizes().put("medium", 1024);
+        thumbnailProperties.setThreads(2);
+        thumbnailProperties.setTilePixels(4096);
+        thumbnailProperties.setDecodedPixelBudget(decodedPixelBudget);
+        return thumbnailProperties;
+    }
+
+    private static BufferedImage image(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 255 / width) << 16 | (y * 255 / height) << 8);
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,127 @@
+package com.danta.lunpicrurebackend.service.impl;
+
+import cn.hutool.core.codec.Base64;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.danta.lunpicrurebackend.exception.BusinessException;
+import com.danta.lunpicrurebackend.exception.ErrorCode;
+import com.danta.lunpicrurebackend.model.dto.user.UserQueryRequest;
+import com.danta.lunpicrurebackend.model.entity.User;
+import com.danta.lunpicrurebackend.model.enums.UserSortFieldEnum;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 排序字段白名单与游标编解码
+ */
+class UserServiceImplTests {
+
+    @Test
+    void rejectsSortFieldOutsideWhitelist() {
+        UserQueryRequest userQueryRequest = new UserQueryRequest();
+        userQueryRequest.setSortField("id desc, (select 1)");
+        BusinessException e = Assertions.assertThrows(BusinessException.class,
+                () -> new UserServiceImpl().getUserQueryWrapper(userQueryRequest));
+        Assertions.assertEquals(ErrorCode.PARAMS_ERROR.getCode(), e.getCode());
+
+        userQueryRequest.setSortField("createTime");
+        userQueryRequest.setSortOrder("ascend");
+        String sqlSegment = new UserServiceImpl().getUserQueryWrapper(userQueryRequest).getSqlSegment();
+        Assertions.assertTrue(sqlSegment.contains("ORDER BY createTime ASC"), sqlSegment);
+    }
+
+    @Test
+    void userNameSortsOffsetPagesButNotCursorPages() {
+        UserQueryRequest userQueryRequest = new UserQueryRequest();
+        userQueryRequest.setSortField("userName");
+        userQueryRequest.setSortOrder("descend");
+        userQueryRequest.setPageSize(10);
+        String sqlSegment = new UserServiceImpl().getUserQueryWrapper(userQueryRequest).getSqlSegment();
+        Assertions.assertTrue(sqlSegment.contains("ORDER BY userName DESC"), sqlSegment);
+
+        // userName 可为空且不唯一，不能作为游标
+        BusinessException e = Assertions.assertThrows(BusinessException.class,
+                () -> new UserServiceImpl().listUserByCursor(userQueryRequest));
+        Assertions.assertEquals(ErrorCode.PARAMS_ERROR.getCode(), e.getCode());
+    }
+
+    @Test
+    void cursorRoundTrip() {
+        User user = user(42L, 1700000000000L);
+        String cursor = UserServiceImpl.encodeCursor(user, UserSortFieldEnum.CREATE_TIME, false);
+        String[] parts = UserServiceImpl.decodeCursor(cursor, UserSortFieldEnum.CREATE_TIME, false);
+        Assertions.assertArrayEquals(new String[]{"createTime", "descend", "42", "1700000000000"}, parts);
+    }
+
+    @Test
+    void rejectsTamperedCursor() {
+        String cursor = UserServiceImpl.encodeCursor(user(42L, 1700000000000L), UserSortFieldEnum.CREATE_TIME, true);
+        List<String> tampered = new ArrayList<>();
+        tampered.add("not base64!");
+        tampered.add(Base64.encodeUrlSafe("createTime,ascend,42"));
+        tampered.add(Base64.encodeUrlSafe("createTime,ascend,abc,1700000000000"));
+        tampered.add(Base64.encodeUrlSafe("createTime,ascend,42,yesterday"));
+        tampered.add(Base64.encodeUrlSafe("createTime,ascend,42,1 or 1=1"));
+        for (String token : tampered) {
+            assertParamsError(() -> UserServiceImpl.decodeCursor(token, UserSortFieldEnum.CREATE_TIME, true));
+        }
+        // 排序条件与游标不一致
+        assertParamsError(() -> UserServiceImpl.decodeCursor(cursor, UserSortFieldEnum.UPDATE_TIME, true));
+        assertParamsError(() -> UserServiceImpl.decodeCursor(cursor, UserSortFieldEnum.CREATE_TIME, false));
+    }
+
+    @Test
+    void cursorBreaksTiesById() {
+        // 两个用户排序值相同，游标中的 id 决定下一页从哪一行开始
+        User first = user(7L, 1700000000000L);
+        User second = user(8L, 1700000000000L);
+        String firstCursor = UserServiceImpl.encodeCursor(first, UserSortFieldEnum.CREATE_TIME, true);
+        Assertions.assertNotEquals(firstCursor, UserServiceImpl.encodeCursor(second, UserSortFieldEnum.CREATE_TIME, true));
+
+        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+        UserServiceImpl.applyCursor(queryWrapper,
+                UserServiceImpl.decodeCursor(firstCursor, UserSortFieldEnum.CREATE_TIME, true),
+                UserSortFieldEnum.CREATE_TIME, true);
+        Assertions.assertEquals("((createTime > #{ew.paramNameValuePairs.MPGENVAL1} OR "
+                        + "(createTime = #{ew.paramNameValuePairs.MPGENVAL2} AND id > #{ew.paramNameValuePairs.MPGENVAL3})))",
+                queryWrapper.getSqlSegment());
+        Assertions.assertEquals(new Date(1700000000000L), queryWrapper.getParamNameValuePairs().get("MPGENVAL1"));
+        Assertions.assertEquals(7L, queryWrapper.getParamNameValuePairs().get("MPGENVAL3"));
+    }
+
+    @Test
+    void descendingCursorComparesBelowLastRow() {
+        User last = user(7L, 1700000000000L);
+        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+        UserServiceImpl.applyCursor(queryWrapper,
+                UserServiceImpl.decodeCursor(UserServiceImpl.encodeCursor(last, UserSortFieldEnum.CREATE_TIME, false),
+                        UserSortFieldEnum.CREATE_TIME, false),
+                UserSortFieldEnum.CREATE_TIME, false);
+        Assertions.assertEquals("((createTime < #{ew.paramNameValuePairs.MPGENVAL1} OR "
+                        + "(createTime = #{ew.paramNameValuePairs.MPGENVAL2} AND id < #{ew.paramNameValuePairs.MPGENVAL3})))",
+                queryWrapper.getSqlSegment());
+
+        QueryWrapper<User> idWrapper = new QueryWrapper<>();
+        UserServiceImpl.applyCursor(idWrapper,
+                UserServiceImpl.decodeCursor(UserServiceImpl.encodeCursor(last, UserSortFieldEnum.ID, false),
+                        UserSortFieldEnum.ID, false),
+                UserSortFieldEnum.ID, false);
+        Assertions.assertEquals("(id < #{ew.paramNameValuePairs.MPGENVAL1})", idWrapper.getSqlSegment());
+    }
+
+    private static void assertParamsError(Runnable runnable) {
+        BusinessException e = Assertions.assertThrows(BusinessException.class, runnable::run);
+        Assertions.assertEquals(ErrorCode.PARAMS_ERROR.getCode(), e.getCode());
+    }
+
+    private static User user(long id, long createTime) {
+        User user = new User();
+        user.setId(id);
+        user.setUserAccount("account" + id);
+        user.setCreateTime(new Date(createTime));
+        return user;
+    }
+}
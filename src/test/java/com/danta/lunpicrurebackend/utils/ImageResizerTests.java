@@ -0,0 +1,60 @@
+package com.danta.lunpicrurebackend.utils;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+class ImageResizerTests {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void averagesCoveredSourcePixels() {
+        // 4x2：左半黑、右半白，缩成 2x1
+        int black = 0xFF000000;
+        int white = 0xFFFFFFFF;
+        int[] src = {black, black, white, white, black, black, white, white};
+        int[] dst = new ImageResizer(pool, 1024).resize(src, 4, 2, 2, 1);
+        Assertions.assertArrayEquals(new int[]{black, white}, dst);
+
+        // 2x1 缩成 1x1 取平均（四舍五入）
+        int[] gray = new ImageResizer(pool, 1024).resize(new int[]{0xFF000000, 0xFF0000FF}, 2, 1, 1, 1);
+        Assertions.assertEquals(0xFF000080, gray[0]);
+    }
+
+    @Test
+    void tiledResultMatchesSingleTile() {
+        int width = 1201;
+        int height = 799;
+        int[] src = new int[width * height];
+        Random random = new Random(7);
+        for (int i = 0; i < src.length; i++) {
+            src[i] = random.nextInt();
+        }
+        int[] single = new ImageResizer(pool, Integer.MAX_VALUE).resize(src, width, height, 300, 200);
+        int[] tiled = new ImageResizer(pool, 300).resize(src, width, height, 300, 200);
+        Assertions.assertArrayEquals(single, tiled);
+    }
+
+    @Test
+    void fitsWithinKeepingAspectRatio() {
+        Assertions.assertArrayEquals(new int[]{256, 144}, ImageResizer.fitWithin(1920, 1080, 256));
+        Assertions.assertArrayEquals(new int[]{144, 256}, ImageResizer.fitWithin(1080, 1920, 256));
+        Assertions.assertArrayEquals(new int[]{100, 50}, ImageResizer.fitWithin(100, 50, 256));
+        Assertions.assertArrayEquals(new int[]{256, 1}, ImageResizer.fitWithin(10000, 10, 256));
+    }
+}
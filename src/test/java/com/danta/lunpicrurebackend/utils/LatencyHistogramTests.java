@@ -0,0 +1,41 @@
+package com.danta.lunpicrurebackend.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+class LatencyHistogramTests {
+
+    @Test
+    void bucketsCoverValuesWithBoundedError() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            long upperBound = LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(value));
+            Assertions.assertTrue(upperBound >= value, "value: " + value);
+            Assertions.assertTrue(upperBound - value <= value / 16, "value: " + value);
+        }
+        Assertions.assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void percentilesWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100000; value++) {
+            histogram.record(value * 1000);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Assertions.assertEquals(100000, snapshot.getCount());
+        Assertions.assertEquals(100000L * 1000, snapshot.getMax());
+        assertNear(50000L * 1000, snapshot.valueAt(0.5));
+        assertNear(99000L * 1000, snapshot.valueAt(0.99));
+        assertNear(99900L * 1000, snapshot.valueAt(0.999));
+        assertNear(50000.5 * 1000, snapshot.getMean());
+    }
+
+    private static void assertNear(double expected, double actual) {
+        Assertions.assertTrue(actual >= expected && actual <= expected * 17 / 16,
+                "expected: " + expected + ", actual: " + actual);
+    }
+}
@@ -0,0 +1,24 @@
+package com.danta.lunpicrurebackend.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LogRateLimiterTests {
+
+    @Test
+    void permitsPerWindowAndCountsSuppressed() throws InterruptedException {
+        LogRateLimiter logRateLimiter = new LogRateLimiter(3, 50);
+        int acquired = 0;
+        for (int i = 0; i < 10; i++) {
+            if (logRateLimiter.tryAcquire()) {
+                acquired++;
+            }
+        }
+        Assertions.assertEquals(3, acquired);
+
+        Thread.sleep(60);
+        Assertions.assertTrue(logRateLimiter.tryAcquire());
+        Assertions.assertEquals(7, logRateLimiter.drainSuppressed());
+        Assertions.assertEquals(0, logRateLimiter.drainSuppressed());
+    }
+}
@@ -0,0 +1,42 @@
+package com.danta.lunpicrurebackend.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class RadixTrieTests {
+
+    @Test
+    void prefixLookupAfterSplitAndRemove() {
+        RadixTrie trie = new RadixTrie();
+        trie.add("danta", 1);
+        trie.add("dantai", 2);
+        trie.add("dan", 3);
+        trie.add("david", 4);
+        trie.add("lun", 5);
+
+        Assertions.assertEquals(Arrays.asList(3L, 1L, 2L), collect(trie, "dan", 10));
+        Assertions.assertEquals(Arrays.asList(3L, 1L, 2L, 4L), collect(trie, "da", 10));
+        Assertions.assertEquals(Arrays.asList(3L, 1L), collect(trie, "d", 2));
+        Assertions.assertEquals(Arrays.asList(1L, 2L), collect(trie, "dant", 10));
+        Assertions.assertTrue(collect(trie, "dx", 10).isEmpty());
+
+        trie.remove("dan", 3);
+        trie.remove("danta", 1);
+        Assertions.assertEquals(Arrays.asList(2L), collect(trie, "dan", 10));
+        Assertions.assertEquals(Arrays.asList(2L, 4L), collect(trie, "da", 10));
+        Assertions.assertEquals(3, trie.size());
+    }
+
+    private static List<Long> collect(RadixTrie trie, String prefix, int limit) {
+        List<Long> ids = new ArrayList<>();
+        trie.forEachWithPrefix(prefix, id -> {
+            ids.add(id);
+            return ids.size() < limit;
+        });
+        return ids;
+    }
+}
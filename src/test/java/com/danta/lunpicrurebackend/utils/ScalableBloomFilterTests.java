@@ -0,0 +1,28 @@
+package com.danta.lunpicrurebackend.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ScalableBloomFilterTests {
+
+    @Test
+    void growsWithoutFalseNegatives() {
+        ScalableBloomFilter bloomFilter = new ScalableBloomFilter(1000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            bloomFilter.add("account" + i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            Assertions.assertTrue(bloomFilter.mightContain("account" + i));
+        }
+        Assertions.assertTrue(bloomFilter.stageCount() > 1);
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (bloomFilter.mightContain("absent" + i)) {
+                falsePositives++;
+            }
+        }
+        Assertions.assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+        Assertions.assertTrue(bloomFilter.expectedFpp() < 0.02);
+    }
+}
@@ -0,0 +1,34 @@
+package com.danta.lunpicrurebackend.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketLimiterTests {
+
+    @Test
+    void allowsBurstThenRefills() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(10, 1000, 3);
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(limiter.tryAcquire("127.0.0.1"));
+        }
+        Assertions.assertFalse(limiter.tryAcquire("127.0.0.1"));
+        // 其他 key 不受影响
+        Assertions.assertTrue(limiter.tryAcquire("127.0.0.2"));
+
+        // 每 100ms 补充一个令牌
+        Thread.sleep(120);
+        Assertions.assertTrue(limiter.tryAcquire("127.0.0.1"));
+        Assertions.assertFalse(limiter.tryAcquire("127.0.0.1"));
+    }
+
+    @Test
+    void cleansUpRefilledKeys() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(100, 1000, 1);
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+        Assertions.assertEquals(0, limiter.cleanUp());
+        Thread.sleep(20);
+        Assertions.assertEquals(2, limiter.cleanUp());
+        Assertions.assertEquals(0, limiter.size());
+    }
+}